@@ -28,10 +28,13 @@ import org.jfree.data.UnknownKeyException;
 
 import fi.smaa.jsmaa.model.Alternative;
 import fi.smaa.jsmaa.simulator.SMAATRIResults;
+import fi.smaa.jsmaa.simulator.SMAATRISnapshot;
 
 @SuppressWarnings("rawtypes")
 public class CategoryAcceptabilitiesDataset extends AlternativeColumnCategoryDataset<SMAATRIResults> {
 	
+	private SMAATRISnapshot snapshot;
+	
 	// categories = alternatives
 	// series = categoryacceptabilities		
 	public CategoryAcceptabilitiesDataset(SMAATRIResults results) {
@@ -42,6 +45,11 @@ public class CategoryAcceptabilitiesDataset extends AlternativeColumnCategoryDat
 		}
 	}
 
+	@Override
+	protected void updateSnapshot() {
+		snapshot = results.getSnapshot();
+	}
+
 	public int getRowIndex(Comparable cat) {
 		return results.getCategories().indexOf(cat);
 	}
@@ -64,12 +72,7 @@ public class CategoryAcceptabilitiesDataset extends AlternativeColumnCategoryDat
 		if (!results.getCategories().contains(cat)) {
 			throw new UnknownKeyException("Unknown category");
 		}
-		List<Double> accs = results.getCategoryAcceptabilities().get(alt);
-		int catIndex = results.getCategories().indexOf(cat);
-		if (catIndex < 0) { // FIXME
-			return Double.NaN;
-		}
-		return accs.get(catIndex);
+		return snapshot.getCategoryAcceptability(results.getAlternatives().indexOf(alt), results.getCategories().indexOf(cat));
 	}
 
 	public int getRowCount() {
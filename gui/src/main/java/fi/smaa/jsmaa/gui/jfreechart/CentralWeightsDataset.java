@@ -24,23 +24,35 @@ package fi.smaa.jsmaa.gui.jfreechart;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.Map.Entry;
 
 import org.jfree.data.UnknownKeyException;
 import org.jfree.data.category.CategoryDataset;
 
 import fi.smaa.jsmaa.model.Alternative;
-import fi.smaa.jsmaa.model.Criterion;
 import fi.smaa.jsmaa.simulator.SMAA2Results;
+import fi.smaa.jsmaa.simulator.SMAA2Snapshot;
 
 @SuppressWarnings("rawtypes")
 public class CentralWeightsDataset extends SMAADataSet<SMAA2Results> implements CategoryDataset{
 	
+	private SMAA2Snapshot snapshot;
+	private List<Alternative> alternativesWithCentralWeights;
+	
 	public CentralWeightsDataset(SMAA2Results res) {
 		super(res);
 	}
+	
+	@Override
+	protected void updateSnapshot() {
+		snapshot = results.getSnapshot();
+		List<Alternative> alts = new ArrayList<Alternative>();
+		for (int altIndex=0;altIndex<results.getAlternatives().size();altIndex++) {
+			if (results.getCriteria().size() > 0 && !Double.isNaN(snapshot.getCentralWeight(altIndex, 0))) {
+				alts.add(results.getAlternatives().get(altIndex));
+			}
+		}
+		alternativesWithCentralWeights = alts;
+	}
 
 	public int getColumnIndex(Comparable crit) {
 		return results.getCriteria().indexOf(crit);
@@ -58,41 +70,28 @@ public class CentralWeightsDataset extends SMAADataSet<SMAA2Results> implements
 	}
 
 	public int getRowIndex(Comparable alt) {
-		return getAlternativesWithCentralWeights().indexOf(alt);
-	}
-
-	private List<Alternative> getAlternativesWithCentralWeights() {
-		List<Alternative> alts = new ArrayList<Alternative>();
-		for (Alternative a : results.getAlternatives()) {
-			Map<Criterion, Double> cws = results.getCentralWeightVectors().get(a);
-			Set<Entry<Criterion, Double>> entrySet = cws.entrySet();
-			if (!entrySet.isEmpty() && !entrySet.iterator().next().getValue().equals(Double.NaN)) {
-				alts.add(a);
-			}
-		}
-		return alts;
+		return alternativesWithCentralWeights.indexOf(alt);
 	}
 
 	public Comparable getRowKey(int altIndex) {
-		List<Alternative> alts = getAlternativesWithCentralWeights();
-		if (altIndex < 0 || altIndex >= alts.size()) {
+		if (altIndex < 0 || altIndex >= alternativesWithCentralWeights.size()) {
 			throw new ArrayIndexOutOfBoundsException();
 		}
-		return alts.get(altIndex);
+		return alternativesWithCentralWeights.get(altIndex);
 	}
 
 	public List getRowKeys() {
-		return getAlternativesWithCentralWeights();
+		return alternativesWithCentralWeights;
 	}
 
 	public Number getValue(Comparable alt, Comparable crit) {
-		if (!getAlternativesWithCentralWeights().contains(alt)) {
+		if (!alternativesWithCentralWeights.contains(alt)) {
 			throw new UnknownKeyException("unknown alt");
 		}
 		if (!results.getCriteria().contains(crit)){ 
 			throw new UnknownKeyException("unknown crit");
 		}
-		return results.getCentralWeightVectors().get(alt).get(crit);
+		return snapshot.getCentralWeight(results.getAlternatives().indexOf(alt), results.getCriteria().indexOf(crit));
 	}
 
 	public int getColumnCount() {
@@ -100,10 +99,10 @@ public class CentralWeightsDataset extends SMAADataSet<SMAA2Results> implements
 	}
 
 	public int getRowCount() {
-		return getAlternativesWithCentralWeights().size();
+		return alternativesWithCentralWeights.size();
 	}
 
 	public Number getValue(int altIndex, int critIndex) {
-		return getValue(getAlternativesWithCentralWeights().get(altIndex), results.getCriteria().get(critIndex));
+		return getValue(alternativesWithCentralWeights.get(altIndex), results.getCriteria().get(critIndex));
 	}
 }
@@ -28,11 +28,13 @@ import java.util.List;
 import org.jfree.data.UnknownKeyException;
 
 import fi.smaa.jsmaa.simulator.SMAA2Results;
+import fi.smaa.jsmaa.simulator.SMAA2Snapshot;
 
 @SuppressWarnings({"rawtypes"})
 public class RankAcceptabilitiesDataset extends AlternativeColumnCategoryDataset<SMAA2Results> {
 	
 	private List<Rank> ranks;
+	private SMAA2Snapshot snapshot;
 	
 	public static class Rank implements Comparable<Rank>{
 		private int index;
@@ -69,6 +71,11 @@ public class RankAcceptabilitiesDataset extends AlternativeColumnCategoryDataset
 		}
 		super.setResults(results);
 	}
+	
+	@Override
+	protected void updateSnapshot() {
+		snapshot = results.getSnapshot();
+	}
 
 	public int getRowIndex(Comparable rank) {
 		return ranks.indexOf(rank);
@@ -92,8 +99,7 @@ public class RankAcceptabilitiesDataset extends AlternativeColumnCategoryDataset
 		if (!results.getAlternatives().contains(alt)) {
 			throw new UnknownKeyException("unknown alt");
 		}
-		List<Double> accs = results.getRankAcceptabilities().get(alt);
-		return accs.get(((Rank) rank).getIndex());
+		return snapshot.getRankAcceptability(results.getAlternatives().indexOf(alt), ((Rank) rank).getIndex());
 	}
 
 	public int getRowCount() {
@@ -57,9 +57,16 @@ public abstract class SMAADataSet<R extends SMAAResults> implements SMAAResultsL
 		for (Alternative a : results.getAlternatives()) {
 			a.addPropertyChangeListener(nameListener);
 		}
+		updateSnapshot();
 		fireResultsChanged();
 	}
 	
+	/**
+	 * Takes the latest snapshot of the results; all values are read from it until the next
+	 * results event, so that they are consistent with each other.
+	 */
+	protected abstract void updateSnapshot();
+	
 	synchronized public void addChangeListener(DatasetChangeListener l) {
 		dataListeners.add(l);
 	}
@@ -77,6 +84,7 @@ public abstract class SMAADataSet<R extends SMAAResults> implements SMAAResultsL
 	}
 
 	public void resultsChanged(ResultsEvent ev) {
+		updateSnapshot();
 		fireResultsChanged();
 	}
 
@@ -25,10 +25,13 @@ package fi.smaa.jsmaa.gui.presentation;
 
 import fi.smaa.jsmaa.model.Alternative;
 import fi.smaa.jsmaa.simulator.SMAATRIResults;
+import fi.smaa.jsmaa.simulator.SMAATRISnapshot;
 
 @SuppressWarnings("serial")
 public class CategoryAcceptabilityTableModel extends SMAAResultsTableModel<SMAATRIResults> {
 	
+	private SMAATRISnapshot snapshot;
+	
 	public CategoryAcceptabilityTableModel(SMAATRIResults results) {
 		super(results);		
 	}
@@ -47,6 +50,11 @@ public class CategoryAcceptabilityTableModel extends SMAAResultsTableModel<SMAAT
 		}
 	}
 
+	@Override
+	protected void updateSnapshot() {
+		snapshot = results.getSnapshot();
+	}
+
 	public int getColumnCount() {
 		return results.getCategories().size() + 1;
 	}
@@ -55,8 +63,7 @@ public class CategoryAcceptabilityTableModel extends SMAAResultsTableModel<SMAAT
 		if (columnIndex == 0) {
 			return results.getAlternatives().get(rowIndex);
 		}
-		Alternative alt = results.getAlternatives().get(rowIndex);
-		return results.getCategoryAcceptabilities().get(alt).get(columnIndex-1);
+		return snapshot.getCategoryAcceptability(rowIndex, columnIndex-1);
 	}
 	
 	@Override
@@ -22,7 +22,6 @@
 */
 package fi.smaa.jsmaa.gui.presentation;
 
-import fi.smaa.jsmaa.model.Alternative;
 import fi.smaa.jsmaa.simulator.SMAA2Results;
 
 @SuppressWarnings("serial")
@@ -48,14 +47,13 @@ public class CentralWeightTableModel extends SMAA2ResultsTableModel {
 	}
 
 	public Object getValueAt(int rowIndex, int columnIndex) {
-		Alternative alt = results.getAlternatives().get(rowIndex);
 		if (columnIndex == 0) {
-			return alt;
+			return results.getAlternatives().get(rowIndex);
 		}
 		if (columnIndex == 1) {
-			return results.getConfidenceFactors().get(alt);
+			return snapshot.getConfidenceFactor(rowIndex);
 		}
-		return results.getCentralWeightVectors().get(alt).get(results.getCriteria().get(columnIndex-2));
+		return snapshot.getCentralWeight(rowIndex, columnIndex-2);
 	}
 
 }
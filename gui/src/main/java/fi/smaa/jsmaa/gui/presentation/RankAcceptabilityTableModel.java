@@ -22,7 +22,6 @@
 */
 package fi.smaa.jsmaa.gui.presentation;
 
-import fi.smaa.jsmaa.model.Alternative;
 import fi.smaa.jsmaa.simulator.SMAA2Results;
 
 @SuppressWarnings("serial")
@@ -40,8 +39,7 @@ public class RankAcceptabilityTableModel extends SMAA2ResultsTableModel {
 		if (columnIndex == 0) {
 			return results.getAlternatives().get(rowIndex);
 		}
-		Alternative alt = results.getAlternatives().get(rowIndex);
-		return results.getRankAcceptabilities().get(alt).get(columnIndex-1);		
+		return snapshot.getRankAcceptability(rowIndex, columnIndex-1);
 	}
 
 	@Override
@@ -24,10 +24,13 @@ package fi.smaa.jsmaa.gui.presentation;
 
 import fi.smaa.jsmaa.model.Criterion;
 import fi.smaa.jsmaa.simulator.SMAA2Results;
+import fi.smaa.jsmaa.simulator.SMAA2Snapshot;
 
 @SuppressWarnings("serial")
 public abstract class SMAA2ResultsTableModel extends SMAAResultsTableModel<SMAA2Results> {
 
+	protected SMAA2Snapshot snapshot;
+
 	public SMAA2ResultsTableModel(SMAA2Results results) {
 		super(results);
 		
@@ -35,5 +38,10 @@ public abstract class SMAA2ResultsTableModel extends SMAAResultsTableModel<SMAA2
 			c.addPropertyChangeListener(listener);
 		}		
 	}
+	
+	@Override
+	protected void updateSnapshot() {
+		snapshot = results.getSnapshot();
+	}
 
 }
\ No newline at end of file
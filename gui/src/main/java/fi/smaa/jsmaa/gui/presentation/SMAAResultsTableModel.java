@@ -58,9 +58,16 @@ public abstract class SMAAResultsTableModel<T extends SMAAResults> extends Abstr
 		for (Alternative a : results.getAlternatives()) {
 			a.addPropertyChangeListener(listener);
 		}
+		updateSnapshot();
 		fireTableStructureChanged();
 	}
 	
+	/**
+	 * Takes the latest snapshot of the results; all values are read from it until the next
+	 * results event, so that they are consistent with each other.
+	 */
+	protected abstract void updateSnapshot();
+	
 	@Override
 	synchronized public void fireTableDataChanged() {
 		super.fireTableDataChanged();
@@ -69,6 +76,7 @@ public abstract class SMAAResultsTableModel<T extends SMAAResults> extends Abstr
 
 	private class ResultsListener implements SMAAResultsListener {
 		public void resultsChanged(ResultsEvent ev) {
+			updateSnapshot();
 			fireTableDataChanged();
 		}	
 	}
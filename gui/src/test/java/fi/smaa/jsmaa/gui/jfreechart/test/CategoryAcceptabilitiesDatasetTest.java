@@ -70,6 +70,7 @@ public class CategoryAcceptabilitiesDatasetTest {
 		cats.add(c2);
 		
 		res = new SMAATRIResults(alts, cats, 2);
+		res.setSnapshotInterval(1);
 		categoryHits = new Integer[] {1, 0};
 		res.update(categoryHits);
 		
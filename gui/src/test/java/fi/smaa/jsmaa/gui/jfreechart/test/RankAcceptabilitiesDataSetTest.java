@@ -78,6 +78,7 @@ public class RankAcceptabilitiesDataSetTest {
 		ranks.add(r2);
 		
 		res = new SMAA2Results(alts, crit, 2);
+		res.setSnapshotInterval(1);
 		weights = new double[]{0.2, 0.8};
 		ranksHits = new int[] { 1, 0 };
 		
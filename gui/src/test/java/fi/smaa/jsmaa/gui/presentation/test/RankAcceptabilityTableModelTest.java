@@ -82,6 +82,19 @@ public class RankAcceptabilityTableModelTest {
 		assertEquals(new Double(1.0), model.getValueAt(1, 2));
 	}
 	
+	@Test
+	public void testReadsSnapshotOfLastEvent() {
+		SMAA2Results res2 = new SMAA2Results(res.getAlternatives(), res.getCriteria(), 2);
+		model.setResults(res2);
+		double[] weights = new double[]{0.5, 0.5, 0.0};
+		res2.update(new int[] { 0, 1}, weights);
+		res2.update(new int[] { 0, 1}, weights);
+		// not yet published
+		res2.update(new int[] { 1, 0}, weights);
+		assertEquals(new Double(1.0), model.getValueAt(0, 1));
+		assertEquals(new Double(0.0), model.getValueAt(0, 2));
+	}
+	
 	@Test
 	public void testGetColumnName() {
 		assertEquals("Alternative", model.getColumnName(0));		
@@ -0,0 +1,100 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+/**
+ * Walker's alias table for sampling from a discrete distribution in constant time, built
+ * using Vose's method. Instances are immutable.
+ */
+public final class AliasTable {
+	private final double[] prob;
+	private final int[] alias;
+	
+	/**
+	 * @param weights non-negative weights of the outcomes, need not sum to one
+	 * @throws IllegalArgumentException if there are no weights, a weight is negative, or all are zero
+	 */
+	public AliasTable(double[] weights) {
+		final int n = weights.length;
+		double sum = 0.0;
+		for (int i=0;i<n;i++) {
+			if (!(weights[i] >= 0.0)) {
+				throw new IllegalArgumentException("Negative weight " + weights[i]);
+			}
+			sum += weights[i];
+		}
+		if (!(sum > 0.0)) {
+			throw new IllegalArgumentException("Weights sum to zero");
+		}
+		
+		prob = new double[n];
+		alias = new int[n];
+		double[] scaled = new double[n];
+		int[] small = new int[n];
+		int[] large = new int[n];
+		int nSmall = 0;
+		int nLarge = 0;
+		for (int i=0;i<n;i++) {
+			scaled[i] = weights[i] * n / sum;
+			if (scaled[i] < 1.0) {
+				small[nSmall++] = i;
+			} else {
+				large[nLarge++] = i;
+			}
+		}
+		while (nSmall > 0 && nLarge > 0) {
+			int l = small[--nSmall];
+			int g = large[--nLarge];
+			prob[l] = scaled[l];
+			alias[l] = g;
+			scaled[g] = (scaled[g] + scaled[l]) - 1.0;
+			if (scaled[g] < 1.0) {
+				small[nSmall++] = g;
+			} else {
+				large[nLarge++] = g;
+			}
+		}
+		// what remains has probability one up to rounding errors
+		while (nLarge > 0) {
+			int g = large[--nLarge];
+			prob[g] = 1.0;
+			alias[g] = g;
+		}
+		while (nSmall > 0) {
+			int l = small[--nSmall];
+			prob[l] = 1.0;
+			alias[l] = l;
+		}
+	}
+	
+	public int size() {
+		return prob.length;
+	}
+	
+	/**
+	 * Samples an outcome using a single uniform variate.
+	 * 
+	 * @return the index of the outcome
+	 */
+	public int sample(RandomUtil random) {
+		final double u = random.createUnif01() * prob.length;
+		final int i = Math.min((int) u, prob.length - 1);
+		return (u - i) < prob[i] ? i : alias[i];
+	}
+}
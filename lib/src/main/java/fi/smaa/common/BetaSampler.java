@@ -0,0 +1,162 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+/**
+ * Sampler for a Beta distribution rescaled to [min, max], using Cheng's (1978) rejection
+ * algorithms BB (both shape parameters > 1) and BC (otherwise). The constants of the
+ * algorithms are computed once on construction, so the sampler is meant to be kept for as
+ * long as the parameters do not change. Instances are immutable, and can be shared.
+ * 
+ * @see RandomUtil#createBeta(BetaSampler)
+ */
+public final class BetaSampler {
+	
+	private static final double LN4 = 1.3862944;
+	private static final double LN5_PLUS_1 = 2.609438;
+	
+	private final double alpha;
+	private final double beta;
+	private final double min;
+	private final double max;
+	private final double scale;
+	private final boolean bb;
+	private final boolean swap;
+	private final double a;
+	private final double b;
+	private final double sum;
+	private final double c;
+	private final double gamma;
+	private final double k1;
+	private final double k2;
+
+	/**
+	 * @param alpha the first shape parameter, > 0
+	 * @param beta the second shape parameter, > 0
+	 * @param min the lower bound of the rescaled distribution
+	 * @param max the upper bound of the rescaled distribution
+	 * @throws IllegalArgumentException if a shape parameter is not positive
+	 */
+	public BetaSampler(double alpha, double beta, double min, double max) {
+		if (!(alpha > 0.0) || !(beta > 0.0)) {
+			throw new IllegalArgumentException("Beta shape parameters must be positive");
+		}
+		this.alpha = alpha;
+		this.beta = beta;
+		this.min = min;
+		this.max = max;
+		this.scale = max - min;
+		
+		double lo = Math.min(alpha, beta);
+		double hi = Math.max(alpha, beta);
+		bb = lo > 1.0;
+		sum = alpha + beta;
+		if (bb) {
+			a = lo;
+			b = hi;
+			c = Math.sqrt((sum - 2.0) / (2.0 * a * b - sum));
+			gamma = a + 1.0 / c;
+			k1 = 0.0;
+			k2 = 0.0;
+		} else {
+			a = hi;
+			b = lo;
+			c = 1.0 / b;
+			double delta = 1.0 + a - b;
+			k1 = delta * (0.0138889 + 0.0416667 * b) / (a * c - 0.777778);
+			k2 = 0.25 + (0.5 + 0.25 / delta) * b;
+			gamma = 0.0;
+		}
+		swap = a != alpha;
+	}
+	
+	public double getAlpha() {
+		return alpha;
+	}
+	
+	public double getBeta() {
+		return beta;
+	}
+	
+	public double getMin() {
+		return min;
+	}
+	
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Samples using the pseudo-random uniforms of the given stream.
+	 */
+	public double sample(RandomUtil random) {
+		double w = bb ? sampleBB(random) : sampleBC(random);
+		double x = swap ? b / (b + w) : w / (b + w);
+		return min + x * scale;
+	}
+
+	private double sampleBB(RandomUtil random) {
+		while (true) {
+			double u1 = random.createUnif01();
+			double u2 = random.createUnif01();
+			double v = c * Math.log(u1 / (1.0 - u1));
+			double w = finite(a * Math.exp(v));
+			double z = u1 * u1 * u2;
+			double r = gamma * v - LN4;
+			double s = a + r - w;
+			if (s + LN5_PLUS_1 >= 5.0 * z) {
+				return w;
+			}
+			double t = Math.log(z);
+			if (s > t || r + sum * Math.log(sum / (b + w)) >= t) {
+				return w;
+			}
+		}
+	}
+
+	private double sampleBC(RandomUtil random) {
+		while (true) {
+			double u1 = random.createUnif01();
+			double u2 = random.createUnif01();
+			double y = u1 * u2;
+			double z = u1 * y;
+			if (u1 < 0.5) {
+				if (0.25 * u2 + z - y >= k1) {
+					continue;
+				}
+			} else {
+				if (z <= 0.25) {
+					return finite(a * Math.exp(c * Math.log(u1 / (1.0 - u1))));
+				}
+				if (z >= k2) {
+					continue;
+				}
+			}
+			double v = c * Math.log(u1 / (1.0 - u1));
+			double w = finite(a * Math.exp(v));
+			if (sum * (Math.log(sum / (b + w)) + v) - LN4 >= Math.log(z)) {
+				return w;
+			}
+		}
+	}
+	
+	private static double finite(double w) {
+		return w == Double.POSITIVE_INFINITY ? Double.MAX_VALUE : w;
+	}
+}
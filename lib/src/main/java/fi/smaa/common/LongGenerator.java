@@ -0,0 +1,91 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+import java.io.Serializable;
+
+import org.apache.commons.math3.random.BitsStreamGenerator;
+
+/**
+ * Base class for engines that natively produce 64 random bits at a time. Doubles are formed
+ * from the upper 53 bits of a single output.
+ */
+abstract class LongGenerator extends BitsStreamGenerator implements SplittableGenerator, Serializable {
+
+	private static final long serialVersionUID = 2417519394720713093L;
+
+	@Override
+	public abstract long nextLong();
+
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+	
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+	
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * @return the words of the state of the engine, for {@link #setState(long[])}
+	 */
+	abstract long[] getState();
+	
+	/**
+	 * Restores a state returned by {@link #getState()}, clearing the cached Gaussian.
+	 * 
+	 * @throws IllegalArgumentException if the state has the wrong number of words
+	 */
+	abstract void setState(long[] state);
+	
+	static void checkState(long[] state, int length) {
+		if (state.length != length) {
+			throw new IllegalArgumentException("State must have " + length + " words");
+		}
+	}
+
+	@Override
+	public void setSeed(int seed) {
+		setSeed((long) seed);
+	}
+
+	@Override
+	public void setSeed(int[] seed) {
+		long s = 0;
+		for (int i=0;i<seed.length;i++) {
+			s = mix64(s + seed[i] + 0x9e3779b97f4a7c15L);
+		}
+		setSeed(s);
+	}
+	
+	/**
+	 * The finalizer of SplitMix64 (variant 13 of Stafford's mixers).
+	 */
+	static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
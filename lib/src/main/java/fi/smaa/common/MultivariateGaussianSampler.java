@@ -0,0 +1,121 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.apache.commons.math3.linear.RectangularCholeskyDecomposition;
+
+/**
+ * Samples a multivariate Gaussian distribution from a root factor of the covariance matrix that
+ * is computed once. Instances are immutable, so a sampler can be shared by threads and random
+ * streams, and sampling does not allocate.
+ */
+public final class MultivariateGaussianSampler {
+	private final double[] mean;
+	/**
+	 * The n x rank root factor L (with L L^T = covariance), column-major.
+	 */
+	private final double[] factor;
+	private final int rank;
+	
+	/**
+	 * @throws IllegalArgumentException if the dimensions do not match
+	 * @throws org.apache.commons.math3.exception.MathIllegalArgumentException if the covariance matrix is not positive semi-definite
+	 */
+	public MultivariateGaussianSampler(RealVector mean, RealMatrix covariance) {
+		final int n = mean.getDimension();
+		if (covariance.getRowDimension() != n || covariance.getColumnDimension() != n) {
+			throw new IllegalArgumentException("Incorrect matrix size " + covariance.getRowDimension()
+					+ "x" + covariance.getColumnDimension() + ", expected " + n + "x" + n);
+		}
+		this.mean = mean.toArray();
+		
+		if (covariance.getNorm() == 0) {
+			factor = new double[0];
+			rank = 0;
+			return;
+		}
+		
+		// components with (near) zero variance are kept at their mean
+		final double small = 1.0e-12 * covariance.getNorm();
+		int[] select = new int[n];
+		int m = 0;
+		for (int i=0;i<n;i++) {
+			if (covariance.getEntry(i, i) >= small) {
+				select[m++] = i;
+			}
+		}
+		select = Arrays.copyOf(select, m);
+		RectangularCholeskyDecomposition root = new RectangularCholeskyDecomposition(
+				covariance.getSubMatrix(select, select), small);
+		rank = root.getRank();
+		factor = new double[n * rank];
+		RealMatrix l = root.getRootMatrix();
+		for (int i=0;i<m;i++) {
+			for (int j=0;j<rank;j++) {
+				factor[j * n + select[i]] = l.getEntry(i, j);
+			}
+		}
+	}
+	
+	private MultivariateGaussianSampler(double[] mean, double[] factor, int rank) {
+		this.mean = mean;
+		this.factor = factor;
+		this.rank = rank;
+	}
+	
+	/**
+	 * @return a sampler with the given mean that shares the root factor of this one
+	 */
+	public MultivariateGaussianSampler withMean(RealVector mean) {
+		if (mean.getDimension() != getDimension()) {
+			throw new IllegalArgumentException("Incorrect vector size " + mean.getDimension() + ", expected " + getDimension());
+		}
+		return new MultivariateGaussianSampler(mean.toArray(), factor, rank);
+	}
+	
+	public int getDimension() {
+		return mean.length;
+	}
+	
+	/**
+	 * @return the rank of the covariance matrix, i.e. the number of standard normal variates used per sample
+	 */
+	public int getRank() {
+		return rank;
+	}
+	
+	/**
+	 * Writes a sample into target[0..n-1].
+	 */
+	public void sample(RandomUtil random, double[] target) {
+		final int n = mean.length;
+		System.arraycopy(mean, 0, target, 0, n);
+		for (int j=0;j<rank;j++) {
+			final double z = random.createGaussian(0.0, 1.0);
+			final int offset = j * n;
+			for (int i=0;i<n;i++) {
+				target[i] += factor[offset + i] * z;
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+/**
+ * PCG32 (XSH-RR variant) by O'Neill: a 64-bit linear congruential generator whose output
+ * is permuted into 32 bits. Every odd increment selects a distinct stream; splitting creates
+ * a generator on a new stream. {@link #advance(long)} jumps ahead in logarithmic time.
+ */
+public class Pcg32 extends LongGenerator {
+
+	private static final long serialVersionUID = -7101563390893411467L;
+	private static final long MULTIPLIER = 6364136223846793005L;
+	
+	private long state;
+	private long increment;
+	
+	public Pcg32(long seed) {
+		setSeed(seed);
+	}
+	
+	/**
+	 * @param stream selects the stream; streams differing only in the highest bit coincide
+	 */
+	public Pcg32(long seed, long stream) {
+		seed(seed, stream);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		seed(seed, 0xda3e39cb94b95bdbL);
+		clear();
+	}
+	
+	private void seed(long seed, long stream) {
+		state = 0;
+		increment = (stream << 1) | 1L;
+		nextInt();
+		state += seed;
+		nextInt();
+	}
+
+	@Override
+	long[] getState() {
+		return new long[] { state, increment };
+	}
+	
+	@Override
+	void setState(long[] words) {
+		checkState(words, 2);
+		state = words[0];
+		increment = words[1];
+		clear();
+	}
+
+	@Override
+	public int nextInt() {
+		long old = state;
+		state = old * MULTIPLIER + increment;
+		int xorshifted = (int) (((old >>> 18) ^ old) >>> 27);
+		int rot = (int) (old >>> 59);
+		return Integer.rotateRight(xorshifted, rot);
+	}
+	
+	@Override
+	protected int next(int bits) {
+		return nextInt() >>> (32 - bits);
+	}
+	
+	@Override
+	public long nextLong() {
+		return ((long) nextInt() << 32) | (nextInt() & 0xffffffffL);
+	}
+	
+	/**
+	 * Advances the generator by delta steps (modulo 2^64), as Brown's algorithm for skipping
+	 * ahead in an LCG.
+	 */
+	public void advance(long delta) {
+		long curMult = MULTIPLIER;
+		long curPlus = increment;
+		long accMult = 1L;
+		long accPlus = 0L;
+		while (delta != 0) {
+			if ((delta & 1L) != 0) {
+				accMult *= curMult;
+				accPlus = accPlus * curMult + curPlus;
+			}
+			curPlus = (curMult + 1) * curPlus;
+			curMult *= curMult;
+			delta >>>= 1;
+		}
+		state = accMult * state + accPlus;
+	}
+	
+	public Pcg32 split() {
+		return new Pcg32(nextLong(), nextLong());
+	}
+}
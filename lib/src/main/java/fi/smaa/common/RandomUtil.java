@@ -18,57 +18,301 @@
 
 package fi.smaa.common;
 
-import java.util.Arrays;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
+import org.apache.commons.math3.distribution.BetaDistribution;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
 import org.apache.commons.math3.random.JDKRandomGenerator;
 import org.apache.commons.math3.random.MersenneTwister;
-import org.apache.commons.math3.random.RandomDataImpl;
 import org.apache.commons.math3.random.RandomGenerator;
 import org.apache.commons.math3.random.RandomVectorGenerator;
+import org.apache.commons.math3.random.Well512a;
 
 public class RandomUtil {
+	
+	/**
+	 * The available random number engines. The 64-bit engines (xoshiro256**, SplitMix64 and
+	 * PCG32) are considerably faster than the JDK and Mersenne Twister engines, and split
+	 * natively (see {@link SplittableGenerator}).
+	 */
+	public enum Engine {
+		JDK,
+		MERSENNE_TWISTER,
+		XOSHIRO256,
+		SPLITMIX64,
+		PCG32;
+		
+		private RandomGenerator create(long seed) {
+			switch (this) {
+			case JDK:
+				JDKRandomGenerator engine = new JDKRandomGenerator();
+				engine.setSeed(seed);
+				return engine;
+			case MERSENNE_TWISTER:
+				return new MersenneTwister(seed);
+			case XOSHIRO256:
+				return new Xoshiro256StarStar(seed);
+			case SPLITMIX64:
+				return new SplitMix64(seed);
+			default:
+				return new Pcg32(seed);
+			}
+		}
+	}
+	
 	public static RandomUtil createWithFixedSeed() {
-		JDKRandomGenerator engine = new JDKRandomGenerator();
-		engine.setSeed(666);
-		return new RandomUtil(engine);
+		return create(Engine.JDK, 666);
 	}
 	
 	public static RandomUtil createWithRandomSeed() {
-		return new RandomUtil(new MersenneTwister());
+		return create(Engine.MERSENNE_TWISTER, System.nanoTime() ^ System.identityHashCode(new Object()));
+	}
+	
+	/**
+	 * Creates a pseudo-random number stream with the given engine.
+	 */
+	public static RandomUtil create(Engine engine, long seed) {
+		return new RandomUtil(engine.create(seed), engine, false, seed);
+	}
+	
+	/**
+	 * Creates a quasi-random number stream, drawing uniforms from a randomized Halton sequence
+	 * and transforming them by inverse CDF. The user must call {@link #nextPoint()} at the start
+	 * of every simulation iteration, so that each iteration uses the next point of the sequence.
+	 * 
+	 * @param seed the seed of the randomization
+	 */
+	public static RandomUtil createQuasiRandom(long seed) {
+		return new RandomUtil(Engine.JDK.create(seed), Engine.JDK, true, seed);
 	}
+	
+	/**
+	 * Computes a stream key from a sequence of names, for use with {@link #substream(long)}.
+	 */
+	public static long key(String ... names) {
+		long h = 0xcbf29ce484222325L;
+		for (String n : names) {
+			for (int i=0;i<n.length();i++) {
+				h = (h ^ n.charAt(i)) * 0x100000001b3L;
+			}
+			h = (h ^ 0xffff) * 0x100000001b3L; // separator
+		}
+		return h;
+	}
+
+	private static final byte STATE_WORDS = 0;
+	private static final byte STATE_SERIALIZED = 1;
 
-	private RandomDataImpl random;
 	private RandomGenerator engine;
+	private ScrambledHaltonSequence sequence;
+	private BetaDistribution betaDist;
+	private BetaSampler betaSampler;
+	private final Engine engineType;
+	private final long seed;
 	
-	private RandomUtil(RandomGenerator engine) {
-		this.random = new RandomDataImpl(engine);
+	private RandomUtil(RandomGenerator engine, Engine engineType, boolean quasiRandom, long seed) {
 		this.engine = engine;
+		this.engineType = engineType;
+		this.seed = seed;
+		if (quasiRandom) {
+			this.sequence = new ScrambledHaltonSequence(engine);
+		}
+	}
+	
+	public boolean isQuasiRandom() {
+		return sequence != null;
+	}
+	
+	/**
+	 * Starts a new simulation iteration. In quasi-random mode, moves to the next point of the
+	 * low-discrepancy sequence; otherwise does nothing.
+	 */
+	public void nextPoint() {
+		if (sequence != null) {
+			sequence.nextPoint();
+		}
+	}
+	
+	/**
+	 * Creates a new, independently seeded random number stream. The seed is drawn from
+	 * this stream, so splitting is deterministic given the seed of this stream. Engines that
+	 * implement {@link SplittableGenerator} split natively into a stream of the same kind;
+	 * others split into a Mersenne Twister stream. Splitting a quasi-random stream gives an
+	 * independently randomized sequence.
+	 * 
+	 * @return a new random number stream
+	 */
+	public RandomUtil split() {
+		long s = engine.nextLong();
+		if (engine instanceof SplittableGenerator) {
+			return new RandomUtil(((SplittableGenerator) engine).split(), engineType, isQuasiRandom(), mix(seed ^ s));
+		}
+		return new RandomUtil(new MersenneTwister(s), Engine.MERSENNE_TWISTER, isQuasiRandom(), s);
+	}
+	
+	/**
+	 * Creates the substream with the given key. The substream only depends on the seed of this
+	 * stream and the key, not on how many numbers have been drawn, so a model element that
+	 * always samples from the substream with its own key gets the same numbers in every run
+	 * with the same seed (common random numbers). Substreams are always pseudo-random, and use
+	 * the engine of this stream if it is splittable and WELL512a otherwise.
+	 * 
+	 * @param key the key of the substream, e.g. from {@link #key(String...)}
+	 * @return a new random number stream
+	 */
+	public RandomUtil substream(long key) {
+		long s = mix(seed ^ mix(key));
+		if (engine instanceof SplittableGenerator) {
+			return new RandomUtil(engineType.create(s), engineType, false, s);
+		}
+		int[] state = new int[16];
+		long x = s;
+		for (int i=0;i<state.length;i+=2) {
+			x += 0x9e3779b97f4a7c15L;
+			long z = mix(x);
+			state[i] = (int) z;
+			state[i+1] = (int) (z >>> 32);
+		}
+		return new RandomUtil(new Well512a(state), null, false, s);
 	}
 	
 	/**
-	 * Generates a Gaussian distributed number.
+	 * Captures the complete state of this stream, so that it can later be continued exactly by
+	 * {@link #setState(byte[])}. The 64-bit engines are written as their raw state words, other
+	 * engines by Java serialization. Of a quasi-random sequence only the position is written;
+	 * its randomization is regenerated from the seed.
+	 * 
+	 * @throws IOException if the engine cannot be serialized
+	 */
+	public byte[] getState() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		if (engine instanceof LongGenerator) {
+			long[] words = ((LongGenerator) engine).getState();
+			out.writeByte(STATE_WORDS);
+			out.writeInt(words.length);
+			for (long w : words) {
+				out.writeLong(w);
+			}
+		} else {
+			ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+			ObjectOutputStream obj = new ObjectOutputStream(serialized);
+			obj.writeObject(engine);
+			obj.close();
+			out.writeByte(STATE_SERIALIZED);
+			out.writeInt(serialized.size());
+			serialized.writeTo(out);
+		}
+		out.writeBoolean(sequence != null);
+		if (sequence != null) {
+			out.writeLong(sequence.getIndex());
+			out.writeInt(sequence.getDimension());
+		}
+		out.close();
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * Restores a state captured by {@link #getState()} from a stream created in the same way
+	 * (engine, seed and quasi-randomness). Generators created earlier by
+	 * {@link #createMultivariateGaussian(RealVector, RealMatrix)} keep using the old engine.
+	 * 
+	 * @throws IOException if the state is invalid
+	 */
+	public void setState(byte[] state) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+		byte kind = in.readByte();
+		if (kind == STATE_WORDS && engine instanceof LongGenerator) {
+			long[] words = new long[in.readInt()];
+			for (int i=0;i<words.length;i++) {
+				words[i] = in.readLong();
+			}
+			try {
+				((LongGenerator) engine).setState(words);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Invalid random number stream state", e);
+			}
+		} else if (kind == STATE_SERIALIZED && !(engine instanceof LongGenerator)) {
+			byte[] serialized = new byte[in.readInt()];
+			in.readFully(serialized);
+			engine = readEngine(serialized);
+		} else {
+			throw new IOException("Invalid random number stream state");
+		}
+		if (in.readBoolean() != (sequence != null)) {
+			throw new IOException("Invalid random number stream state");
+		}
+		if (sequence != null) {
+			// quasi-random streams are always created as engineType.create(seed)
+			sequence = new ScrambledHaltonSequence(engineType.create(seed), engine);
+			sequence.setPosition(in.readLong(), in.readInt());
+		}
+	}
+	
+	private static RandomGenerator readEngine(byte[] serialized) throws IOException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized));
+		try {
+			return (RandomGenerator) in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Invalid random number stream state", e);
+		} catch (ClassCastException e) {
+			throw new IOException("Invalid random number stream state", e);
+		} finally {
+			in.close();
+		}
+	}
+	
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Generates a Gaussian distributed number, by the ziggurat method (see {@link ZigguratNormal})
+	 * or, in quasi-random mode, by inverse CDF.
 	 * 
 	 * @param mean mean of the number
 	 * @param stdev standard deviation of the number
 	 * @return a value sampled from the gaussian distribution
 	 */
 	public double createGaussian(double mean, double stddev) {
-		return stddev == 0 ? mean : random.nextGaussian(mean, stddev);
+		if (stddev == 0) {
+			return mean;
+		}
+		if (sequence != null) {
+			return mean + stddev * StandardNormal.quantile(sequence.nextCoordinate());
+		}
+		return mean + stddev * ZigguratNormal.sample(engine);
 	}
 	
+	
 	/**
 	 * Generates a sample from uniform distribution in interval [0.0, 1.0].
 	 * 
 	 * @return the sampled number
 	 */
 	public double createUnif01() {
-		return random.nextUniform(0.0, 1.0);
+		if (sequence != null) {
+			return sequence.nextCoordinate();
+		}
+		double u;
+		do {
+			u = engine.nextDouble();
+		} while (u == 0.0);
+		return u;
 	}
 	
 	/**
-	 * Creates an array of random numbers that sum to a given amount.
+	 * Creates an array of random numbers that sum to a given amount, uniformly distributed on
+	 * the simplex. Uses normalized exponential spacings, so runs in O(n) without sorting.
 	 * 
 	 * @param dest the array to create the numbers to.
 	 * @param sumTo The amount the numbers must sum to. Must be >= 0.0
@@ -79,22 +323,21 @@ public class RandomUtil {
 		if (dest == null) {
 			throw new NullPointerException("destination array null");
 		}
-				
+		
 		int len = dest.length;
-		for (int i=0;i<len-1;i++) {
-			dest[i] = createUnif01() * sumTo;
+		if (len == 1) {
+			dest[0] = sumTo;
+			return;
 		}
-
-		dest[len-1] = sumTo;
-		
-		Arrays.sort(dest);
-			  
-		double last = 0.0;
+		double sum = 0.0;
+		for (int i=0;i<len;i++) {
+			dest[i] = createExp1();
+			sum += dest[i];
+		}
+		double scale = sumTo / sum;
 		for (int i=0;i<len;i++) {
-			double t = dest[i];
-			dest[i] = t - last;
-			last = t;
-	    }		
+			dest[i] *= scale;
+		}
 	}
 
 	/**
@@ -108,19 +351,82 @@ public class RandomUtil {
 	}
 
 	/**
-	 * Creates random numbers that sum to 1.0 and are sorted in ascending order.
+	 * Creates random numbers that sum to 1.0 and are sorted in ascending order, i.e. the
+	 * order statistics of a uniform point on the simplex. These are generated directly in
+	 * O(n) using the Renyi representation of exponential order statistics.
 	 * 
 	 * @param dest the destination array to create the random numbers to
 	 * @throws NullPointerException if dest == null
 	 */
 	public void createSumToOneSorted(double[] dest) throws NullPointerException {
-		createSumToOneRand(dest);
-		Arrays.sort(dest);
+		if (dest == null) {
+			throw new NullPointerException("destination array null");
+		}
+		
+		int len = dest.length;
+		if (len == 1) {
+			dest[0] = 1.0;
+			return;
+		}
+		double x = 0.0;
+		for (int i=0;i<len;i++) {
+			x += createExp1() / (len - i);
+			dest[i] = x;
+		}
+		double sum = 0.0;
+		for (int i=0;i<len;i++) {
+			sum += dest[i];
+		}
+		for (int i=0;i<len;i++) {
+			dest[i] /= sum;
+		}
+	}
+	
+	private double createExp1() {
+		return -Math.log(createUnif01());
 	}
 
-	public double createBeta(Double min, Double max, Double alpha, Double beta) {
-		double r = random.nextBeta(alpha, beta);
-		return r * (max - min) + min;
+	/**
+	 * Samples from a Beta distribution rescaled to [min, max]. The sampler of the last call is
+	 * reused when the parameters are unchanged; callers that alternate between parameters
+	 * should keep their own {@link BetaSampler} and use {@link #createBeta(BetaSampler)}.
+	 */
+	public double createBeta(double min, double max, double alpha, double beta) {
+		if (sequence != null) {
+			double r = getBetaDistribution(alpha, beta).inverseCumulativeProbability(sequence.nextCoordinate());
+			return r * (max - min) + min;
+		}
+		return getBetaSampler(min, max, alpha, beta).sample(this);
+	}
+	
+	/**
+	 * @return the sampler of the last call if it has the same parameters, otherwise a new one
+	 */
+	private BetaSampler getBetaSampler(double min, double max, double alpha, double beta) {
+		BetaSampler s = betaSampler;
+		if (s == null || s.getAlpha() != alpha || s.getBeta() != beta || s.getMin() != min || s.getMax() != max) {
+			s = new BetaSampler(alpha, beta, min, max);
+			betaSampler = s;
+		}
+		return s;
+	}
+	
+	/**
+	 * Samples from a Beta distribution with precomputed constants; in quasi-random mode, by
+	 * inverse CDF as {@link #createBeta(double, double, double, double)}.
+	 */
+	public double createBeta(BetaSampler sampler) {
+		if (sequence != null) {
+			return createBeta(sampler.getMin(), sampler.getMax(), sampler.getAlpha(), sampler.getBeta());
+		}
+		return sampler.sample(this);
+	}
+	
+	private BetaDistribution getBetaDistribution(double alpha, double beta) {
+		if (betaDist == null || betaDist.getAlpha() != alpha || betaDist.getBeta() != beta) {
+			betaDist = new BetaDistribution(alpha, beta, 1e-12);
+		}
+		return betaDist;
 	}
 	
 	public RandomVectorGenerator createMultivariateGaussian(RealVector mean, RealMatrix covariance) {
@@ -0,0 +1,159 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+import java.io.Serializable;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Randomized Halton low-discrepancy sequence. Dimension k uses the k-th prime as base, with
+ * a random permutation of the non-zero digits and a random shift modulo 1 (Cranley-Patterson
+ * rotation). Independently randomized sequences give independent, unbiased estimates, so that
+ * the Monte Carlo error can still be estimated from replicates.
+ * 
+ * Coordinates are consumed one at a time: {@link #nextPoint()} moves to the next point of the
+ * sequence, after which {@link #nextCoordinate()} returns its coordinates in order. Coordinates
+ * beyond {@link #MAX_DIMENSION} are drawn pseudo-randomly.
+ */
+public class ScrambledHaltonSequence implements Serializable {
+	
+	private static final long serialVersionUID = -3418957630260135413L;
+	
+	public static final int MAX_DIMENSION = 256;
+	
+	private final RandomGenerator engine;
+	private final int[] bases;
+	private final int[][] permutations;
+	private final double[] shifts;
+	private long index;
+	private int dimension;
+
+	/**
+	 * @param engine the source of the randomization and of the coordinates beyond MAX_DIMENSION
+	 */
+	public ScrambledHaltonSequence(RandomGenerator engine) {
+		this(engine, engine);
+	}
+	
+	/**
+	 * @param randomization the source of the randomization
+	 * @param engine the source of the coordinates beyond MAX_DIMENSION
+	 */
+	public ScrambledHaltonSequence(RandomGenerator randomization, RandomGenerator engine) {
+		this.engine = engine;
+		bases = primes(MAX_DIMENSION);
+		permutations = new int[MAX_DIMENSION][];
+		shifts = new double[MAX_DIMENSION];
+		for (int k=0;k<MAX_DIMENSION;k++) {
+			permutations[k] = digitPermutation(randomization, bases[k]);
+			shifts[k] = randomization.nextDouble();
+		}
+	}
+	
+	private static int[] digitPermutation(RandomGenerator randomization, int base) {
+		int[] perm = new int[base];
+		for (int i=0;i<base;i++) {
+			perm[i] = i;
+		}
+		for (int i=base-1;i>1;i--) {
+			int j = 1 + randomization.nextInt(i);
+			int t = perm[i];
+			perm[i] = perm[j];
+			perm[j] = t;
+		}
+		return perm;
+	}
+
+	private static int[] primes(int n) {
+		int[] primes = new int[n];
+		int found = 0;
+		for (int c=2;found<n;c++) {
+			boolean prime = true;
+			for (int i=0;i<found && primes[i] * primes[i] <= c;i++) {
+				if (c % primes[i] == 0) {
+					prime = false;
+					break;
+				}
+			}
+			if (prime) {
+				primes[found++] = c;
+			}
+		}
+		return primes;
+	}
+	
+	/**
+	 * @return the index of the current point
+	 */
+	public long getIndex() {
+		return index;
+	}
+	
+	/**
+	 * @return the number of coordinates of the current point consumed so far
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+	
+	/**
+	 * Moves to the given point of the sequence, the given number of coordinates having been
+	 * consumed.
+	 */
+	public void setPosition(long index, int dimension) {
+		this.index = index;
+		this.dimension = dimension;
+	}
+	
+	/**
+	 * Moves to the next point of the sequence.
+	 */
+	public void nextPoint() {
+		index++;
+		dimension = 0;
+	}
+	
+	/**
+	 * @return the next coordinate of the current point, in (0, 1)
+	 */
+	public double nextCoordinate() {
+		int k = dimension++;
+		if (k >= MAX_DIMENSION) {
+			return engine.nextDouble();
+		}
+		double u = radicalInverse(k, index) + shifts[k];
+		if (u >= 1.0) {
+			u -= 1.0;
+		}
+		return u > 0.0 ? u : Double.MIN_VALUE;
+	}
+
+	private double radicalInverse(int k, long n) {
+		int b = bases[k];
+		int[] perm = permutations[k];
+		double x = 0.0;
+		double f = 1.0 / b;
+		while (n > 0) {
+			x += perm[(int) (n % b)] * f;
+			n /= b;
+			f /= b;
+		}
+		return x;
+	}
+}
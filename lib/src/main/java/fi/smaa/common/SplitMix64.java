@@ -0,0 +1,89 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+/**
+ * SplitMix64, the generator behind java.util.SplittableRandom: a Weyl sequence with an odd
+ * increment (gamma) passed through a mixing function. Splitting seeds a new generator with a
+ * new gamma drawn from this one.
+ */
+public class SplitMix64 extends LongGenerator {
+
+	private static final long serialVersionUID = -1582733930380934521L;
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	
+	private long seed;
+	private long gamma;
+	
+	public SplitMix64(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+	
+	private SplitMix64(long seed, long gamma) {
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	@Override
+	public void setSeed(long s) {
+		seed = s;
+		gamma = GOLDEN_GAMMA;
+		clear();
+	}
+	
+	@Override
+	long[] getState() {
+		return new long[] { seed, gamma };
+	}
+	
+	@Override
+	void setState(long[] state) {
+		checkState(state, 2);
+		seed = state[0];
+		gamma = state[1];
+		clear();
+	}
+	
+	@Override
+	public long nextLong() {
+		seed += gamma;
+		return mix64(seed);
+	}
+	
+	public SplitMix64 split() {
+		long s = nextLong();
+		return new SplitMix64(s, mixGamma(nextSeed()));
+	}
+	
+	private long nextSeed() {
+		seed += gamma;
+		return seed;
+	}
+
+	/**
+	 * Makes an odd gamma with enough bit transitions, as in SplittableRandom.
+	 */
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+}
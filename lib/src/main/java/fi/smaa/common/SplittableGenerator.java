@@ -1,9 +1,6 @@
 /*
-    This file is part of JSMAA.
-    JSMAA is distributed from http://smaa.fi/.
-
-    (c) Tommi Tervonen, 2009-2010.
-    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
 
     JSMAA is free software: you can redistribute it and/or modify
     it under the terms of the GNU General Public License as published by
@@ -18,27 +15,19 @@
     You should have received a copy of the GNU General Public License
     along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
 */
-package fi.smaa.common;
 
-public class ValueIndexPair implements Comparable<ValueIndexPair> {
-	public double value;
-	public int altIndex;
+package fi.smaa.common;
 
-	public ValueIndexPair(int altIndex, double value) {
-		this.altIndex = altIndex;
-		this.value = value;
-	}
+import org.apache.commons.math3.random.RandomGenerator;
 
-	public int compareTo(ValueIndexPair o) {
-		if (this.value < o.value) {
-			return 1;
-		} else if (this.value > o.value) {
-			return -1;
-		}
-		return 0;
-	}	
+/**
+ * A random number engine that can create new engines for parallel streams.
+ */
+public interface SplittableGenerator extends RandomGenerator {
 
-	public String toString() {
-		return altIndex + ": " + value;
-	}
+	/**
+	 * Creates a new engine whose sequence does not overlap with that of this engine, and
+	 * advances this engine. The result only depends on the state of this engine.
+	 */
+	public SplittableGenerator split();
 }
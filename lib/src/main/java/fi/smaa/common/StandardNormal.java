@@ -0,0 +1,105 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+import org.apache.commons.math3.special.Erf;
+
+/**
+ * Cumulative distribution and quantile functions of the standard normal distribution.
+ */
+public class StandardNormal {
+	
+	private static final double[] A = {
+		-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+		1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+	private static final double[] B = {
+		-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+		6.680131188771972e+01, -1.328068155288572e+01 };
+	private static final double[] C = {
+		-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+		-2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+	private static final double[] D = {
+		7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+		3.754408661907416e+00 };
+	private static final double P_LOW = 0.02425;
+	private static final double SQRT2 = Math.sqrt(2.0);
+	private static final double SQRT2PI = Math.sqrt(2.0 * Math.PI);
+
+	private StandardNormal() {
+	}
+	
+	/**
+	 * @return P(X <= x) for a standard normal X
+	 */
+	public static double cdf(double x) {
+		return 0.5 * Erf.erfc(-x / SQRT2);
+	}
+	
+	/**
+	 * Computes the inverse of the standard normal CDF (Acklam's rational approximation,
+	 * refined with one step of Halley's method).
+	 * 
+	 * @param p probability in [0, 1]
+	 * @return x such that P(X <= x) = p; infinite for p = 0 or p = 1
+	 */
+	public static double quantile(double p) {
+		if (p <= 0.0) {
+			return Double.NEGATIVE_INFINITY;
+		} else if (p >= 1.0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double x;
+		if (p < P_LOW) {
+			double q = Math.sqrt(-2 * Math.log(p));
+			x = (((((C[0]*q+C[1])*q+C[2])*q+C[3])*q+C[4])*q+C[5]) /
+				((((D[0]*q+D[1])*q+D[2])*q+D[3])*q+1);
+		} else if (p <= 1 - P_LOW) {
+			double q = p - 0.5;
+			double r = q * q;
+			x = (((((A[0]*r+A[1])*r+A[2])*r+A[3])*r+A[4])*r+A[5])*q /
+				(((((B[0]*r+B[1])*r+B[2])*r+B[3])*r+B[4])*r+1);
+		} else {
+			double q = Math.sqrt(-2 * Math.log(1 - p));
+			x = -(((((C[0]*q+C[1])*q+C[2])*q+C[3])*q+C[4])*q+C[5]) /
+				((((D[0]*q+D[1])*q+D[2])*q+D[3])*q+1);
+		}
+		double e = cdf(x) - p;
+		double u = e * SQRT2PI * Math.exp(x * x / 2);
+		return x - u / (1 + x * u / 2);
+	}
+
+	/**
+	 * Maps a uniform to a standard normal truncated to [lower, upper] by inversion. Intervals
+	 * above the mean are reflected to the lower tail, where the CDF is accurate.
+	 *
+	 * @param u uniform in (0, 1)
+	 * @return the truncated quantile, NaN if lower > upper
+	 */
+	public static double truncatedQuantile(double lower, double upper, double u) {
+		if (!(lower <= upper)) {
+			return Double.NaN;
+		}
+		if (lower > 0.0) {
+			return -truncatedQuantile(-upper, -lower, 1.0 - u);
+		}
+		double pa = cdf(lower);
+		double pb = cdf(upper);
+		double x = quantile(pa + u * (pb - pa));
+		return Math.min(upper, Math.max(lower, x));
+	}
+}
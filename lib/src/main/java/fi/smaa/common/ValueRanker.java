@@ -1,24 +1,167 @@
 package fi.smaa.common;
 
-import java.util.Arrays;
-
+/**
+ * Ranks values in descending order (rank 0 is the largest value). An instance reuses its
+ * buffers, so ranking does not allocate; it is not thread-safe.
+ */
 public class ValueRanker {
 
+	public enum TiePolicy {
+		/**
+		 * Equal values share a rank, and the next smaller value gets the next rank (0, 1, 1, 2).
+		 */
+		SHARED,
+		/**
+		 * Ties are broken uniformly at random, so that all ranks are distinct (0, 1, 2, 3).
+		 */
+		RANDOM
+	}
+
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	private final TiePolicy tiePolicy;
+	private final double[] keys;
+	private final int[] order;
+
+	public ValueRanker(int size, TiePolicy tiePolicy) {
+		this.tiePolicy = tiePolicy;
+		keys = new double[size];
+		order = new int[size];
+	}
+
+	public TiePolicy getTiePolicy() {
+		return tiePolicy;
+	}
+
+	/**
+	 * Ranks the values with the tie policy {@link TiePolicy#SHARED}.
+	 *
+	 * @param ranks an array, where [i] = rank of values[i]
+	 */
 	public static void rankValues(double[] values, int[] ranks) {
-		ValueIndexPair[] pairs = new ValueIndexPair[values.length];
-		for (int i=0;i<values.length;i++) {
-			pairs[i] = new ValueIndexPair(i, values[i]);
+		new ValueRanker(values.length, TiePolicy.SHARED).rank(values, ranks, null);
+	}
+
+	/**
+	 * @param values the values, as many as the size of this ranker
+	 * @param ranks an array, where [i] = rank of values[i]
+	 * @param random source for breaking ties; only used with {@link TiePolicy#RANDOM}
+	 */
+	public void rank(double[] values, int[] ranks, RandomUtil random) {
+		assert(values.length == keys.length && ranks.length == keys.length);
+		final int n = keys.length;
+		// NaNs go last, and are tied with each other
+		int m = 0;
+		int nan = n;
+		for (int i=0;i<n;i++) {
+			if (Double.isNaN(values[i])) {
+				--nan;
+				keys[nan] = values[i];
+				order[nan] = i;
+			} else {
+				keys[m] = values[i];
+				order[m] = i;
+				m++;
+			}
 		}
-		Arrays.sort(pairs);
-		int rank = 0;
-		Double oldUtility = pairs.length > 0 ? pairs[0].value : 0.0;
-		for (int i=0;i<pairs.length;i++) {
-			if (!oldUtility.equals(pairs[i].value)) {
-				rank++;
-				oldUtility = pairs[i].value;
-			}			
-			ranks[pairs[i].altIndex] = rank;
+		sort(0, m - 1);
+
+		if (tiePolicy == TiePolicy.SHARED) {
+			int rank = 0;
+			for (int i=0;i<n;i++) {
+				if (i > 0 && !same(keys[i], keys[i-1])) {
+					rank++;
+				}
+				ranks[order[i]] = rank;
+			}
+		} else {
+			int start = 0;
+			for (int i=1;i<=n;i++) {
+				if (i == n || !same(keys[i], keys[start])) {
+					if (i - start > 1) {
+						shuffle(start, i, random);
+					}
+					start = i;
+				}
+			}
+			for (int i=0;i<n;i++) {
+				ranks[order[i]] = i;
+			}
 		}
 	}
 
+	private static boolean same(double a, double b) {
+		return a == b || (a != a && b != b);
+	}
+
+	private void shuffle(int from, int to, RandomUtil random) {
+		for (int i=to-1;i>from;i--) {
+			int k = i - from + 1;
+			int j = from + Math.min((int) (random.createUnif01() * k), k - 1);
+			int t = order[i];
+			order[i] = order[j];
+			order[j] = t;
+		}
+	}
+
+	/**
+	 * Sorts keys[lo..hi] in descending order, permuting order[] along with it.
+	 */
+	private void sort(int lo, int hi) {
+		while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+			int p = partition(lo, hi);
+			// recurse into the smaller part to bound the stack depth
+			if (p - lo < hi - p) {
+				sort(lo, p);
+				lo = p + 1;
+			} else {
+				sort(p + 1, hi);
+				hi = p;
+			}
+		}
+		for (int i=lo+1;i<=hi;i++) {
+			double k = keys[i];
+			int o = order[i];
+			int j = i - 1;
+			while (j >= lo && keys[j] < k) {
+				keys[j+1] = keys[j];
+				order[j+1] = order[j];
+				j--;
+			}
+			keys[j+1] = k;
+			order[j+1] = o;
+		}
+	}
+
+	private int partition(int lo, int hi) {
+		int mid = (lo + hi) >>> 1;
+		// median of three
+		if (keys[mid] > keys[lo]) swap(mid, lo);
+		if (keys[hi] > keys[lo]) swap(hi, lo);
+		if (keys[hi] > keys[mid]) swap(hi, mid);
+		final double pivot = keys[mid];
+		int i = lo - 1;
+		int j = hi + 1;
+		while (true) {
+			do {
+				i++;
+			} while (keys[i] > pivot);
+			do {
+				j--;
+			} while (keys[j] < pivot);
+			if (i >= j) {
+				return j;
+			}
+			swap(i, j);
+		}
+	}
+
+	private void swap(int i, int j) {
+		double k = keys[i];
+		keys[i] = keys[j];
+		keys[j] = k;
+		int o = order[i];
+		order[i] = order[j];
+		order[j] = o;
+	}
 }
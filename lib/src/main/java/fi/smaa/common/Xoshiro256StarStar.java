@@ -0,0 +1,113 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+/**
+ * xoshiro256** by Blackman and Vigna: 256 bits of state, period 2^256 - 1. Splitting returns
+ * a copy of this generator and then jumps this one 2^128 steps ahead, so the streams of
+ * repeatedly split generators never overlap.
+ */
+public class Xoshiro256StarStar extends LongGenerator {
+
+	private static final long serialVersionUID = 4781365219409640277L;
+	private static final long[] JUMP = { 0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL,
+		0xa9582618e03fc9aaL, 0x39abdc4529b1661cL };
+	
+	private long s0, s1, s2, s3;
+	
+	public Xoshiro256StarStar(long seed) {
+		setSeed(seed);
+	}
+	
+	Xoshiro256StarStar(long s0, long s1, long s2, long s3) {
+		this.s0 = s0;
+		this.s1 = s1;
+		this.s2 = s2;
+		this.s3 = s3;
+	}
+
+	/**
+	 * Initializes the state from the outputs of SplitMix64, which are never all zero.
+	 */
+	@Override
+	public void setSeed(long seed) {
+		SplitMix64 sm = new SplitMix64(seed);
+		s0 = sm.nextLong();
+		s1 = sm.nextLong();
+		s2 = sm.nextLong();
+		s3 = sm.nextLong();
+		clear();
+	}
+	
+	@Override
+	long[] getState() {
+		return new long[] { s0, s1, s2, s3 };
+	}
+	
+	@Override
+	void setState(long[] state) {
+		checkState(state, 4);
+		s0 = state[0];
+		s1 = state[1];
+		s2 = state[2];
+		s3 = state[3];
+		clear();
+	}
+	
+	@Override
+	public long nextLong() {
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+	
+	/**
+	 * Advances the generator by 2^128 steps.
+	 */
+	public void jump() {
+		long t0 = 0, t1 = 0, t2 = 0, t3 = 0;
+		for (int i=0;i<JUMP.length;i++) {
+			for (int b=0;b<64;b++) {
+				if ((JUMP[i] & (1L << b)) != 0) {
+					t0 ^= s0;
+					t1 ^= s1;
+					t2 ^= s2;
+					t3 ^= s3;
+				}
+				nextLong();
+			}
+		}
+		s0 = t0;
+		s1 = t1;
+		s2 = t2;
+		s3 = t3;
+	}
+	
+	public Xoshiro256StarStar split() {
+		Xoshiro256StarStar copy = new Xoshiro256StarStar(s0, s1, s2, s3);
+		jump();
+		return copy;
+	}
+}
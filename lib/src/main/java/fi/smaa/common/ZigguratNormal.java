@@ -0,0 +1,96 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Ziggurat method for standard normal variates (Marsaglia and Tsang, 2000, with the
+ * modifications of Doornik, 2005). The density is covered by 128 layers of equal area; most
+ * draws take a single 64-bit random number, one table lookup and one multiplication.
+ */
+final class ZigguratNormal {
+	
+	private static final int LAYERS = 128;
+	private static final double R = 3.442619855899;
+	private static final double V = 9.91256303526217e-3;
+	
+	private static final double[] X = new double[LAYERS + 1];
+	private static final double[] RATIO = new double[LAYERS];
+	
+	static {
+		double f = Math.exp(-0.5 * R * R);
+		X[0] = V / f;
+		X[1] = R;
+		X[LAYERS] = 0.0;
+		for (int i=2;i<LAYERS;i++) {
+			X[i] = Math.sqrt(-2.0 * Math.log(V / X[i-1] + f));
+			f = Math.exp(-0.5 * X[i] * X[i]);
+		}
+		for (int i=0;i<LAYERS;i++) {
+			RATIO[i] = X[i+1] / X[i];
+		}
+	}
+	
+	private ZigguratNormal() {
+	}
+	
+	/**
+	 * @return a standard normal variate
+	 */
+	static double sample(RandomGenerator engine) {
+		while (true) {
+			long bits = engine.nextLong();
+			int i = (int) (bits & (LAYERS - 1));
+			double u = 2.0 * ((bits >>> 11) * 0x1.0p-53) - 1.0;
+			if (Math.abs(u) < RATIO[i]) {
+				return u * X[i];
+			}
+			if (i == 0) {
+				return tail(engine, u < 0.0);
+			}
+			double x = u * X[i];
+			double f0 = Math.exp(-0.5 * (X[i] * X[i] - x * x));
+			double f1 = Math.exp(-0.5 * (X[i+1] * X[i+1] - x * x));
+			if (f1 + engine.nextDouble() * (f0 - f1) < 1.0) {
+				return x;
+			}
+		}
+	}
+
+	/**
+	 * Samples from the tail beyond R (Marsaglia, 1964).
+	 */
+	private static double tail(RandomGenerator engine, boolean negative) {
+		double x, y;
+		do {
+			x = Math.log(nonZero(engine)) / R;
+			y = Math.log(nonZero(engine));
+		} while (-2.0 * y < x * x);
+		return negative ? x - R : R - x;
+	}
+
+	private static double nonZero(RandomGenerator engine) {
+		double u;
+		do {
+			u = engine.nextDouble();
+		} while (u == 0.0);
+		return u;
+	}
+}
@@ -55,6 +55,31 @@ public class BaselineGaussianMeasurement extends GaussianMeasurement {
 		return d_sample;
 	}
 	
+	/**
+	 * Not provided, as the sample is fixed by {@link #update(RandomUtil)}.
+	 */
+	@Override
+	public double cdf(double x) {
+		return Double.NaN;
+	}
+	
+	/**
+	 * Not provided, as the sample is fixed by {@link #update(RandomUtil)}.
+	 */
+	@Override
+	public double quantile(double p) {
+		return Double.NaN;
+	}
+	
+	/**
+	 * The sample is fixed by {@link #update(RandomUtil)}, so it is returned if within the bounds.
+	 */
+	@Override
+	public double sampleTruncated(RandomUtil random, double lower, double upper) {
+		double x = sample(random);
+		return x >= lower && x <= upper ? x : Double.NaN;
+	}
+	
 	@Override
 	public boolean equals(Object other) {
 		if (other == null || !(other.getClass().equals(BaselineGaussianMeasurement.class))) {
@@ -27,6 +27,7 @@ import javolution.xml.stream.XMLStreamException;
 
 import org.apache.commons.math3.distribution.BetaDistribution;
 
+import fi.smaa.common.BetaSampler;
 import fi.smaa.common.RandomUtil;
 
 public class BetaMeasurement extends CardinalMeasurement {
@@ -42,6 +43,8 @@ public class BetaMeasurement extends CardinalMeasurement {
 	private Double beta;
 	private Double min;
 	private Double max;
+	private transient BetaSampler sampler;
+	private transient BetaDistribution distribution;
 		
 	public BetaMeasurement(double alpha, double beta, double min, double max) {
 		assert(alpha > 0.0);
@@ -73,6 +76,8 @@ public class BetaMeasurement extends CardinalMeasurement {
 		
 		Object oldval = this.max;
 		this.max = max;
+		sampler = null;
+		distribution = null;
 		firePropertyChange(PROPERTY_MAX, oldval, this.max);		
 	}
 	
@@ -84,6 +89,8 @@ public class BetaMeasurement extends CardinalMeasurement {
 		assert (min <= max);
 		Object oldval = this.min;
 		this.min = min;
+		sampler = null;
+		distribution = null;
 		firePropertyChange(PROPERTY_MIN, oldval, this.min);				
 	}
 	
@@ -96,6 +103,8 @@ public class BetaMeasurement extends CardinalMeasurement {
 		
 		Object oldval = this.alpha;
 		this.alpha = alpha;
+		sampler = null;
+		distribution = null;
 		firePropertyChange(PROPERTY_ALPHA, oldval, this.alpha);				
 	}
 
@@ -108,6 +117,8 @@ public class BetaMeasurement extends CardinalMeasurement {
 		
 		Object oldval = this.beta;
 		this.beta = beta;
+		sampler = null;
+		distribution = null;
 		firePropertyChange(PROPERTY_BETA, oldval, this.beta);				
 	}	
 	
@@ -123,9 +134,70 @@ public class BetaMeasurement extends CardinalMeasurement {
 		return (val + min) * (max - min);
 	}
 
+	@Override
+	public double getLowerBound() {
+		return min;
+	}
+	
 	@Override
 	public double sample(RandomUtil random) {
-		return random.createBeta(min, max, alpha, beta);
+		return random.createBeta(getSampler());
+	}
+	
+	@Override
+	public double cdf(double x) {
+		if (x < min) {
+			return 0.0;
+		}
+		return x >= max ? 1.0 : getDistribution().cumulativeProbability((x - min) / (max - min));
+	}
+	
+	@Override
+	public double quantile(double p) {
+		return max > min ? min + getDistribution().inverseCumulativeProbability(p) * (max - min) : min;
+	}
+	
+	/**
+	 * Samples the truncated distribution by inverting its CDF, using a single uniform.
+	 */
+	@Override
+	public double sampleTruncated(RandomUtil random, double lower, double upper) {
+		double lo = Math.max(min, lower);
+		double hi = Math.min(max, upper);
+		if (lo > hi) {
+			return Double.NaN;
+		}
+		double scale = max - min;
+		if (scale == 0.0) {
+			return min;
+		}
+		BetaDistribution dist = getDistribution();
+		double pa = dist.cumulativeProbability((lo - min) / scale);
+		double pb = dist.cumulativeProbability((hi - min) / scale);
+		double x = min + dist.inverseCumulativeProbability(pa + random.createUnif01() * (pb - pa)) * scale;
+		return Math.min(hi, Math.max(lo, x));
+	}
+	
+	/**
+	 * Gets the sampler for the current parameters; it is created on first use and discarded
+	 * when a parameter changes.
+	 */
+	private BetaDistribution getDistribution() {
+		BetaDistribution dist = distribution;
+		if (dist == null) {
+			dist = new BetaDistribution(alpha, beta);
+			distribution = dist;
+		}
+		return dist;
+	}
+	
+	public BetaSampler getSampler() {
+		BetaSampler s = sampler;
+		if (s == null) {
+			s = new BetaSampler(alpha, beta, min, max);
+			sampler = s;
+		}
+		return s;
 	}
 	
 	public BetaMeasurement deepCopy() {
@@ -164,6 +236,8 @@ public class BetaMeasurement extends CardinalMeasurement {
 			meas.beta = ie.getAttribute("beta").toDouble();
 			meas.min = ie.getAttribute("min").toDouble();
 			meas.max = ie.getAttribute("max").toDouble();
+			meas.sampler = null;
+			meas.distribution = null;
 		}
 		@Override
 		public void write(BetaMeasurement meas, OutputElement oe) throws XMLStreamException {
@@ -28,7 +28,51 @@ import fi.smaa.common.RandomUtil;
 public abstract class CardinalMeasurement extends Measurement {
 
 	private static final long serialVersionUID = -1805819804451450374L;
+	private static final int MAX_TRUNCATED_TRIES = 1000;
 
 	public abstract Interval getRange();
 	public abstract double sample(RandomUtil random);
+	
+	/**
+	 * @return the lower end of the support of this distribution (unlike that of
+	 * {@link #getRange()}); Double.NEGATIVE_INFINITY if it is unbounded or unknown
+	 */
+	public double getLowerBound() {
+		return Double.NEGATIVE_INFINITY;
+	}
+	
+	/**
+	 * @return P(X <= x); NaN if this distribution does not provide its CDF
+	 */
+	public double cdf(double x) {
+		return Double.NaN;
+	}
+	
+	/**
+	 * @param p probability in [0, 1]
+	 * @return the smallest x with P(X <= x) >= p, infinite at 0 or 1 for unbounded distributions;
+	 * NaN if this distribution does not provide its quantile function
+	 */
+	public double quantile(double p) {
+		return Double.NaN;
+	}
+	
+	/**
+	 * Samples from this distribution conditioned on lying in [lower, upper]. The default
+	 * implementation rejects samples outside the bounds a bounded number of times;
+	 * subclasses override it to sample the truncated distribution directly.
+	 * 
+	 * @param lower the lower bound, may be Double.NEGATIVE_INFINITY
+	 * @param upper the upper bound, may be Double.POSITIVE_INFINITY
+	 * @return the sample, NaN if the bounds exclude all (or nearly all) of the distribution
+	 */
+	public double sampleTruncated(RandomUtil random, double lower, double upper) {
+		for (int i=0;i<MAX_TRUNCATED_TRIES;i++) {
+			double x = sample(random);
+			if (x >= lower && x <= upper) {
+				return x;
+			}
+		}
+		return Double.NaN;
+	}
 }
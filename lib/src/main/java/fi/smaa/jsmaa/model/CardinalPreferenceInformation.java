@@ -22,6 +22,8 @@
 */
 package fi.smaa.jsmaa.model;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
@@ -36,11 +38,34 @@ import fi.smaa.jsmaa.model.xml.CriterionMeasurementPair;
 import fi.smaa.jsmaa.simulator.IterationException;
 
 public final class CardinalPreferenceInformation extends AbstractPreferenceInformation<CardinalMeasurement> {
+	
+	/**
+	 * How weights satisfying the constraints are sampled.
+	 */
+	public enum SamplingStrategy {
+		/** Sample from the unconstrained simplex until the constraints are satisfied. Exact, but slow for tight constraints. */
+		REJECTION,
+		/** Hit-and-run Markov chain over the constrained weights. Constant cost per sample, but samples are correlated. */
+		HIT_AND_RUN
+	}
 
 	private static final long serialVersionUID = 5119910625472241337L;
+	public static final String PROPERTY_SAMPLING_STRATEGY = "samplingStrategy";
+	public static final String PROPERTY_BURN_IN = "burnIn";
+	public static final String PROPERTY_THINNING = "thinning";
 	private static final int MAXGENITERS = 10000;
+	public static final int DEFAULT_BURN_IN = 1000;
+	public static final int DEFAULT_THINNING = 10;
 	protected Map<Criterion, CardinalMeasurement> prefs = new HashMap<Criterion, CardinalMeasurement>();
 	private static final double WEIGHT_EPSILON = 1E-4;
+	private SamplingStrategy strategy = SamplingStrategy.REJECTION;
+	private int burnIn = DEFAULT_BURN_IN;
+	private int thinning = DEFAULT_THINNING;
+	private transient HitAndRunSampler hitAndRun;
+	private transient int[] hitAndRunCriteria;
+	private transient double[] hitAndRunLower;
+	private transient double[] hitAndRunWeights;
+	private transient double[] tmpArr;
 
 	public CardinalPreferenceInformation(List<Criterion> criteria) {
 		super(criteria);
@@ -67,8 +92,62 @@ public final class CardinalPreferenceInformation extends AbstractPreferenceInfor
 		return prefs.get(c);
 	}
 
-	public double[] sampleWeights(RandomUtil random) throws IterationException {
-		double[] weights = new double[criteria.size()];
+	public SamplingStrategy getSamplingStrategy() {
+		return strategy;
+	}
+
+	public void setSamplingStrategy(SamplingStrategy strategy) {
+		Object oldVal = this.strategy;
+		this.strategy = strategy;
+		hitAndRun = null;
+		firePropertyChange(PROPERTY_SAMPLING_STRATEGY, oldVal, this.strategy);
+	}
+
+	public int getBurnIn() {
+		return burnIn;
+	}
+
+	/**
+	 * @param burnIn number of hit-and-run steps discarded before the first sample
+	 */
+	public void setBurnIn(int burnIn) {
+		Object oldVal = this.burnIn;
+		this.burnIn = burnIn;
+		hitAndRun = null;
+		firePropertyChange(PROPERTY_BURN_IN, oldVal, this.burnIn);
+	}
+
+	public int getThinning() {
+		return thinning;
+	}
+
+	/**
+	 * @param thinning number of hit-and-run steps per sample, >= 1
+	 */
+	public void setThinning(int thinning) {
+		if (thinning < 1) {
+			throw new IllegalArgumentException("thinning must be >= 1");
+		}
+		Object oldVal = this.thinning;
+		this.thinning = thinning;
+		hitAndRun = null;
+		firePropertyChange(PROPERTY_THINNING, oldVal, this.thinning);
+	}
+	
+	@Override
+	protected void firePreferencesChanged() {
+		hitAndRun = null;
+		super.firePreferencesChanged();
+	}
+
+	public void sampleWeights(RandomUtil random, double[] weights) throws IterationException {
+		if (weights.length != criteria.size()) {
+			throw new IllegalArgumentException("weights.length != number of criteria");
+		}
+		if (strategy == SamplingStrategy.HIT_AND_RUN) {
+			sampleWeightsHitAndRun(random, weights);
+			return;
+		}
 
 		double lowerBounds = 0.0;
 		int numIntervalCriteria = 0;
@@ -83,7 +162,9 @@ public final class CardinalPreferenceInformation extends AbstractPreferenceInfor
 			throw new IterationException("weight lower bounds over 1.0");
 		}
 
-		double[] tmpArr = new double[numIntervalCriteria];
+		if (tmpArr == null || tmpArr.length != numIntervalCriteria) {
+			tmpArr = new double[numIntervalCriteria];
+		}
 
 		for (int iter=0;iter<MAXGENITERS;iter++) {
 			if (numIntervalCriteria > 0) {
@@ -109,12 +190,90 @@ public final class CardinalPreferenceInformation extends AbstractPreferenceInfor
 			}
 
 			if (!overUpperBound && checkSumTo1(weights)) {
-				return weights;
+				return;
 			}
 		}
 		throw new IterationException("infeasible weight constraints");
 	}
 
+	/**
+	 * Writes the state of the hit-and-run chain, if one has been started, so that a resumed
+	 * simulation continues it; see {@link #readSamplerState(DataInput)}.
+	 */
+	public void writeSamplerState(DataOutput out) throws IOException {
+		out.writeBoolean(hitAndRun != null);
+		if (hitAndRun != null) {
+			hitAndRun.writeState(out);
+		}
+	}
+	
+	/**
+	 * Restores the state written by {@link #writeSamplerState(DataOutput)}, for the same
+	 * constraints and sampling strategy.
+	 */
+	public void readSamplerState(DataInput in) throws IOException {
+		hitAndRun = null;
+		if (in.readBoolean()) {
+			if (strategy != SamplingStrategy.HIT_AND_RUN) {
+				throw new IOException("Invalid hit-and-run state");
+			}
+			initHitAndRun();
+			hitAndRun.readState(in);
+		}
+	}
+
+	private void sampleWeightsHitAndRun(RandomUtil random, double[] weights) throws IterationException {
+		if (hitAndRun == null) {
+			initHitAndRun();
+		}
+		double[] sample = hitAndRun.next(random);
+		System.arraycopy(hitAndRunWeights, 0, weights, 0, weights.length);
+		for (int k=0;k<sample.length;k++) {
+			weights[hitAndRunCriteria[k]] = hitAndRunLower[k] + sample[k];
+		}
+	}
+
+	/**
+	 * Creates the hit-and-run chain over the interval criteria, the map from its coordinates
+	 * to the criteria, and a weight vector holding the exact weights.
+	 */
+	private void initHitAndRun() throws IterationException {
+		double[] weights = new double[criteria.size()];
+		double lowerBounds = 0.0;
+		int numIntervalCriteria = 0;
+		for (int i=0;i<weights.length;i++) {
+			CardinalMeasurement meas = prefs.get(criteria.get(i));
+			if (meas instanceof Interval) {
+				numIntervalCriteria++;
+			} else if (meas instanceof ExactMeasurement) {
+				weights[i] = ((ExactMeasurement) meas).getValue();
+			} else {
+				throw new RuntimeException("unknown weight constraint type");
+			}
+			lowerBounds += meas.getRange().getStart();
+		}
+		if (lowerBounds > 1.0 + WEIGHT_EPSILON) {
+			throw new IterationException("weight lower bounds over 1.0");
+		}
+		int[] index = new int[numIntervalCriteria];
+		double[] lower = new double[numIntervalCriteria];
+		double[] range = new double[numIntervalCriteria];
+		int k = 0;
+		for (int i=0;i<weights.length;i++) {
+			CardinalMeasurement meas = prefs.get(criteria.get(i));
+			if (meas instanceof Interval) {
+				index[k] = i;
+				lower[k] = meas.getRange().getStart();
+				range[k] = meas.getRange().getLength();
+				k++;
+			}
+		}
+		hitAndRun = new HitAndRunSampler(range, 1.0 - lowerBounds, burnIn, thinning, WEIGHT_EPSILON);
+		hitAndRunCriteria = index;
+		hitAndRunLower = lower;
+		hitAndRunWeights = weights;
+	}
+
 	private boolean checkSumTo1(double[] weights) {
 		double sum = 0.0;
 		for (double d : weights) {
@@ -128,11 +287,19 @@ public final class CardinalPreferenceInformation extends AbstractPreferenceInfor
 		for (Criterion c : prefs.keySet()) {
 			pref.setMeasurement(c, prefs.get(c));
 		}
+		pref.strategy = strategy;
+		pref.burnIn = burnIn;
+		pref.thinning = thinning;
 		return pref;
 	}
 
 	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
 		in.defaultReadObject();
+		if (strategy == null) { // serialized before sampling strategies existed
+			strategy = SamplingStrategy.REJECTION;
+			burnIn = DEFAULT_BURN_IN;
+			thinning = DEFAULT_THINNING;
+		}
 		for (Criterion c : criteria) {
 			getMeasurement(c).addPropertyChangeListener(measListener);
 		}	
@@ -152,6 +319,10 @@ public final class CardinalPreferenceInformation extends AbstractPreferenceInfor
 		}
 		@Override
 		public void read(InputElement ie, CardinalPreferenceInformation pref) throws XMLStreamException {
+			// models saved before sampling strategies existed have no such attributes
+			pref.strategy = SamplingStrategy.valueOf(ie.getAttribute("sampling", SamplingStrategy.REJECTION.name()));
+			pref.burnIn = ie.getAttribute("burnIn", DEFAULT_BURN_IN);
+			pref.thinning = ie.getAttribute("thinning", DEFAULT_THINNING);
 			CriterionMeasurementPair p = null;
 			while (ie.hasNext()) {
 				p = ie.get("preference", CriterionMeasurementPair.class);
@@ -161,6 +332,9 @@ public final class CardinalPreferenceInformation extends AbstractPreferenceInfor
 		}
 		@Override
 		public void write(CardinalPreferenceInformation pref, OutputElement oe) throws XMLStreamException {
+			oe.setAttribute("sampling", pref.strategy.name());
+			oe.setAttribute("burnIn", pref.burnIn);
+			oe.setAttribute("thinning", pref.thinning);
 			for (Criterion c : pref.criteria) {
 				CriterionMeasurementPair p = new CriterionMeasurementPair(c, pref.getMeasurement(c));
 				oe.add(p, "preference", CriterionMeasurementPair.class);
@@ -35,6 +35,7 @@ import javax.swing.event.ListDataListener;
 
 import javolution.xml.XMLFormat;
 import javolution.xml.stream.XMLStreamException;
+import fi.smaa.common.AliasTable;
 import fi.smaa.common.RandomUtil;
 import fi.smaa.jsmaa.model.xml.Point2DList;
 
@@ -47,6 +48,11 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 
 	private List<Point2D> discretePoints;
 	private TotalProbability totalProbability;
+	/**
+	 * Alias table for sampling the points, built lazily and discarded whenever the list changes.
+	 */
+	private transient AliasTable aliasTable;
+	private transient double[] aliasValues;
 
 	public DiscreteMeasurement(List<Point2D> discretePoints)
 			throws PointOutsideIntervalException {
@@ -89,15 +95,22 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 		if (totalProbability.doubleValue() < 1.0) {
 			throw new InvalidIntervalException("Discrete measurement probabilities sum to less than 1");
 		}
-		double probability = random.createUnif01();
-		double total = 0.0;
-		for (Point2D point : discretePoints) {
-			total += point.getY();
-			if (total >= probability) {
-				return point.getX();
-			}
+		if (aliasTable == null || aliasValues.length != discretePoints.size()) {
+			buildAliasTable();
+		}
+		return aliasValues[aliasTable.sample(random)];
+	}
+
+	private void buildAliasTable() {
+		double[] values = new double[discretePoints.size()];
+		double[] weights = new double[values.length];
+		for (int i=0;i<values.length;i++) {
+			Point2D point = discretePoints.get(i);
+			values[i] = point.getX();
+			weights[i] = point.getY();
 		}
-		return Double.NaN; // it will never get here
+		aliasTable = new AliasTable(weights);
+		aliasValues = values;
 	}
 
 	public List<Point2D> getList() {
@@ -234,6 +247,7 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 		if (!checkFeasibility(points))
 			return false;
 		discretePoints.addAll(index, points);
+		aliasTable = null;
 		return true;
 	}
 
@@ -277,8 +291,9 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 			return null;
 		totalProbability.min(old.getY());
 		totalProbability.add(element.getY());
+		Point2D replaced = discretePoints.set(index, element);
 		fireContentsChanged(this, index, index);
-		return discretePoints.set(index, element);
+		return replaced;
 	}
 
 	@Override
@@ -373,6 +388,7 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 			int endIndex) {
 		ListDataEvent event = new ListDataEvent(source,
 				ListDataEvent.CONTENTS_CHANGED, startIndex, endIndex);
+		aliasTable = null;
 		ListDataListener[] listeners = getListDataListeners();
 
 		for (int index = 0; index < listeners.length; index++)
@@ -383,6 +399,7 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 	protected void fireIntervalAdded(Object source, int startIndex, int endIndex) {
 		ListDataEvent event = new ListDataEvent(source,
 				ListDataEvent.INTERVAL_ADDED, startIndex, endIndex);
+		aliasTable = null;
 		ListDataListener[] listeners = getListDataListeners();
 
 		for (int index = 0; index < listeners.length; index++)
@@ -394,6 +411,7 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 			int endIndex) {
 		ListDataEvent event = new ListDataEvent(source,
 				ListDataEvent.INTERVAL_REMOVED, startIndex, endIndex);
+		aliasTable = null;
 		ListDataListener[] listeners = getListDataListeners();
 
 		for (int index = 0; index < listeners.length; index++)
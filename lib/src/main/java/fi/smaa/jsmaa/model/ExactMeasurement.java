@@ -53,6 +53,11 @@ public final class ExactMeasurement extends CardinalMeasurement {
 		return new Interval(val, val);
 	}
 	
+	@Override
+	public double getLowerBound() {
+		return val;
+	}
+	
 	@Override
 	public String toString() {
 		return "[" + val + "]";
@@ -63,6 +68,21 @@ public final class ExactMeasurement extends CardinalMeasurement {
 		return val;
 	}
 
+	@Override
+	public double cdf(double x) {
+		return x >= val ? 1.0 : 0.0;
+	}
+	
+	@Override
+	public double quantile(double p) {
+		return val;
+	}
+
+	@Override
+	public double sampleTruncated(RandomUtil random, double lower, double upper) {
+		return val >= lower && val <= upper ? val : Double.NaN;
+	}
+
 	public ExactMeasurement deepCopy() {
 		return new ExactMeasurement(val);
 	}
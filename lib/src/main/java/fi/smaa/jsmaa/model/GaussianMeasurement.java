@@ -25,6 +25,7 @@ package fi.smaa.jsmaa.model;
 import javolution.xml.XMLFormat;
 import javolution.xml.stream.XMLStreamException;
 import fi.smaa.common.RandomUtil;
+import fi.smaa.common.StandardNormal;
 
 public class GaussianMeasurement extends CardinalMeasurement {
 	private static final long serialVersionUID = 1821014379633287612L;
@@ -86,6 +87,31 @@ public class GaussianMeasurement extends CardinalMeasurement {
 		return random.createGaussian(mean, stDev);
 	}
 	
+	/**
+	 * Samples the truncated normal by inversion, using a single uniform.
+	 */
+	@Override
+	public double cdf(double x) {
+		if (stDev == 0.0) {
+			return x >= mean ? 1.0 : 0.0;
+		}
+		return StandardNormal.cdf((x - mean) / stDev);
+	}
+	
+	@Override
+	public double quantile(double p) {
+		return stDev == 0.0 ? mean : mean + stDev * StandardNormal.quantile(p);
+	}
+	
+	@Override
+	public double sampleTruncated(RandomUtil random, double lower, double upper) {
+		if (stDev == 0.0) {
+			return mean >= lower && mean <= upper ? mean : Double.NaN;
+		}
+		double z = StandardNormal.truncatedQuantile((lower - mean) / stDev, (upper - mean) / stDev, random.createUnif01());
+		return mean + z * stDev;
+	}
+	
 	@Override
 	public boolean equals(Object other) {
 		if (!(other.getClass().equals(GaussianMeasurement.class))) {
@@ -0,0 +1,149 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.simulator.IterationException;
+
+/**
+ * Hit-and-run Markov chain over the polytope { x : 0 <= x_i <= range_i, sum(x) = sum }.
+ * Each step picks a random direction within the hyperplane and moves to a uniformly
+ * chosen point on the chord through the current point, so the cost of a sample does not
+ * depend on the volume of the polytope.
+ */
+final class HitAndRunSampler {
+	
+	private final double[] range;
+	private final double[] x;
+	private final double[] dir;
+	private final int burnIn;
+	private final int thinning;
+	private boolean burnedIn;
+
+	/**
+	 * @param range the upper bounds of the coordinates (lower bounds are 0)
+	 * @param sum the sum of the coordinates
+	 * @param burnIn the number of steps before the first sample
+	 * @param thinning the number of steps between samples, >= 1
+	 * @param epsilon tolerance for the feasibility check
+	 * @throws IterationException if the polytope is empty
+	 */
+	public HitAndRunSampler(double[] range, double sum, int burnIn, int thinning, double epsilon) throws IterationException {
+		this.range = range;
+		this.burnIn = burnIn;
+		this.thinning = thinning;
+		this.x = new double[range.length];
+		this.dir = new double[range.length];
+		
+		double total = 0.0;
+		for (double r : range) {
+			total += r;
+		}
+		if (sum < -epsilon || total < sum - epsilon || (range.length == 0 && Math.abs(sum) > epsilon)) {
+			throw new IterationException("infeasible weight constraints");
+		}
+		// start in the interior, at the point proportional to the ranges 
+		for (int i=0;i<x.length;i++) {
+			x[i] = total > 0.0 ? range[i] * Math.min(1.0, Math.max(0.0, sum / total)) : 0.0;
+		}
+	}
+	
+	/**
+	 * Advances the chain and returns the new state. The returned array is owned by the sampler.
+	 */
+	public double[] next(RandomUtil random) {
+		if (!burnedIn) {
+			for (int i=0;i<burnIn;i++) {
+				step(random);
+			}
+			burnedIn = true;
+		}
+		for (int i=0;i<thinning;i++) {
+			step(random);
+		}
+		return x;
+	}
+
+	/**
+	 * Writes the state of the chain: whether it has burned in, and the current point.
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		out.writeBoolean(burnedIn);
+		out.writeInt(x.length);
+		for (double v : x) {
+			out.writeDouble(v);
+		}
+	}
+	
+	/**
+	 * Continues from a state written by {@link #writeState(DataOutput)} for the same polytope.
+	 */
+	public void readState(DataInput in) throws IOException {
+		boolean b = in.readBoolean();
+		if (in.readInt() != x.length) {
+			throw new IOException("Invalid hit-and-run state");
+		}
+		burnedIn = b;
+		for (int i=0;i<x.length;i++) {
+			x[i] = in.readDouble();
+		}
+	}
+
+	private void step(RandomUtil random) {
+		final int n = x.length;
+		if (n < 2) {
+			return;
+		}
+		// random direction, projected onto sum(dir) = 0
+		double mean = 0.0;
+		for (int i=0;i<n;i++) {
+			dir[i] = random.createGaussian(0.0, 1.0);
+			mean += dir[i];
+		}
+		mean /= n;
+		double tMin = Double.NEGATIVE_INFINITY;
+		double tMax = Double.POSITIVE_INFINITY;
+		for (int i=0;i<n;i++) {
+			double d = dir[i] - mean;
+			dir[i] = d;
+			if (d > 0.0) {
+				tMin = Math.max(tMin, -x[i] / d);
+				tMax = Math.min(tMax, (range[i] - x[i]) / d);
+			} else if (d < 0.0) {
+				tMin = Math.max(tMin, (range[i] - x[i]) / d);
+				tMax = Math.min(tMax, -x[i] / d);
+			}
+		}
+		if (!(tMax > tMin)) {
+			return;
+		}
+		double t = tMin + random.createUnif01() * (tMax - tMin);
+		for (int i=0;i<n;i++) {
+			x[i] = Math.min(range[i], Math.max(0.0, x[i] + t * dir[i]));
+		}
+	}
+}
@@ -131,11 +131,42 @@ public final class Interval extends CardinalMeasurement {
 		return this;
 	}
 
+	@Override
+	public double getLowerBound() {
+		return start;
+	}
+
 	@Override
 	public double sample(RandomUtil random) {
 		return getStart() + random.createUnif01() * (getEnd() - getStart());
 	}
 	
+	@Override
+	public double cdf(double x) {
+		if (x < start) {
+			return 0.0;
+		}
+		return x >= end ? 1.0 : (x - start) / (end - start);
+	}
+	
+	@Override
+	public double quantile(double p) {
+		return start + p * (end - start);
+	}
+	
+	/**
+	 * Samples uniformly from the intersection of this interval and [lower, upper].
+	 */
+	@Override
+	public double sampleTruncated(RandomUtil random, double lower, double upper) {
+		double lo = Math.max(start, lower);
+		double hi = Math.min(end, upper);
+		if (lo > hi) {
+			return Double.NaN;
+		}
+		return lo + random.createUnif01() * (hi - lo);
+	}
+	
 	public boolean includes(Double val) {
 		return val >= getStart() && val <= getEnd();
 	}
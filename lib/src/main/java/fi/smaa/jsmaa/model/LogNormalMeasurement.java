@@ -48,6 +48,11 @@ public class LogNormalMeasurement extends GaussianMeasurement {
 				Math.exp(mean + (stDev * 1.96)));
 	}	
 
+	@Override
+	public double getLowerBound() {
+		return 0.0;
+	}
+
 	@Override
 	public LogNormalMeasurement deepCopy() {
 		return new LogNormalMeasurement(mean, stDev);
@@ -58,6 +63,25 @@ public class LogNormalMeasurement extends GaussianMeasurement {
 		return Math.exp(super.sample(random));
 	}
 	
+	@Override
+	public double cdf(double x) {
+		return x > 0.0 ? super.cdf(Math.log(x)) : 0.0;
+	}
+	
+	@Override
+	public double quantile(double p) {
+		return Math.exp(super.quantile(p));
+	}
+	
+	@Override
+	public double sampleTruncated(RandomUtil random, double lower, double upper) {
+		if (upper < 0.0) {
+			return Double.NaN;
+		}
+		double lo = lower > 0.0 ? Math.log(lower) : Double.NEGATIVE_INFINITY;
+		return Math.exp(super.sampleTruncated(random, lo, Math.log(upper)));
+	}
+	
 	@Override
 	public boolean equals(Object other) {
 		if (!(other instanceof LogNormalMeasurement)) {
@@ -41,6 +41,37 @@ public class LogitNormalMeasurement extends GaussianMeasurement {
 		return Statistics.ilogit(super.sample(random));
 	}
 	
+	@Override
+	public double cdf(double x) {
+		if (x <= 0.0) {
+			return 0.0;
+		}
+		return x >= 1.0 ? 1.0 : super.cdf(Statistics.logit(x));
+	}
+	
+	@Override
+	public double quantile(double p) {
+		if (p <= 0.0) {
+			return 0.0;
+		}
+		return p >= 1.0 ? 1.0 : Statistics.ilogit(super.quantile(p));
+	}
+	
+	@Override
+	public double sampleTruncated(RandomUtil random, double lower, double upper) {
+		if (upper < 0.0 || lower > 1.0) {
+			return Double.NaN;
+		}
+		double lo = lower > 0.0 ? Statistics.logit(lower) : Double.NEGATIVE_INFINITY;
+		double hi = upper < 1.0 ? Statistics.logit(upper) : Double.POSITIVE_INFINITY;
+		return Statistics.ilogit(super.sampleTruncated(random, lo, hi));
+	}
+	
+	@Override
+	public double getLowerBound() {
+		return 0.0;
+	}
+	
 	@Override
 	public Interval getRange() {
 		return new Interval(0.0, 1.0);
@@ -26,23 +26,17 @@ import fi.smaa.common.RandomUtil;
 
 public final class MissingPreferenceInformation extends AbstractEntity implements PreferenceInformation {
 	private static final long serialVersionUID = -8477410889345079220L;
-	transient private double[] tmparr;
 	private int numCrit;
 
 	public MissingPreferenceInformation(int numCrit) {
 		this.numCrit = numCrit;
 	}
 
-	public double[] sampleWeights(RandomUtil random) {
-		initArray();
-		random.createSumToOneRand(tmparr);
-		return tmparr;
-	}
-	
-	private void initArray() {
-		if (tmparr == null) {
-			tmparr = new double[numCrit];			
+	public void sampleWeights(RandomUtil random, double[] weights) {
+		if (weights.length != numCrit) {
+			throw new IllegalArgumentException("weights.length != number of criteria");
 		}
+		random.createSumToOneRand(weights);
 	}
 
 	public MissingPreferenceInformation deepCopy() {
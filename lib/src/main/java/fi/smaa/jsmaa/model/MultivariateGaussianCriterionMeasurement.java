@@ -30,9 +30,8 @@ import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
-import org.apache.commons.math3.random.RandomVectorGenerator;
 
-import fi.smaa.common.MultivariateGaussianGenerator;
+import fi.smaa.common.MultivariateGaussianSampler;
 import fi.smaa.common.RandomUtil;
 
 public class MultivariateGaussianCriterionMeasurement extends AbstractEntity implements CriterionMeasurement {
@@ -46,13 +45,9 @@ public class MultivariateGaussianCriterionMeasurement extends AbstractEntity imp
 	private RealMatrix covarianceMatrix;
 	
 	/**
-	 * Caches the most recently used RandomUtil to check whether the MultivariateGaussianGenerator must be rebuilt.
+	 * Caches the sampler, which is independent of the RandomUtil used. Rebuilt when the covariance matrix changes.
 	 */
-	private RandomUtil random;
-	/**
-	 * Caches the MultivariateGaussianGenerator.
-	 */
-	private RandomVectorGenerator mvgGenerator;
+	private transient MultivariateGaussianSampler sampler;
 	
 	public MultivariateGaussianCriterionMeasurement(List<Alternative> alternatives) {
 		this.alternatives = new ArrayList<Alternative>(alternatives);
@@ -130,6 +125,9 @@ public class MultivariateGaussianCriterionMeasurement extends AbstractEntity imp
 		if (newValue.getDimension() != alternatives.size()) {
 			throw new IllegalArgumentException("Incorrect vector size " + newValue.getDimension() + ", expected " + alternatives.size());
 		}
+		if (sampler != null) {
+			sampler = sampler.getDimension() == newValue.getDimension() ? sampler.withMean(newValue) : null;
+		}
 		RealVector oldValue = meanVector;
 		meanVector = newValue;
 		return oldValue;
@@ -150,9 +148,7 @@ public class MultivariateGaussianCriterionMeasurement extends AbstractEntity imp
 					+ "x" + newValue.getColumnDimension() + ", expected " + alternatives.size() + "x" + alternatives.size());
 		}
 		try { 
-			mvgGenerator = random == null ? 
-				new MultivariateGaussianGenerator(meanVector, newValue, null) : 
-				random.createMultivariateGaussian(meanVector, newValue);
+			sampler = new MultivariateGaussianSampler(meanVector, newValue);
 		} catch (Exception e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -167,14 +163,17 @@ public class MultivariateGaussianCriterionMeasurement extends AbstractEntity imp
 
 	@Override
 	public void sample(RandomUtil random, double[][] target, int criterionIndex) {
-		if (this.random != random) {
-			this.random = random;
-			mvgGenerator = random.createMultivariateGaussian(meanVector, covarianceMatrix);
-		}
-		double[] sample = mvgGenerator.nextVector();
-		for (int i = 0; i < alternatives.size(); ++i) {
-			target[criterionIndex][i] = sample[i];
+		getSampler().sample(random, target[criterionIndex]);
+	}
+	
+	/**
+	 * @return the (immutable) sampler for the current mean vector and covariance matrix
+	 */
+	public MultivariateGaussianSampler getSampler() {
+		if (sampler == null) {
+			sampler = new MultivariateGaussianSampler(meanVector, covarianceMatrix);
 		}
+		return sampler;
 	}
 	
 	/**
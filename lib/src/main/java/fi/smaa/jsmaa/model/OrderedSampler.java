@@ -0,0 +1,222 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import java.util.List;
+import java.util.TreeSet;
+
+import fi.smaa.common.RandomUtil;
+
+/**
+ * Samples independent measurements conditioned on being in nondecreasing order, such as the
+ * thresholds of a criterion or its category profiles.
+ * 
+ * The values are drawn backwards: the last one from its marginal distribution under the
+ * ordering, and each previous one from its distribution truncated to lie below the next,
+ * weighted by the probability that the ones before it fit below it. In terms of the quantile
+ * u = F_j(x) of value j, that weight is h_j(u) = P(X_0 <= ... <= X_{j-1} <= Q_j(u)) =
+ * H_{j-1}(F_{j-1}(Q_j(u))), with h_0 = 1 and H_j the integral of h_j. The weights are
+ * tabulated once, on a grid of quantiles that is refined towards the tails, so that each value
+ * is drawn by inverting its conditional CDF with a single uniform, at a cost that does not
+ * depend on how probable the ordering is. Working in quantiles handles point masses (e.g.
+ * exact measurements) without special cases.
+ * 
+ * Measurements that do not provide their CDF and quantile function are sampled by rejection.
+ */
+public final class OrderedSampler {
+	
+	private static final int MAX_SAMPLE_TRIES = 1000;
+	private static final double[] GRID = createGrid();
+	
+	private final CardinalMeasurement[] measurements;
+	private final double[][] weights;
+	private final double[][] cumulative;
+	
+	/**
+	 * @param measurements the distributions of the values, in order
+	 */
+	public OrderedSampler(List<? extends CardinalMeasurement> measurements) {
+		this.measurements = measurements.toArray(new CardinalMeasurement[measurements.size()]);
+		if (!providesQuantiles()) {
+			weights = null;
+			cumulative = null;
+			return;
+		}
+		int n = this.measurements.length;
+		weights = new double[n][GRID.length];
+		cumulative = new double[n][GRID.length];
+		for (int j=0;j<n;j++) {
+			for (int i=0;i<GRID.length;i++) {
+				weights[j][i] = j == 0 ? 1.0 : probabilityBelow(j - 1, this.measurements[j].quantile(GRID[i]));
+			}
+			for (int i=1;i<GRID.length;i++) {
+				cumulative[j][i] = cumulative[j][i-1] + cellMass(j, i - 1, GRID[i] - GRID[i-1]);
+			}
+		}
+	}
+	
+	/**
+	 * Grid of quantiles: uniform in the middle, geometric towards the tails. The lower tail is
+	 * refined down to 2^-1000, as small probabilities are represented accurately; the upper one
+	 * only to 2^-52.
+	 */
+	private static double[] createGrid() {
+		TreeSet<Double> grid = new TreeSet<Double>();
+		for (int i=0;i<=256;i++) {
+			grid.add(i / 256.0);
+		}
+		for (int t=32;t<=4000;t++) {
+			grid.add(Math.pow(2.0, -t / 4.0));
+		}
+		for (int t=32;t<=208;t++) {
+			grid.add(1.0 - Math.pow(2.0, -t / 4.0));
+		}
+		double[] g = new double[grid.size()];
+		int i = 0;
+		for (Double u : grid) {
+			g[i++] = u;
+		}
+		return g;
+	}
+
+	private boolean providesQuantiles() {
+		for (CardinalMeasurement m : measurements) {
+			double median = m.quantile(0.5);
+			if (Double.isNaN(median) || Double.isNaN(m.cdf(median))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return whether the values are sampled by inverting their conditional CDFs, rather than by rejection
+	 */
+	public boolean isExact() {
+		return weights != null;
+	}
+	
+	/**
+	 * Samples the values in order, value j using only the stream randoms[j].
+	 * 
+	 * @param dest receives the values
+	 * @return false if no ordered values could be sampled, as the ordering has (nearly) zero
+	 * probability; dest is then undefined
+	 */
+	public boolean sample(RandomUtil[] randoms, double[] dest) {
+		if (weights == null) {
+			return sampleByRejection(randoms, dest);
+		}
+		double upper = Double.POSITIVE_INFINITY;
+		for (int j=measurements.length-1;j>=0;j--) {
+			double v = j == measurements.length - 1 ? 1.0 : measurements[j].cdf(upper);
+			double mass = integrate(j, v);
+			if (!(mass > 0.0)) {
+				return false;
+			}
+			double u = Math.min(v, invert(j, randoms[j].createUnif01() * mass));
+			dest[j] = Math.min(upper, measurements[j].quantile(u));
+			upper = dest[j];
+		}
+		return true;
+	}
+
+	private boolean sampleByRejection(RandomUtil[] randoms, double[] dest) {
+		for (int i=0;i<MAX_SAMPLE_TRIES;i++) {
+			boolean ordered = true;
+			for (int j=0;j<measurements.length;j++) {
+				dest[j] = measurements[j].sample(randoms[j]);
+				ordered &= j == 0 || dest[j-1] <= dest[j];
+			}
+			if (ordered) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return P(X_0 <= ... <= X_j <= x)
+	 */
+	private double probabilityBelow(int j, double x) {
+		return integrate(j, measurements[j].cdf(x));
+	}
+	
+	/**
+	 * Integrates the tabulated weight of value j over [0, v]. Within a cell the weight is linear,
+	 * except that it is zero where it is zero at the lower end of the cell: as the weight is
+	 * nondecreasing, only quantiles with a positive weight are then ever drawn.
+	 */
+	private double integrate(int j, double v) {
+		if (!(v > 0.0)) {
+			return 0.0;
+		}
+		if (v >= 1.0) {
+			return cumulative[j][GRID.length - 1];
+		}
+		int i = cell(GRID, v);
+		return cumulative[j][i] + cellMass(j, i, v - GRID[i]);
+	}
+	
+	private double cellMass(int j, int i, double s) {
+		double ha = weights[j][i];
+		if (ha == 0.0) {
+			return 0.0;
+		}
+		double slope = (weights[j][i+1] - ha) / (GRID[i+1] - GRID[i]);
+		return s * (ha + 0.5 * slope * s);
+	}
+	
+	/**
+	 * @return the quantile at which the integral of the weight of value j reaches the target
+	 */
+	private double invert(int j, double target) {
+		int i = cell(cumulative[j], target);
+		double ha = weights[j][i];
+		double width = GRID[i+1] - GRID[i];
+		if (ha == 0.0) {
+			return GRID[i+1];
+		}
+		double slope = (weights[j][i+1] - ha) / width;
+		double rem = target - cumulative[j][i];
+		double s = 2.0 * rem / (ha + Math.sqrt(Math.max(0.0, ha * ha + 2.0 * slope * rem)));
+		return GRID[i] + Math.min(width, Math.max(0.0, s));
+	}
+	
+	/**
+	 * @return the largest i < values.length - 1 with values[i] <= x, for nondecreasing values
+	 */
+	private static int cell(double[] values, double x) {
+		int lo = 0;
+		int hi = values.length - 2;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (values[mid] <= x) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+}
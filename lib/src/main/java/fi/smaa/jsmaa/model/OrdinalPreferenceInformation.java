@@ -35,8 +35,7 @@ import fi.smaa.jsmaa.model.xml.CriterionMeasurementPair;
 public class OrdinalPreferenceInformation extends AbstractPreferenceInformation<Rank> {
 	
 	private static final long serialVersionUID = -8011596971699184854L;
-	transient private double[] tmparr;
-	transient private double[] samplearr;
+	transient private RankSampler sampler;
 	
 	private RankSet<Criterion> ranks;
 		
@@ -61,23 +60,27 @@ public class OrdinalPreferenceInformation extends AbstractPreferenceInformation<
 		return rankList;
 	}
 	
-	private void initArrays() {
-		if (tmparr == null) {
-			tmparr = new double[criteria.size()];
-		}
-		if (samplearr == null) {
-			samplearr = new double[criteria.size()];			
+	/**
+	 * Samples weights consistent with the ranks; the sampler for the current ranks is created
+	 * on first use and discarded when the ranks change.
+	 */
+	public void sampleWeights(RandomUtil random, double[] weights) {
+		RankSampler s = sampler;
+		if (s == null || s.getSize() != criteria.size()) {
+			List<Integer> rankList = new ArrayList<Integer>();
+			for (Criterion c : criteria) {
+				rankList.add(ranks.getRank(c).getRank());
+			}
+			s = new RankSampler(rankList);
+			sampler = s;
 		}
+		s.sampleWeights(random, weights);
 	}
 	
-	public double[] sampleWeights(RandomUtil random) {
-		initArrays();
-		List<Integer> rankList = new ArrayList<Integer>();
-		for (Criterion c : criteria) {
-			rankList.add(ranks.getRank(c).getRank());
-		}
-		RankSampler r = new RankSampler(rankList);
-		return r.sampleWeights(random);
+	@Override
+	protected void firePreferencesChanged() {
+		sampler = null;
+		super.firePreferencesChanged();
 	}
 	
 	@Override
@@ -27,6 +27,7 @@ import java.beans.PropertyChangeListener;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Arrays;
 
 import fi.smaa.common.RandomUtil;
 import fi.smaa.jsmaa.simulator.IterationException;
@@ -45,6 +46,8 @@ public final class OutrankingCriterion extends CardinalCriterion {
 	private double preferenceThreshold;
 	private CardinalMeasurement indifMeasurement;
 	private CardinalMeasurement prefMeasurement;
+	private transient OrderedSampler thresholdSampler;
+	private transient double[] thresholds;
 	
 	public OutrankingCriterion(String name, boolean ascending, CardinalMeasurement indifMeasurement,
 			CardinalMeasurement prefMeasurement) {
@@ -56,15 +59,22 @@ public final class OutrankingCriterion extends CardinalCriterion {
 		preferenceThreshold = prefMeasurement.sample(random);
 	}
 		
+	/**
+	 * Samples a threshold pair from the joint distribution of the thresholds conditioned on
+	 * indifference <= preference, see {@link OrderedSampler}.
+	 * 
+	 * @throws IterationException if the distributions admit no valid pair
+	 */
 	public void sampleThresholds(RandomUtil random) throws IterationException {
-		for (int i=0;i<1000;i++) {
-			indifferenceThreshold = indifMeasurement.sample(random);
-			preferenceThreshold = prefMeasurement.sample(random);
-			if (indifferenceThreshold <= preferenceThreshold) {
-				return;
-			}
+		if (thresholdSampler == null) {
+			thresholdSampler = new OrderedSampler(Arrays.asList(indifMeasurement, prefMeasurement));
+			thresholds = new double[2];
 		}
-		throw new IterationException("Cannot sample thresholds for "+getName()+": indifference > preference");
+		if (!thresholdSampler.sample(new RandomUtil[] { random, random }, thresholds)) {
+			throw new IterationException("Cannot sample thresholds for "+getName()+": indifference > preference");
+		}
+		indifferenceThreshold = thresholds[0];
+		preferenceThreshold = thresholds[1];
 	}
 	
 	public double getIndifferenceThreshold() {
@@ -74,6 +84,7 @@ public final class OutrankingCriterion extends CardinalCriterion {
 	public void setIndifMeasurement(CardinalMeasurement indifMeasurement) {
 		CardinalMeasurement oldVal = this.indifMeasurement;
 		this.indifMeasurement = indifMeasurement;
+		thresholdSampler = null;
 		this.indifMeasurement.addPropertyChangeListener(new IndifListener());		
 		firePropertyChange(PROPERTY_INDIF_MEASUREMENT, oldVal, this.indifMeasurement);
 	}
@@ -81,6 +92,7 @@ public final class OutrankingCriterion extends CardinalCriterion {
 	public void setPrefMeasurement(CardinalMeasurement prefMeasurement) {
 		CardinalMeasurement oldVal = this.prefMeasurement;
 		this.prefMeasurement = prefMeasurement;
+		thresholdSampler = null;
 		this.prefMeasurement.addPropertyChangeListener(new PrefListener());
 		firePropertyChange(PROPERTY_PREF_MEASUREMENT, oldVal, this.prefMeasurement);
 	}	
@@ -117,6 +129,7 @@ public final class OutrankingCriterion extends CardinalCriterion {
 		private static final long serialVersionUID = -2064991382287461823L;
 
 		public void propertyChange(PropertyChangeEvent evt) {
+			thresholdSampler = null;
 			firePropertyChange(PROPERTY_PREF_MEASUREMENT, null, getPrefMeasurement());
 		}
 	}
@@ -125,6 +138,7 @@ public final class OutrankingCriterion extends CardinalCriterion {
 		private static final long serialVersionUID = -5202261775299851878L;
 
 		public void propertyChange(PropertyChangeEvent evt) {
+			thresholdSampler = null;
 			firePropertyChange(PROPERTY_INDIF_MEASUREMENT, null, getIndifMeasurement());
 		}
 	}
@@ -145,6 +159,7 @@ public final class OutrankingCriterion extends CardinalCriterion {
 			CardinalCriterion.XML.read(ie, crit);
 			crit.indifMeasurement = ie.get("indifferenceTH");
 			crit.prefMeasurement = ie.get("preferenceTH");			
+			crit.thresholdSampler = null;
 		}
 		@Override
 		public void write(OutrankingCriterion crit, OutputElement oe) throws XMLStreamException {
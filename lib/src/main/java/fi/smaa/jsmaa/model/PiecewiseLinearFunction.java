@@ -0,0 +1,70 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import java.util.List;
+
+/**
+ * Immutable piecewise linear function given by its breakpoints, evaluated by binary search on
+ * primitive arrays. Outside the breakpoints the first and last segments are extrapolated.
+ */
+public final class PiecewiseLinearFunction {
+	private final double[] xs;
+	private final double[] ys;
+	private final double[] slopes;
+	
+	/**
+	 * @param points at least two breakpoints, with ascending x-coordinates
+	 */
+	public PiecewiseLinearFunction(List<Point2D> points) {
+		if (points.size() < 2) {
+			throw new IllegalArgumentException("At least two points required");
+		}
+		final int n = points.size();
+		xs = new double[n];
+		ys = new double[n];
+		slopes = new double[n - 1];
+		for (int i=0;i<n;i++) {
+			xs[i] = points.get(i).getX();
+			ys[i] = points.get(i).getY();
+		}
+		for (int i=0;i<n-1;i++) {
+			slopes[i] = (ys[i+1] - ys[i]) / (xs[i+1] - xs[i]);
+		}
+	}
+	
+	public double evaluate(double val) {
+		// find the first segment whose end is at or beyond val, defaulting to the last one
+		int lo = 0;
+		int hi = slopes.length - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (xs[mid + 1] >= val) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return ys[lo] + (val - xs[lo]) * slopes[lo];
+	}
+}
@@ -31,5 +31,11 @@ import com.jgoodies.binding.beans.Observable;
 import fi.smaa.common.RandomUtil;
 
 public interface PreferenceInformation extends DeepCopiable<PreferenceInformation>, Serializable, Observable {
-	public abstract double[] sampleWeights(RandomUtil random) throws AbortedException;	
+	/**
+	 * Samples a weight vector into the given buffer, without allocating.
+	 * 
+	 * @param weights the buffer, one element per criterion
+	 * @throws IllegalArgumentException if the length of the buffer is not the number of criteria
+	 */
+	public abstract void sampleWeights(RandomUtil random, double[] weights) throws AbortedException;	
 }
@@ -28,31 +28,33 @@ import fi.smaa.common.RandomUtil;
 
 public class RankSampler {
 
-	transient private double[] tmparr;
-	transient private double[] samplearr;
-	private List<Integer> ranks;
+	private final double[] tmparr;
+	private final int[] ranks;
 
 	public RankSampler(List<Integer> ranks) {
-		this.ranks = ranks;
+		this.ranks = new int[ranks.size()];
+		for (int i=0;i<this.ranks.length;i++) {
+			this.ranks[i] = ranks.get(i);
+		}
+		tmparr = new double[this.ranks.length];
 	}
 
-	public double[] sampleWeights(RandomUtil random) {
-		initArrays();
-		random.createSumToOneSorted(tmparr);
-		
-		for (int i=0;i<samplearr.length;i++) {
-			Integer r = ranks.get(i);
-			samplearr[i] = tmparr[tmparr.length - r];
-		}
-		return samplearr;
+	public int getSize() {
+		return ranks.length;
 	}
-	
-	private void initArrays() {
-		if (tmparr == null) {
-			tmparr = new double[ranks.size()];
+
+	/**
+	 * Samples weights consistent with the ranks into the given buffer, without allocating.
+	 * 
+	 * @throws IllegalArgumentException if the length of the buffer is not the number of ranks
+	 */
+	public void sampleWeights(RandomUtil random, double[] weights) {
+		if (weights.length != ranks.length) {
+			throw new IllegalArgumentException("weights.length != number of ranks");
 		}
-		if (samplearr == null) {
-			samplearr = new double[ranks.size()];			
+		random.createSumToOneSorted(tmparr);
+		for (int i=0;i<weights.length;i++) {
+			weights[i] = tmparr[tmparr.length - ranks[i]];
 		}
 	}
 }
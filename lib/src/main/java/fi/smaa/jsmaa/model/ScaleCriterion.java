@@ -41,6 +41,10 @@ public class ScaleCriterion extends CardinalCriterion {
 	public final static String PROPERTY_VALUEPOINTS = "valuePoints";
 	private Interval scale;
 	private List<Point2D> addedPoints = new ArrayList<Point2D>();
+	/**
+	 * Compiled value function, discarded whenever the scale or value points change.
+	 */
+	private transient PiecewiseLinearFunction valueFunction;
 	
 	public ScaleCriterion(String name, Boolean ascending) {
 		super(name, ascending);
@@ -201,6 +205,27 @@ public class ScaleCriterion extends CardinalCriterion {
 		return points;
 	}
 
+	/**
+	 * @return the (immutable) value function defined by {@link #getValuePoints()}
+	 */
+	public PiecewiseLinearFunction getValueFunction() {
+		PiecewiseLinearFunction f = valueFunction;
+		if (f == null) {
+			f = new PiecewiseLinearFunction(getValuePoints());
+			valueFunction = f;
+		}
+		return f;
+	}
+	
+	@Override
+	protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+		if (PROPERTY_SCALE.equals(propertyName) || PROPERTY_VALUEPOINTS.equals(propertyName)
+				|| PROPERTY_ASCENDING.equals(propertyName)) {
+			valueFunction = null;
+		}
+		super.firePropertyChange(propertyName, oldValue, newValue);
+	}
+
 	private Point2D getEndPoint() {
 		if (getAscending()) {
 			return new Point2D(scale.getEnd(), RANGE_MAX);
@@ -0,0 +1,110 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.electre;
+
+/**
+ * Primitive-array implementation of the ELECTRE TRI assignment procedure, for use in the
+ * SMAA-TRI simulation loop. Equivalent to {@link ElectreTri}, but without boxing, hashing or
+ * allocation.
+ * 
+ * Measurements are indexed [criterion][alternative] and category upper bounds (profiles)
+ * [criterion][profile], where profile i is the upper bound of category i. There is one
+ * profile less than there are categories.
+ */
+public final class ElectreTriKernel {
+	
+	private ElectreTriKernel() {
+	}
+
+	/**
+	 * Assigns the alternatives to categories.
+	 * 
+	 * @param measurements criterion values, [criterion][alternative]
+	 * @param profiles category upper bounds, [criterion][profile]
+	 * @param numProfiles the number of profiles (number of categories - 1)
+	 * @param ascending per criterion, whether larger values are preferred
+	 * @param indifThresholds per criterion indifference thresholds
+	 * @param prefThresholds per criterion preference thresholds
+	 * @param weights criteria weights
+	 * @param lambda the cutting level
+	 * @param optimistic true for the optimistic rule, false for the pessimistic one
+	 * @param categories destination array for the category index of each alternative
+	 * @return categories
+	 */
+	public static int[] compute(double[][] measurements, double[][] profiles, int numProfiles,
+			boolean[] ascending, double[] indifThresholds, double[] prefThresholds,
+			double[] weights, double lambda, boolean optimistic, int[] categories) {
+		assert(weights.length == measurements.length);
+		assert(profiles.length == measurements.length);
+		
+		final int numCrit = measurements.length;
+		final int numAlts = categories.length;
+		for (int a=0;a<numAlts;a++) {
+			int cat;
+			if (optimistic) {
+				// from the top upper bound
+				cat = 0;
+				for (int p=numProfiles-1;p>=0;p--) {
+					boolean profOutranks = concordance(measurements, profiles, numCrit, a, p, false,
+							ascending, indifThresholds, prefThresholds, weights) >= lambda;
+					boolean altOutranks = concordance(measurements, profiles, numCrit, a, p, true,
+							ascending, indifThresholds, prefThresholds, weights) >= lambda;
+					if (!(profOutranks && !altOutranks)) {
+						cat = p + 1;
+						break;
+					}
+				}
+			} else {
+				// from the lowest upper bound
+				cat = numProfiles;
+				for (int p=0;p<numProfiles;p++) {
+					if (concordance(measurements, profiles, numCrit, a, p, true,
+							ascending, indifThresholds, prefThresholds, weights) < lambda) {
+						cat = p;
+						break;
+					}
+				}
+			}
+			categories[a] = cat;
+		}
+		return categories;
+	}
+	
+	/**
+	 * Computes the concordance of alternative alt with profile prof if altOutranks, or that of
+	 * profile prof with alternative alt otherwise.
+	 */
+	private static double concordance(double[][] measurements, double[][] profiles, int numCrit,
+			int alt, int prof, boolean altOutranks,
+			boolean[] ascending, double[] indifThresholds, double[] prefThresholds, double[] weights) {
+		double concordance = 0.0;
+		for (int c=0;c<numCrit;c++) {
+			double altVal = measurements[c][alt];
+			double profVal = profiles[c][prof];
+			concordance += weights[c] * (altOutranks ?
+					OutrankingFunction.concordance(ascending[c], indifThresholds[c], prefThresholds[c], altVal, profVal) :
+					OutrankingFunction.concordance(ascending[c], indifThresholds[c], prefThresholds[c], profVal, altVal));
+		}
+		return concordance;
+	}
+}
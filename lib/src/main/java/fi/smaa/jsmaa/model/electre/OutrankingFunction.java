@@ -27,18 +27,27 @@ import fi.smaa.jsmaa.model.OutrankingCriterion;
 public class OutrankingFunction {
 
 	public static double concordance(OutrankingCriterion crit, double outranker, double outranked) {
+		return concordance(crit.getAscending(), crit.getIndifferenceThreshold(), crit.getPreferenceThreshold(),
+				outranker, outranked);
+	}
+	
+	/**
+	 * Computes the partial concordance of outranker with outranked on a criterion given its
+	 * direction and (sampled) thresholds.
+	 */
+	public static double concordance(boolean ascending, double indifThreshold, double prefThreshold,
+			double outranker, double outranked) {
 		double diff = outranked - outranker;
-		if (!crit.getAscending()) {
+		if (!ascending) {
 			diff = 0.0 - diff;
 		}
 		
-		if (diff <= crit.getIndifferenceThreshold()) {
+		if (diff <= indifThreshold) {
 			return 1.0;
-		} else if (diff >= crit.getPreferenceThreshold()) {
+		} else if (diff >= prefThreshold) {
 			return 0.0;
 		} else {	
-			return (crit.getPreferenceThreshold() - diff) / 
-				(crit.getPreferenceThreshold() - crit.getIndifferenceThreshold()); 
+			return (prefThreshold - diff) / (prefThreshold - indifThreshold); 
 		}
-	}		
+	}
 }
@@ -22,24 +22,27 @@
 */
 package fi.smaa.jsmaa.simulator;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 
 import fi.smaa.jsmaa.model.Alternative;
 
 public class Acceptabilities extends ResultsMap {
 	
-	protected int[][] hits;	
+	/**
+	 * Hit counts, [altIndex * size + resIndex].
+	 */
+	protected long[] hits;
+	protected long iterations;
 
 	public Acceptabilities(List<Alternative> alternatives, int size) {
 		super(alternatives, size);
-		hits = new int[alternatives.size()][size];		
+		hits = new long[alternatives.size() * size];
 	}
 
 	public void computeResults() {
-		calculateAcceptabilities();
-	}
-		
-	private void calculateAcceptabilities() {
 		for (Integer altIndex : results.keySet()) {
 			List<Double> vec = results.get(altIndex);
 			for (int i=0;i<vec.size();i++) {
@@ -48,32 +51,106 @@ public class Acceptabilities extends ResultsMap {
 		}
 	}
 
-	private double calculateAcceptability(Integer altIndex, int rank) {
-		int totalIter = 0;
-		for (int i=0;i<hits[altIndex].length;i++) {
-			totalIter += hits[altIndex][i];
+	private double calculateAcceptability(int altIndex, int resIndex) {
+		return (double) hits[altIndex * size + resIndex] / (double) iterations;
+	}
+	
+	/**
+	 * Records an iteration, with a hit for each alternative.
+	 * 
+	 * @param resIndices an array, where [i] = index of the result (e.g. rank) of alternative i
+	 */
+	public void update(int[] resIndices) {
+		assert(resIndices.length * size == hits.length);
+		for (int altIndex=0;altIndex<resIndices.length;altIndex++) {
+			hits[altIndex * size + resIndices[altIndex]]++;
 		}
-		return (double) hits[altIndex][rank] / (double) totalIter;
-	}	
+		iterations++;
+	}
 	
-	public void hit(int altIndex, int resIndex) {
-		hits[altIndex][resIndex]++;
-	}	
+	/**
+	 * Adds the hits of another set of acceptabilities to these.
+	 * 
+	 * @param other acceptabilities of the same dimensions
+	 */
+	public void add(Acceptabilities other) {
+		assert(other.hits.length == hits.length);
+		for (int i=0;i<hits.length;i++) {
+			hits[i] += other.hits[i];
+		}
+		iterations += other.iterations;
+	}
 	
+	/**
+	 * @return the number of iterations recorded
+	 */
+	public long getIterations() {
+		return iterations;
+	}
 	
-	public int getTotalHits(int altIndex) {
-		int total = 0;
-		if (hits.length < 1) {
-			return 0;
+	/**
+	 * Gets the largest standard error of the acceptabilities, each being a binomial proportion.
+	 * 
+	 * @return the standard error, or NaN if there are no hits yet
+	 */
+	public double getMaxStandardError() {
+		if (iterations == 0) {
+			return Double.NaN;
 		}
-		for (int i=0;i<hits[0].length;i++) {
-			total += hits[0][i];
+		final double n = iterations;
+		double max = 0.0;
+		for (int i=0;i<hits.length;i++) {
+			double p = hits[i] / n;
+			max = Math.max(max, Math.sqrt(p * (1.0 - p) / n));
 		}
-		return total;
-	}	
+		return max;
+	}
+	
+	/**
+	 * Writes the acceptabilities into a caller-provided matrix, without allocating.
+	 * 
+	 * @param target a matrix of at least [alternatives][size]; NaNs if there are no iterations yet
+	 */
+	public void getAcceptabilities(double[][] target) {
+		final double n = iterations;
+		for (int altIndex=0;altIndex<alternatives.size();altIndex++) {
+			double[] row = target[altIndex];
+			int offset = altIndex * size;
+			for (int i=0;i<size;i++) {
+				row[i] = hits[offset + i] / n;
+			}
+		}
+	}
+	
+	/**
+	 * @return a snapshot of the acceptabilities, [altIndex][resIndex]
+	 */
+	public double[][] getAcceptabilityMatrix() {
+		double[][] m = new double[alternatives.size()][size];
+		getAcceptabilities(m);
+		return m;
+	}
+	
+	public void writeState(DataOutput out) throws IOException {
+		out.writeLong(iterations);
+		for (int i=0;i<hits.length;i++) {
+			out.writeLong(hits[i]);
+		}
+	}
+	
+	/**
+	 * Reads hits written by {@link #writeState(DataOutput)} for acceptabilities of the same dimensions.
+	 */
+	public void readState(DataInput in) throws IOException {
+		iterations = in.readLong();
+		for (int i=0;i<hits.length;i++) {
+			hits[i] = in.readLong();
+		}
+		computeResults();
+	}
 	
-	public int getHits(int altIndex, int resIndex) {
-		return hits[altIndex][resIndex];
+	public long getHits(int altIndex, int resIndex) {
+		return hits[altIndex * size + resIndex];
 	}	
 
 }
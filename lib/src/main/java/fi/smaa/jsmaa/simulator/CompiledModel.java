@@ -0,0 +1,393 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.util.List;
+
+import org.drugis.common.stat.Statistics;
+
+import fi.smaa.common.BetaSampler;
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.BaselineGaussianMeasurement;
+import fi.smaa.jsmaa.model.BetaMeasurement;
+import fi.smaa.jsmaa.model.CardinalMeasurement;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.FullJointMeasurements;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.LogNormalMeasurement;
+import fi.smaa.jsmaa.model.LogitNormalMeasurement;
+import fi.smaa.jsmaa.model.Measurement;
+import fi.smaa.jsmaa.model.OrdinalCriterion;
+import fi.smaa.jsmaa.model.PerCriterionMeasurements;
+import fi.smaa.jsmaa.model.PiecewiseLinearFunction;
+import fi.smaa.jsmaa.model.Rank;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+
+/**
+ * Snapshot of an SMAAModel in flat primitive arrays, for use in the simulation loop: criterion
+ * type codes, the breakpoints of piecewise linear value functions and a sampler descriptor for
+ * each (criterion, alternative) cell. Sampling and evaluating partial values do not allocate.
+ * 
+ * Cells with measurements that have no compiled form (e.g. relative or discrete measurements)
+ * are sampled through the measurement itself, and full joint measurements other than an
+ * ImpactMatrix are sampled as a whole. Random numbers are drawn in the same order as
+ * {@link FullJointMeasurements#sample(RandomUtil, double[][])}, so results are identical.
+ * 
+ * With {@link #useSubstreams(RandomUtil)}, every cell (or ordinal criterion, or baseline) instead
+ * samples from its own substream keyed by the names of its criterion and alternative, so that
+ * editing one measurement leaves the samples of all others unchanged.
+ * 
+ * The snapshot does not follow later changes to the model.
+ */
+public final class CompiledModel {
+	
+	public static final int CRIT_SCALE = 0;
+	public static final int CRIT_ORDINAL = 1;
+	public static final int CRIT_OTHER = 2;
+	
+	static final int CELL_GENERIC = 0;
+	static final int CELL_EXACT = 1;
+	static final int CELL_INTERVAL = 2;
+	static final int CELL_GAUSSIAN = 3;
+	static final int CELL_LOGNORMAL = 4;
+	static final int CELL_LOGITNORMAL = 5;
+	static final int CELL_BETA = 6;
+	
+	private static final int NUM_PARAMS = 2;
+	
+	private final int numCrit;
+	private final int numAlts;
+	private final String[] critNames;
+	private final String[] altNames;
+	private final int[] critTypes;
+	private final PiecewiseLinearFunction[] valueFunctions;
+	
+	private final FullJointMeasurements jointMeasurements;
+	private final boolean independent;
+	private final BaselineGaussianMeasurement[] baselines;
+	private final int[][] cellTypes;
+	private final double[][] cellParams;
+	private final CardinalMeasurement[][] genericCells;
+	private final BetaSampler[][] betaSamplers;
+	private final int[][] ranks;
+	private final double[][] rankBuffers;
+	
+	private RandomUtil jointRandom;
+	private RandomUtil[] criterionRandom;
+	private RandomUtil[] baselineRandom;
+	private RandomUtil[][] cellRandom;
+
+	private CompiledModel(SMAAModel model) {
+		List<Criterion> crit = model.getCriteria();
+		List<Alternative> alts = model.getAlternatives();
+		numCrit = crit.size();
+		numAlts = alts.size();
+		critNames = new String[numCrit];
+		altNames = new String[numAlts];
+		for (int a=0;a<numAlts;a++) {
+			altNames[a] = alts.get(a).getName();
+		}
+		critTypes = new int[numCrit];
+		valueFunctions = new PiecewiseLinearFunction[numCrit];
+		for (int c=0;c<numCrit;c++) {
+			critNames[c] = crit.get(c).getName();
+			compileCriterion(c, crit.get(c));
+		}
+
+		jointMeasurements = model.getMeasurements();
+		independent = jointMeasurements instanceof ImpactMatrix;
+		baselines = new BaselineGaussianMeasurement[numCrit];
+		cellTypes = new int[numCrit][numAlts];
+		cellParams = new double[numCrit][numAlts * NUM_PARAMS];
+		genericCells = new CardinalMeasurement[numCrit][numAlts];
+		betaSamplers = new BetaSampler[numCrit][numAlts];
+		ranks = new int[numCrit][];
+		rankBuffers = new double[numCrit][];
+		if (independent) {
+			ImpactMatrix m = (ImpactMatrix) jointMeasurements;
+			for (int c=0;c<numCrit;c++) {
+				baselines[c] = m.getBaseline(crit.get(c));
+				if (crit.get(c) instanceof OrdinalCriterion) {
+					ranks[c] = new int[numAlts];
+					rankBuffers[c] = new double[numAlts];
+					for (int a=0;a<numAlts;a++) {
+						ranks[c][a] = ((Rank) m.getMeasurement(crit.get(c), alts.get(a))).getRank();
+					}
+				} else {
+					for (int a=0;a<numAlts;a++) {
+						compileCell(c, a, m.getMeasurement(crit.get(c), alts.get(a)));
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Creates a snapshot of the model's current criteria and measurements.
+	 */
+	public static CompiledModel compile(SMAAModel model) {
+		return new CompiledModel(model);
+	}
+
+	private void compileCriterion(int c, Criterion crit) {
+		if (crit instanceof ScaleCriterion) {
+			critTypes[c] = CRIT_SCALE;
+			valueFunctions[c] = ((ScaleCriterion) crit).getValueFunction();
+		} else if (crit instanceof OrdinalCriterion) {
+			critTypes[c] = CRIT_ORDINAL;
+		} else {
+			critTypes[c] = CRIT_OTHER;
+		}
+	}
+	
+	private void compileCell(int c, int a, Measurement m) {
+		Class<?> cls = m.getClass();
+		int p = a * NUM_PARAMS;
+		double[] params = cellParams[c];
+		if (cls == ExactMeasurement.class) {
+			cellTypes[c][a] = CELL_EXACT;
+			params[p] = ((ExactMeasurement) m).getValue();
+		} else if (cls == Interval.class) {
+			cellTypes[c][a] = CELL_INTERVAL;
+			params[p] = ((Interval) m).getStart();
+			params[p+1] = ((Interval) m).getEnd() - ((Interval) m).getStart();
+		} else if (cls == GaussianMeasurement.class || cls == LogNormalMeasurement.class || cls == LogitNormalMeasurement.class) {
+			cellTypes[c][a] = cls == GaussianMeasurement.class ? CELL_GAUSSIAN :
+				(cls == LogNormalMeasurement.class ? CELL_LOGNORMAL : CELL_LOGITNORMAL);
+			params[p] = ((GaussianMeasurement) m).getMean();
+			params[p+1] = ((GaussianMeasurement) m).getStDev();
+		} else if (cls == BetaMeasurement.class) {
+			cellTypes[c][a] = CELL_BETA;
+			betaSamplers[c][a] = ((BetaMeasurement) m).getSampler();
+		} else {
+			cellTypes[c][a] = CELL_GENERIC;
+			genericCells[c][a] = (CardinalMeasurement) m;
+		}
+	}
+	
+	/**
+	 * Makes sampling draw from keyed substreams of the given stream (common random numbers)
+	 * instead of from the stream passed to {@link #sample(RandomUtil, double[][])}. The
+	 * substreams start afresh on every call.
+	 */
+	public void useSubstreams(RandomUtil random) {
+		jointRandom = random.substream(RandomUtil.key("measurements"));
+		criterionRandom = new RandomUtil[numCrit];
+		baselineRandom = new RandomUtil[numCrit];
+		cellRandom = new RandomUtil[numCrit][numAlts];
+		for (int c=0;c<numCrit;c++) {
+			criterionRandom[c] = random.substream(RandomUtil.key("criterion", critNames[c]));
+			baselineRandom[c] = random.substream(RandomUtil.key("baseline", critNames[c]));
+			if (independent && ranks[c] == null) {
+				for (int a=0;a<numAlts;a++) {
+					cellRandom[c][a] = random.substream(RandomUtil.key("measurement", critNames[c], altNames[a]));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Adds the substreams created by {@link #useSubstreams(RandomUtil)}, if any, to the list.
+	 */
+	public void collectStreams(List<RandomUtil> streams) {
+		if (cellRandom == null) {
+			return;
+		}
+		streams.add(jointRandom);
+		for (int c=0;c<numCrit;c++) {
+			streams.add(criterionRandom[c]);
+			streams.add(baselineRandom[c]);
+			for (int a=0;a<numAlts;a++) {
+				if (cellRandom[c][a] != null) {
+					streams.add(cellRandom[c][a]);
+				}
+			}
+		}
+	}
+	
+	public int getNumCriteria() {
+		return numCrit;
+	}
+	
+	public int getNumAlternatives() {
+		return numAlts;
+	}
+	
+	/**
+	 * @return one of CRIT_SCALE, CRIT_ORDINAL or CRIT_OTHER
+	 */
+	public int getCriterionType(int critIndex) {
+		return critTypes[critIndex];
+	}
+	
+	/**
+	 * Samples all measurements.
+	 * 
+	 * @param target criteria x alternatives
+	 */
+	public void sample(RandomUtil random, double[][] target) {
+		if (cellRandom != null) {
+			sampleSubstreams(target);
+			return;
+		}
+		if (!independent) {
+			jointMeasurements.sample(random, target);
+			return;
+		}
+		for (int c=0;c<numCrit;c++) {
+			if (baselines[c] != null) {
+				baselines[c].update(random);
+			}
+		}
+		for (int c=0;c<numCrit;c++) {
+			if (ranks[c] != null) {
+				sampleRanks(random, c, target[c]);
+			} else {
+				sampleCriterion(random, c, target[c]);
+			}
+		}
+	}
+	
+	/**
+	 * @return whether the criteria can be sampled separately, i.e. whether {@link #sampleCriterion(int, double[][])} is supported
+	 */
+	public boolean isSeparable() {
+		return independent || jointMeasurements instanceof PerCriterionMeasurements;
+	}
+	
+	/**
+	 * Samples the measurements of a single criterion from its substreams, giving the same
+	 * values as that criterion's row of {@link #sample(RandomUtil, double[][])}.
+	 * 
+	 * @param target criteria x alternatives; only row critIndex is written
+	 * @throws IllegalStateException if not using substreams or the model is not separable
+	 */
+	public void sampleCriterion(int critIndex, double[][] target) {
+		if (cellRandom == null || !isSeparable()) {
+			throw new IllegalStateException("Criteria can only be sampled separately from substreams of a separable model");
+		}
+		if (!independent) {
+			PerCriterionMeasurements m = (PerCriterionMeasurements) jointMeasurements;
+			m.getCriterionMeasurement(m.getCriteria().get(critIndex)).sample(criterionRandom[critIndex], target, critIndex);
+		} else {
+			if (baselines[critIndex] != null) {
+				baselines[critIndex].update(baselineRandom[critIndex]);
+			}
+			if (ranks[critIndex] != null) {
+				sampleRanks(criterionRandom[critIndex], critIndex, target[critIndex]);
+			} else {
+				sampleCells(critIndex, target[critIndex]);
+			}
+		}
+	}
+	
+	private void sampleSubstreams(double[][] target) {
+		if (jointMeasurements instanceof PerCriterionMeasurements) {
+			PerCriterionMeasurements m = (PerCriterionMeasurements) jointMeasurements;
+			for (int c=0;c<numCrit;c++) {
+				m.getCriterionMeasurement(m.getCriteria().get(c)).sample(criterionRandom[c], target, c);
+			}
+			return;
+		}
+		if (!independent) {
+			jointMeasurements.sample(jointRandom, target);
+			return;
+		}
+		for (int c=0;c<numCrit;c++) {
+			if (baselines[c] != null) {
+				baselines[c].update(baselineRandom[c]);
+			}
+		}
+		for (int c=0;c<numCrit;c++) {
+			if (ranks[c] != null) {
+				sampleRanks(criterionRandom[c], c, target[c]);
+			} else {
+				sampleCells(c, target[c]);
+			}
+		}
+	}
+
+	private void sampleRanks(RandomUtil random, int c, double[] target) {
+		double[] tmp = rankBuffers[c];
+		random.createSumToOneSorted(tmp);
+		for (int a=0;a<numAlts;a++) {
+			target[a] = tmp[tmp.length - ranks[c][a]];
+		}
+	}
+
+	private void sampleCriterion(RandomUtil random, int c, double[] target) {
+		for (int a=0;a<numAlts;a++) {
+			target[a] = sampleCell(random, c, a);
+		}
+	}
+	
+	private void sampleCells(int c, double[] target) {
+		for (int a=0;a<numAlts;a++) {
+			target[a] = sampleCell(cellRandom[c][a], c, a);
+		}
+	}
+
+	private double sampleCell(RandomUtil random, int c, int a) {
+		double[] params = cellParams[c];
+		int p = a * NUM_PARAMS;
+		switch (cellTypes[c][a]) {
+		case CELL_EXACT:
+			return params[p];
+		case CELL_INTERVAL:
+			return params[p] + random.createUnif01() * params[p+1];
+		case CELL_GAUSSIAN:
+			return random.createGaussian(params[p], params[p+1]);
+		case CELL_LOGNORMAL:
+			return Math.exp(random.createGaussian(params[p], params[p+1]));
+		case CELL_LOGITNORMAL:
+			return Statistics.ilogit(random.createGaussian(params[p], params[p+1]));
+		case CELL_BETA:
+			return random.createBeta(betaSamplers[c][a]);
+		default:
+			return genericCells[c][a].sample(random);
+		}
+	}
+
+	/**
+	 * Computes the partial value of a sampled measurement: the value function for scale
+	 * criteria, and the measurement itself for ordinal criteria (which are sampled directly
+	 * as partial values).
+	 * 
+	 * @throws IllegalArgumentException if the criterion is of another type
+	 */
+	public double partialValue(int critIndex, double val) {
+		switch (critTypes[critIndex]) {
+		case CRIT_SCALE:
+			return valueFunctions[critIndex].evaluate(val);
+		case CRIT_ORDINAL:
+			return val;
+		default:
+			throw new IllegalArgumentException("Unknown criterion type");
+		}
+	}
+}
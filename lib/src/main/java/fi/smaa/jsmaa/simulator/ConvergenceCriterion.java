@@ -0,0 +1,82 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+/**
+ * Stopping rule for a simulation phase: the phase stops once the largest standard error of
+ * its estimates is below the tolerance, but not before the minimum and not after the maximum
+ * number of iterations. A criterion with equal minimum and maximum runs a fixed number of
+ * iterations.
+ */
+public class ConvergenceCriterion {
+	
+	private final double tolerance;
+	private final int minIterations;
+	private final int maxIterations;
+
+	/**
+	 * @param tolerance the maximum standard error, > 0
+	 * @param minIterations the minimum number of iterations
+	 * @param maxIterations the maximum number of iterations, >= minIterations
+	 */
+	public ConvergenceCriterion(double tolerance, int minIterations, int maxIterations) {
+		if (minIterations > maxIterations || minIterations < 0) {
+			throw new IllegalArgumentException("invalid iteration bounds");
+		}
+		this.tolerance = tolerance;
+		this.minIterations = minIterations;
+		this.maxIterations = maxIterations;
+	}
+	
+	/**
+	 * Creates a criterion that runs exactly the given number of iterations.
+	 */
+	public static ConvergenceCriterion fixed(int iterations) {
+		return new ConvergenceCriterion(0.0, iterations, iterations);
+	}
+	
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	public int getMinIterations() {
+		return minIterations;
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+	
+	public boolean isFixed() {
+		return minIterations == maxIterations;
+	}
+	
+	/**
+	 * @param iteration the number of iterations done
+	 * @param error the largest standard error of the estimates
+	 * @return true if the simulation can stop
+	 */
+	public boolean isSatisfied(int iteration, double error) {
+		return iteration >= maxIterations || (iteration >= minIterations && error < tolerance);
+	}
+}
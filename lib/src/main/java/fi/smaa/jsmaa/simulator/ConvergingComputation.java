@@ -0,0 +1,118 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.drugis.common.threading.AbstractIterativeComputation;
+
+/**
+ * Iterative computation that stops early once its {@link ConvergenceCriterion} is satisfied.
+ * The error is only evaluated every checkInterval steps, as computing it may be costly.
+ */
+abstract class ConvergingComputation extends AbstractIterativeComputation {
+
+	private final ConvergenceCriterion criterion;
+	private final int checkInterval;
+	private int steps;
+	private int resumedSteps;
+	private int iterations;
+	private boolean converged;
+
+	/**
+	 * @param criterion the stopping rule
+	 * @param maxSteps the number of steps needed to reach the maximum number of iterations
+	 * @param checkInterval the number of steps between convergence checks
+	 */
+	public ConvergingComputation(ConvergenceCriterion criterion, int maxSteps, int checkInterval) {
+		super(maxSteps);
+		this.criterion = criterion;
+		this.checkInterval = checkInterval;
+	}
+
+	@Override
+	public final void doStep() {
+		iterations += doIterations();
+		steps++;
+		if (!criterion.isFixed() && iterations >= criterion.getMinIterations()
+				&& steps % checkInterval == 0) {
+			converged = criterion.isSatisfied(iterations, getError());
+		}
+		stepDone();
+	}
+	
+	/**
+	 * Called at the end of every step, after the convergence check.
+	 */
+	protected void stepDone() {
+	}
+	
+	@Override
+	public int getTotalIterations() {
+		return converged ? getIteration() : super.getTotalIterations() - resumedSteps;
+	}
+	
+	/**
+	 * Writes the progress of the computation: the steps and iterations done and whether it converged.
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		out.writeInt(steps);
+		out.writeInt(iterations);
+		out.writeBoolean(converged);
+	}
+	
+	/**
+	 * Continues from the progress written by {@link #writeState(DataOutput)}, so that only the
+	 * remaining steps are executed. Must be called before the computation starts.
+	 */
+	public void readState(DataInput in) throws IOException {
+		steps = in.readInt();
+		iterations = in.readInt();
+		converged = in.readBoolean();
+		resumedSteps = steps;
+		if (steps < 0 || iterations < 0 || steps > super.getTotalIterations()) {
+			throw new IOException("Invalid computation state");
+		}
+	}
+	
+	/**
+	 * @return whether the computation stopped because the estimates converged.
+	 */
+	public boolean hasConverged() {
+		return converged;
+	}
+	
+	/**
+	 * Performs one step of the computation.
+	 * 
+	 * @return the number of simulation iterations performed
+	 */
+	protected abstract int doIterations();
+
+	/**
+	 * @return the current largest standard error of the estimates
+	 */
+	protected abstract double getError();
+}
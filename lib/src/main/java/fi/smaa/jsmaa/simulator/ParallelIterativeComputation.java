@@ -0,0 +1,200 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iterative computation that divides its iterations over a number of workers running in a
+ * thread pool. Each step runs one block of iterations on every worker and then merges the
+ * workers' partial results, so that progress is reported, and convergence checked, at block
+ * granularity.
+ * 
+ * Every worker executes a fixed share of the iterations, so if each worker owns its own
+ * random number stream the outcome only depends on the seed and the number of workers.
+ */
+abstract class ParallelIterativeComputation extends ConvergingComputation {
+	
+	private final int numWorkers;
+	private final int blockSize;
+	private final int[] remaining;
+	private int blockIterations;
+	private ThreadPoolExecutor executor;
+
+	/**
+	 * @param criterion the stopping rule, its maximum being the total number of iterations over all workers
+	 * @param numWorkers the number of workers, >= 1
+	 * @param blockSize the number of iterations each worker executes per step, >= 1
+	 */
+	public ParallelIterativeComputation(ConvergenceCriterion criterion, int numWorkers, int blockSize) {
+		super(criterion, numBlocks(criterion.getMaxIterations(), numWorkers, blockSize), 1);
+		this.numWorkers = numWorkers;
+		this.blockSize = blockSize;
+		this.remaining = shares(criterion.getMaxIterations(), numWorkers);
+	}
+	
+	/**
+	 * Divides the iterations as evenly as possible over the workers.
+	 * 
+	 * @return the number of iterations for each worker
+	 */
+	static int[] shares(int iterations, int numWorkers) {
+		assert(numWorkers > 0);
+		int[] shares = new int[numWorkers];
+		for (int i=0;i<numWorkers;i++) {
+			shares[i] = iterations / numWorkers + (i < iterations % numWorkers ? 1 : 0);
+		}
+		return shares;
+	}
+
+	private static int numBlocks(int iterations, int numWorkers, int blockSize) {
+		assert(blockSize > 0);
+		int maxShare = shares(iterations, numWorkers)[0];
+		return (maxShare + blockSize - 1) / blockSize;
+	}
+
+	@Override
+	public void initialize() {
+		executor = new ThreadPoolExecutor(numWorkers, numWorkers, 1L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "SMAA worker");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	protected int doIterations() {
+		int total = 0;
+		List<Callable<Object>> blocks = new ArrayList<Callable<Object>>();
+		for (int i=0;i<numWorkers;i++) {
+			final int worker = i;
+			final int n = Math.min(blockSize, remaining[worker]);
+			remaining[worker] -= n;
+			total += n;
+			blocks.add(new Callable<Object>() {
+				public Object call() {
+					for (int j=0;j<n;j++) {
+						iterate(worker);
+					}
+					return null;
+				}
+			});
+		}
+		waitFor(invokeAll(blocks));
+		merge();
+		blockIterations = total;
+		return total;
+	}
+	
+	/**
+	 * @return the number of iterations of the last step, over all workers
+	 */
+	public int getBlockIterations() {
+		return blockIterations;
+	}
+	
+	/**
+	 * Also writes the iterations remaining for each worker.
+	 */
+	@Override
+	public void writeState(DataOutput out) throws IOException {
+		super.writeState(out);
+		for (int r : remaining) {
+			out.writeInt(r);
+		}
+	}
+	
+	@Override
+	public void readState(DataInput in) throws IOException {
+		super.readState(in);
+		for (int i=0;i<numWorkers;i++) {
+			int r = in.readInt();
+			if (r < 0 || r > remaining[i]) {
+				throw new IOException("Invalid computation state");
+			}
+			remaining[i] = r;
+		}
+	}
+
+	@Override
+	public void finish() {
+		executor.shutdown();
+	}
+
+	private List<Future<Object>> invokeAll(List<Callable<Object>> blocks) {
+		try {
+			return executor.invokeAll(blocks);
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new IterationException("Interrupted while waiting for workers");
+		}
+	}
+
+	private void waitFor(List<Future<Object>> futures) {
+		for (Future<Object> f : futures) {
+			try {
+				f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IterationException("Interrupted while waiting for workers");
+			} catch (ExecutionException e) {
+				executor.shutdown();
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				} else if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw new IterationException(e.getCause().toString());
+			}
+		}
+	}
+
+	/**
+	 * Performs a single iteration on the given worker. Called from the worker's thread.
+	 * 
+	 * @param worker index of the worker
+	 */
+	protected abstract void iterate(int worker);
+
+	/**
+	 * Merges the partial results of all workers. Called after every block, when all workers are idle.
+	 */
+	protected abstract void merge();
+}
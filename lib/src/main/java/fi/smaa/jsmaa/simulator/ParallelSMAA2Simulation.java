@@ -0,0 +1,273 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drugis.common.threading.IterativeTask;
+import org.drugis.common.threading.Task;
+import org.drugis.common.threading.activity.ActivityModel;
+import org.drugis.common.threading.activity.ActivityTask;
+import org.drugis.common.threading.activity.DirectTransition;
+import org.drugis.common.threading.activity.Transition;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.common.ValueRanker.TiePolicy;
+import fi.smaa.jsmaa.model.SMAAModel;
+
+/**
+ * SMAA-2 simulation that distributes the iterations over a pool of workers. Each worker
+ * simulates its own copy of the model with its own random number stream, split off from
+ * the given one, and the workers' hit counts and central weight sums are merged into the
+ * results of this simulation after every block of {@link SMAASimulation#REPORTING_INTERVAL}
+ * iterations. Results are reproducible for a fixed seed and number of workers.
+ * Checkpoints hold the state of every worker and are written after a merge, once at
+ * least the checkpoint interval of iterations has been done over all workers.
+ */
+public class ParallelSMAA2Simulation extends SMAA2Simulation {
+
+	private final SMAA2Simulation[] workers;
+	private final int blockSize;
+	private SampleWriter sampleWriter;
+	private SampleBuffer[] sampleBuffers;
+	private ParallelIterativeComputation rankAccBlocks;
+	private ParallelIterativeComputation confFacBlocks;
+	private double[][] centralWeights;
+	private ActivityTask activityTask;
+
+	public ParallelSMAA2Simulation(SMAAModel amodel, RandomUtil random, int iterations, int numWorkers) {
+		this(amodel, random, ConvergenceCriterion.fixed(iterations), numWorkers);
+	}
+
+	/**
+	 * Creates a simulation that runs until the estimates converge; convergence is checked
+	 * after every merge.
+	 */
+	public ParallelSMAA2Simulation(SMAAModel amodel, RandomUtil random, ConvergenceCriterion convergence, int numWorkers) {
+		super(amodel, random, convergence);
+		blockSize = REPORTING_INTERVAL;
+		int[] shares = ParallelIterativeComputation.shares(convergence.getMaxIterations(), numWorkers);
+		workers = new SMAA2Simulation[numWorkers];
+		for (int i=0;i<numWorkers;i++) {
+			workers[i] = new SMAA2Simulation(model.deepCopy(), random.split(), shares[i]);
+		}
+
+		rankAccBlocks = new ParallelIterativeComputation(convergence, numWorkers, blockSize) {
+			@Override
+			protected void iterate(int worker) {
+				workers[worker].rankAccIteration();
+			}
+			@Override
+			protected void merge() {
+				mergeWorkerResults();
+			}
+			@Override
+			protected double getError() {
+				return Math.max(getResults().getMaxRankAcceptabilityError(), getResults().getMaxCentralWeightError());
+			}
+			@Override
+			protected void stepDone() {
+				checkpointIfDue(getBlockIterations());
+			}
+		};
+		IterativeTask rankAccComputation = new IterativeTask(rankAccBlocks, "RA & CW computation");
+		rankAccComputation.setReportingInterval(1);
+
+		confFacBlocks = new ParallelIterativeComputation(convergence, numWorkers, blockSize) {
+			@Override
+			public void initialize() {
+				super.initialize();
+				centralWeights = getResults().getCentralWeightMatrix();
+			}
+			@Override
+			protected void iterate(int worker) {
+				workers[worker].confFacIteration(centralWeights);
+			}
+			@Override
+			protected void merge() {
+				mergeWorkerResults();
+			}
+			@Override
+			protected double getError() {
+				return getResults().getMaxConfidenceFactorError();
+			}
+			@Override
+			protected void stepDone() {
+				checkpointIfDue(getBlockIterations());
+			}
+		};
+		IterativeTask confFacComputation = new IterativeTask(confFacBlocks, "CF computation");
+		confFacComputation.setReportingInterval(1);
+
+		List<Transition> transitions = new ArrayList<Transition>();
+		transitions.add(new DirectTransition(rankAccComputation, confFacComputation));
+		activityTask = new ActivityTask(
+				new ActivityModel(rankAccComputation, confFacComputation, transitions), 
+				"SMAA-2");
+	}
+	
+	public int getNumWorkers() {
+		return workers.length;
+	}
+
+	private void mergeWorkerResults() {
+		if (sampleBuffers != null) {
+			writeSamples();
+		}
+		List<SMAA2Results> res = new ArrayList<SMAA2Results>(workers.length);
+		for (SMAA2Simulation w : workers) {
+			res.add(w.getResults());
+		}
+		getResults().merge(res);
+		for (SMAA2Simulation w : workers) {
+			w.getResults().reset();
+		}
+	}
+
+	@Override
+	public void setCommonRandomNumbers(boolean commonRandomNumbers) {
+		super.setCommonRandomNumbers(commonRandomNumbers);
+		for (SMAA2Simulation w : workers) {
+			w.setCommonRandomNumbers(commonRandomNumbers);
+		}
+	}
+
+	@Override
+	public void setTiePolicy(TiePolicy tiePolicy) {
+		super.setTiePolicy(tiePolicy);
+		for (SMAA2Simulation w : workers) {
+			w.setTiePolicy(tiePolicy);
+		}
+	}
+
+	/**
+	 * Each worker retains its own samples.
+	 */
+	@Override
+	public void setIncremental(boolean incremental) {
+		super.setIncremental(incremental);
+		for (SMAA2Simulation w : workers) {
+			w.setIncremental(incremental);
+		}
+	}
+
+	/**
+	 * Each worker resamples the criterion on a fresh copy of the model and replays its own
+	 * samples; the central weights for the confidence factors are computed from the merged
+	 * rank acceptability phase, as in a full run.
+	 */
+	@Override
+	public void resimulateCriterion(int critIndex) {
+		if (!getIncremental()) {
+			throw new IllegalStateException("Simulation is not incremental");
+		}
+		for (SMAA2Simulation w : workers) {
+			w.model = model.deepCopy();
+			w.resampleCriterion(critIndex);
+			w.replayRankAcceptabilities();
+		}
+		getResults().reset();
+		mergeWorkerResults();
+		double[][] cws = getResults().getCentralWeightMatrix();
+		for (SMAA2Simulation w : workers) {
+			w.replayConfidenceFactors(cws);
+		}
+		mergeWorkerResults();
+	}
+
+	private void writeSamples() throws IterationException {
+		try {
+			for (SampleBuffer b : sampleBuffers) {
+				b.writeTo(sampleWriter);
+			}
+		} catch (IOException e) {
+			throw new IterationException("Cannot write samples: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * The workers buffer their samples, which are written at every merge, in the order of the
+	 * workers. The records of a block are therefore grouped by worker, and the file is
+	 * reproducible for a fixed seed and number of workers.
+	 */
+	@Override
+	public void setSampleWriter(SampleWriter writer) {
+		super.setSampleWriter(writer);
+		sampleWriter = writer;
+		sampleBuffers = writer == null ? null : new SampleBuffer[workers.length];
+		for (int i=0;i<workers.length;i++) {
+			if (writer != null) {
+				sampleBuffers[i] = new SampleBuffer(writer.getNumCriteria(), writer.getNumAlternatives(), blockSize);
+			}
+			workers[i].setSampleBuffer(writer == null ? null : sampleBuffers[i]);
+		}
+	}
+	
+	/**
+	 * Writes the progress and merged results, and the state of every worker.
+	 */
+	@Override
+	protected void writeState(DataOutput out) throws IOException {
+		rankAccBlocks.writeState(out);
+		confFacBlocks.writeState(out);
+		getResults().writeState(out);
+		for (SMAA2Simulation w : workers) {
+			w.writeState(out);
+			w.writeSamplerState(out);
+		}
+	}
+	
+	/**
+	 * @throws IllegalStateException in incremental mode, as the retained samples are not checkpointed
+	 */
+	@Override
+	protected void readState(DataInput in) throws IOException {
+		if (getIncremental()) {
+			throw new IllegalStateException("Incremental simulation cannot be resumed");
+		}
+		rankAccBlocks.readState(in);
+		confFacBlocks.readState(in);
+		getResults().readState(in);
+		for (SMAA2Simulation w : workers) {
+			w.readState(in);
+			w.readSamplerState(in);
+		}
+	}
+	
+	@Override
+	protected void collectStreams(List<RandomUtil> streams) {
+		super.collectStreams(streams);
+		for (SMAA2Simulation w : workers) {
+			w.collectStreams(streams);
+		}
+	}
+
+	@Override
+	public Task getTask() {
+		return activityTask;
+	}
+}
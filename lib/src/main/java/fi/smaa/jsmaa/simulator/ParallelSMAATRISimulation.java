@@ -0,0 +1,148 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drugis.common.threading.IterativeTask;
+import org.drugis.common.threading.Task;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+
+/**
+ * SMAA-TRI simulation that distributes the iterations over a pool of workers. Each worker
+ * simulates its own copy of the model, and thus samples its own thresholds, profiles and
+ * lambda, with a random number stream split off the given one. The workers' category hits
+ * are merged into the results of this simulation after every block of
+ * {@link SMAASimulation#REPORTING_INTERVAL} iterations. Checkpoints hold the state of
+ * every worker and are written after a merge, once at least the checkpoint interval of
+ * iterations has been done over all workers.
+ */
+public class ParallelSMAATRISimulation extends SMAATRISimulation {
+
+	private final SMAATRISimulation[] workers;
+	private ParallelIterativeComputation catAccBlocks;
+	private IterativeTask catAccComputation;
+
+	public ParallelSMAATRISimulation(SMAATRIModel triModel, RandomUtil random, int iterations, int numWorkers) {
+		this(triModel, random, ConvergenceCriterion.fixed(iterations), numWorkers);
+	}
+
+	/**
+	 * Creates a simulation that runs until the estimates converge; convergence is checked
+	 * after every merge.
+	 */
+	public ParallelSMAATRISimulation(SMAATRIModel triModel, RandomUtil random, ConvergenceCriterion convergence, int numWorkers) {
+		super(triModel, random, convergence);
+		int[] shares = ParallelIterativeComputation.shares(convergence.getMaxIterations(), numWorkers);
+		workers = new SMAATRISimulation[numWorkers];
+		for (int i=0;i<numWorkers;i++) {
+			workers[i] = new SMAATRISimulation(model.deepCopy(), random.split(), shares[i]);
+		}
+
+		catAccBlocks = new ParallelIterativeComputation(convergence, numWorkers, REPORTING_INTERVAL) {
+			@Override
+			protected void iterate(int worker) {
+				workers[worker].catAccIteration();
+			}
+			@Override
+			protected void merge() {
+				mergeWorkerResults();
+			}
+			@Override
+			protected double getError() {
+				return getResults().getMaxCategoryAcceptabilityError();
+			}
+			@Override
+			protected void stepDone() {
+				checkpointIfDue(getBlockIterations());
+			}
+		};
+		catAccComputation = new IterativeTask(catAccBlocks, "CatAcc computation");
+		catAccComputation.setReportingInterval(1);
+	}
+	
+	public int getNumWorkers() {
+		return workers.length;
+	}
+
+	private void mergeWorkerResults() {
+		List<SMAATRIResults> res = new ArrayList<SMAATRIResults>(workers.length);
+		for (SMAATRISimulation w : workers) {
+			res.add(w.getResults());
+		}
+		getResults().merge(res);
+		for (SMAATRISimulation w : workers) {
+			w.getResults().reset();
+		}
+	}
+
+	@Override
+	public void setCommonRandomNumbers(boolean commonRandomNumbers) {
+		super.setCommonRandomNumbers(commonRandomNumbers);
+		for (SMAATRISimulation w : workers) {
+			w.setCommonRandomNumbers(commonRandomNumbers);
+		}
+	}
+
+	/**
+	 * Writes the progress and merged results, and the state of every worker.
+	 */
+	@Override
+	protected void writeState(DataOutput out) throws IOException {
+		catAccBlocks.writeState(out);
+		getResults().writeState(out);
+		for (SMAATRISimulation w : workers) {
+			w.writeState(out);
+			w.writeSamplerState(out);
+		}
+	}
+	
+	@Override
+	protected void readState(DataInput in) throws IOException {
+		catAccBlocks.readState(in);
+		getResults().readState(in);
+		for (SMAATRISimulation w : workers) {
+			w.readState(in);
+			w.readSamplerState(in);
+		}
+	}
+	
+	@Override
+	protected void collectStreams(List<RandomUtil> streams) {
+		super.collectStreams(streams);
+		for (SMAATRISimulation w : workers) {
+			w.collectStreams(streams);
+		}
+	}
+
+	@Override
+	public Task getTask() {
+		return catAccComputation;
+	}
+}
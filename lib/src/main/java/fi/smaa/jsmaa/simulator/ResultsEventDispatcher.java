@@ -0,0 +1,158 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Delivers {@link ResultsEvent}s away from the simulation thread. Events of a results object
+ * that arrive within one time window are coalesced into a single event (an event carrying an
+ * exception takes precedence), and the next delivery is not started before the previous one
+ * has completed. Posting an event never blocks.
+ * 
+ * @see SMAAResults#setEventDispatcher(ResultsEventDispatcher)
+ */
+public class ResultsEventDispatcher {
+	private final long windowNanos;
+	private final Executor executor;
+	private final ScheduledExecutorService scheduler;
+	
+	/**
+	 * @param windowMillis minimum time between two deliveries to the listeners of one results object
+	 * @param executor executes the deliveries, or null to deliver on the dispatcher's own thread
+	 */
+	public ResultsEventDispatcher(long windowMillis, Executor executor) {
+		if (windowMillis < 0) {
+			throw new IllegalArgumentException("windowMillis < 0");
+		}
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+		this.executor = executor;
+		this.scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "SMAA results dispatcher");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+	
+	/**
+	 * Creates a dispatcher that delivers on the Swing event dispatch thread.
+	 */
+	public static ResultsEventDispatcher onEventDispatchThread(long windowMillis) {
+		return new ResultsEventDispatcher(windowMillis, new Executor() {
+			public void execute(Runnable command) {
+				SwingUtilities.invokeLater(command);
+			}
+		});
+	}
+	
+	/**
+	 * Stops the dispatcher thread; pending events are discarded.
+	 */
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+	
+	Channel open(Collection<SMAAResultsListener> listeners) {
+		return new Channel(listeners);
+	}
+	
+	/**
+	 * Coalescing state for the listeners of one results object.
+	 */
+	class Channel implements Runnable {
+		private final Collection<SMAAResultsListener> listeners;
+		private final AtomicReference<ResultsEvent> pending = new AtomicReference<ResultsEvent>();
+		private final AtomicBoolean busy = new AtomicBoolean();
+		private volatile long lastDelivery = System.nanoTime() - windowNanos;
+		
+		private Channel(Collection<SMAAResultsListener> listeners) {
+			this.listeners = listeners;
+		}
+		
+		void post(ResultsEvent ev) {
+			ResultsEvent old;
+			ResultsEvent merged;
+			do {
+				old = pending.get();
+				merged = old != null && old.getException() != null && ev.getException() == null ? old : ev;
+			} while (!pending.compareAndSet(old, merged));
+			schedule();
+		}
+		
+		private void schedule() {
+			if (pending.get() != null && busy.compareAndSet(false, true)) {
+				long delay = Math.max(0, lastDelivery + windowNanos - System.nanoTime());
+				try {
+					scheduler.schedule(this, delay, TimeUnit.NANOSECONDS);
+				} catch (RuntimeException e) { // shut down
+					busy.set(false);
+				}
+			}
+		}
+		
+		public void run() {
+			final ResultsEvent ev = pending.getAndSet(null);
+			if (ev == null) {
+				done();
+				return;
+			}
+			if (executor == null) {
+				deliver(ev);
+			} else {
+				executor.execute(new Runnable() {
+					public void run() {
+						deliver(ev);
+					}
+				});
+			}
+		}
+		
+		private void deliver(ResultsEvent ev) {
+			try {
+				for (SMAAResultsListener l : listeners) {
+					l.resultsChanged(ev);
+				}
+			} finally {
+				lastDelivery = System.nanoTime();
+				done();
+			}
+		}
+		
+		private void done() {
+			busy.set(false);
+			// an event may have arrived while busy
+			schedule();
+		}
+	}
+}
@@ -22,8 +22,12 @@
 */
 package fi.smaa.jsmaa.simulator;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,13 +38,15 @@ import fi.smaa.jsmaa.model.Criterion;
 public class SMAA2Results extends SMAAResults {
 
 	private double[][] centralWeightAdds;
+	private double[][] centralWeightSquares;
 	private Map<Integer, List<Double>> centralWeightVectors;
 	private static final int FIRSTRANK = 0;
-	private int[] confidenceHits;
-	private int confidenceIteration;
+	private long[] confidenceHits;
+	private long confidenceIteration;
 	private List<Double> confidenceFactors;
 	private Acceptabilities rankAcceptabilities;
 	private List<? extends Criterion> criteria;
+	private volatile SMAA2Snapshot snapshot;
 	
 	public SMAA2Results(List<Alternative> alternatives, List<? extends Criterion> criteria, int updateInterval) {
 		super(alternatives, updateInterval);
@@ -57,13 +63,17 @@ public class SMAA2Results extends SMAAResults {
 		assert(ranks.length == rankAcceptabilities.getLength());
 		assert(weights.length == centralWeightAdds[0].length);
 
+		rankAcceptabilities.update(ranks);
 		for (int altIndex=0;altIndex<ranks.length;altIndex++) {
-			rankAcceptabilities.hit(altIndex, ranks[altIndex]);
 			if(ranks[altIndex] == FIRSTRANK) {
 				addCentralWeight(altIndex, weights);
 			}
 		}
-		if (getRankAccIteration()  % updateInterval == 0) {
+		boolean fire = rankAcceptabilities.getIterations() % updateInterval == 0;
+		if (fire || rankAcceptabilities.getIterations() % snapshotInterval == 0) {
+			publishSnapshot();
+		}
+		if (fire) {
 			calculateRankAccsAndCentralWeights();		
 			fireResultsChanged();
 		}
@@ -77,12 +87,115 @@ public class SMAA2Results extends SMAAResults {
 				confidenceHits[i]++;
 			}
 		}
-		if (confidenceIteration % updateInterval == 0) {
+		boolean fire = confidenceIteration % updateInterval == 0;
+		if (fire || confidenceIteration % snapshotInterval == 0) {
+			publishSnapshot();
+		}
+		if (fire) {
 			calculateConfidenceFactors();					
 			fireResultsChanged();
 		}
 	}
 	
+	/**
+	 * Adds the rank acceptability hits, central weight sums and confidence factor hits of
+	 * another set of results (e.g. those of a parallel worker) to these results.
+	 * 
+	 * @param other results for the same alternatives and criteria, in the same order
+	 */
+	public void merge(SMAA2Results other) {
+		merge(Collections.singletonList(other));
+	}
+	
+	/**
+	 * Adds the results of several others, publishing a snapshot and firing a single event
+	 * once all of them have been added.
+	 * 
+	 * @see #merge(SMAA2Results)
+	 */
+	public void merge(List<SMAA2Results> others) {
+		for (SMAA2Results other : others) {
+			assert(other.alternatives.size() == alternatives.size());
+			assert(other.criteria.size() == criteria.size());
+
+			rankAcceptabilities.add(other.rankAcceptabilities);
+			for (int altIndex=0;altIndex<centralWeightAdds.length;altIndex++) {
+				for (int i=0;i<centralWeightAdds[altIndex].length;i++) {
+					centralWeightAdds[altIndex][i] += other.centralWeightAdds[altIndex][i];
+					centralWeightSquares[altIndex][i] += other.centralWeightSquares[altIndex][i];
+				}
+				confidenceHits[altIndex] += other.confidenceHits[altIndex];
+			}
+			confidenceIteration += other.confidenceIteration;
+		}
+
+		calculateRankAccsAndCentralWeights();
+		if (confidenceIteration > 0) {
+			calculateConfidenceFactors();
+		}
+		publishSnapshot();
+		fireResultsChanged();
+	}
+
+	/**
+	 * Writes the hit counts and central weight sums, e.g. to checkpoint a simulation.
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		rankAcceptabilities.writeState(out);
+		for (int altIndex=0;altIndex<centralWeightAdds.length;altIndex++) {
+			for (int i=0;i<centralWeightAdds[altIndex].length;i++) {
+				out.writeDouble(centralWeightAdds[altIndex][i]);
+				out.writeDouble(centralWeightSquares[altIndex][i]);
+			}
+			out.writeLong(confidenceHits[altIndex]);
+		}
+		out.writeLong(confidenceIteration);
+	}
+	
+	/**
+	 * Replaces the state of these results by one written by {@link #writeState(DataOutput)}
+	 * for results with the same dimensions.
+	 */
+	public void readState(DataInput in) throws IOException {
+		rankAcceptabilities.readState(in);
+		for (int altIndex=0;altIndex<centralWeightAdds.length;altIndex++) {
+			for (int i=0;i<centralWeightAdds[altIndex].length;i++) {
+				centralWeightAdds[altIndex][i] = in.readDouble();
+				centralWeightSquares[altIndex][i] = in.readDouble();
+			}
+			confidenceHits[altIndex] = in.readLong();
+		}
+		confidenceIteration = in.readLong();
+
+		calculateRankAccsAndCentralWeights();
+		if (confidenceIteration > 0) {
+			calculateConfidenceFactors();
+		}
+		publishSnapshot();
+		fireResultsChanged();
+	}
+	
+	/**
+	 * @return the most recently published snapshot
+	 * @see #setSnapshotInterval(int)
+	 */
+	public SMAA2Snapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	@Override
+	public void publishSnapshot() {
+		double[][] cw = new double[centralWeightAdds.length][criteria.size()];
+		for (int altIndex=0;altIndex<cw.length;altIndex++) {
+			long n = rankAcceptabilities.getHits(altIndex, FIRSTRANK);
+			for (int i=0;i<cw[altIndex].length;i++) {
+				cw[altIndex][i] = n > 0 ? centralWeightAdds[altIndex][i] / n : Double.NaN;
+			}
+		}
+		snapshot = new SMAA2Snapshot(rankAcceptabilities.getIterations(), confidenceIteration,
+				rankAcceptabilities.getAcceptabilityMatrix(), cw, getConfidenceFactorArray());
+	}
+
 	private void calculateConfidenceFactors() {
 		for (int i=0;i<confidenceFactors.size();i++) {
 			confidenceFactors.set(i, calculateConfidenceFactor(i));
@@ -93,8 +206,83 @@ public class SMAA2Results extends SMAAResults {
 		return (double) confidenceHits[altIndex] / (double) confidenceIteration;
 	}
 
+	/**
+	 * @return the number of rank acceptability iterations, truncated to Integer.MAX_VALUE
+	 * @see #getRankAccIterations()
+	 */
 	public Integer getRankAccIteration() {
-		return new Integer(rankAcceptabilities.getTotalHits(0));
+		return new Integer((int) Math.min(Integer.MAX_VALUE, getRankAccIterations()));
+	}
+	
+	public long getRankAccIterations() {
+		return rankAcceptabilities.getIterations();
+	}
+	
+	public long getConfidenceIterations() {
+		return confidenceIteration;
+	}
+	
+	/**
+	 * @return a snapshot of the rank acceptabilities, [altIndex][rank]
+	 */
+	public double[][] getRankAcceptabilityMatrix() {
+		return rankAcceptabilities.getAcceptabilityMatrix();
+	}
+	
+	/**
+	 * @return a snapshot of the confidence factors, NaNs if there are no confidence iterations yet
+	 */
+	public double[] getConfidenceFactorArray() {
+		double[] cf = new double[confidenceHits.length];
+		for (int i=0;i<cf.length;i++) {
+			cf[i] = (double) confidenceHits[i] / (double) confidenceIteration;
+		}
+		return cf;
+	}
+
+	/**
+	 * @return the largest standard error of the rank acceptabilities, NaN if there are no iterations yet
+	 */
+	public double getMaxRankAcceptabilityError() {
+		return rankAcceptabilities.getMaxStandardError();
+	}
+	
+	/**
+	 * Gets the largest standard error of the central weights. The central weights of
+	 * alternatives with less than two first rank hits do not have an error estimate, and
+	 * are not included.
+	 * 
+	 * @return the standard error
+	 */
+	public double getMaxCentralWeightError() {
+		double max = 0.0;
+		for (int altIndex=0;altIndex<centralWeightAdds.length;altIndex++) {
+			long n = rankAcceptabilities.getHits(altIndex, FIRSTRANK);
+			if (n < 2) {
+				continue;
+			}
+			for (int i=0;i<centralWeightAdds[altIndex].length;i++) {
+				double sum = centralWeightAdds[altIndex][i];
+				double var = Math.max(0.0, (centralWeightSquares[altIndex][i] - sum * sum / n) / (n - 1));
+				max = Math.max(max, Math.sqrt(var / n));
+			}
+		}
+		return max;
+	}
+	
+	/**
+	 * @return the largest standard error of the confidence factors, NaN if there are no confidence iterations yet
+	 */
+	public double getMaxConfidenceFactorError() {
+		if (confidenceIteration == 0) {
+			return Double.NaN;
+		}
+		double max = 0.0;
+		for (int i=0;i<confidenceHits.length;i++) {
+			double p = (double) confidenceHits[i] / confidenceIteration;
+			max = Math.max(max, Math.sqrt(p * (1.0 - p) / confidenceIteration));
+		}
+		return max;
 	}
 
 	public Map<Alternative, Map<Criterion, Double>> getCentralWeightVectors() {
@@ -111,6 +299,23 @@ public class SMAA2Results extends SMAAResults {
 		return cw;
 	}
 	
+	/**
+	 * Gets a snapshot of the central weight vectors as a matrix. Alternatives that have
+	 * not (yet) been ranked first have a row of NaNs.
+	 * 
+	 * @return the central weights, [alternative][criterion]
+	 */
+	public double[][] getCentralWeightMatrix() {
+		double[][] cw = new double[alternatives.size()][criteria.size()];
+		for (int i=0;i<cw.length;i++) {
+			List<Double> vec = centralWeightVectors.get(i);
+			for (int j=0;j<cw[i].length;j++) {
+				cw[i][j] = vec.get(j);
+			}
+		}
+		return cw;
+	}
+	
 	public Map<Alternative, Double> getConfidenceFactors() {
 		Map<Alternative, Double> confs = new HashMap<Alternative, Double>();
 		for (int i=0;i<confidenceFactors.size();i++) {
@@ -156,6 +361,7 @@ public class SMAA2Results extends SMAAResults {
 	private void addCentralWeight(int altIndex, double[] weights) {
 		for (int i=0;i<weights.length;i++) {
 			centralWeightAdds[altIndex][i] += weights[i];
+			centralWeightSquares[altIndex][i] += weights[i] * weights[i];
 		}
 	}
 
@@ -163,11 +369,13 @@ public class SMAA2Results extends SMAAResults {
 		int numAlts = alternatives.size();
 		int numCrit = criteria.size();
 		centralWeightAdds = new double[numAlts][numCrit];
-		confidenceHits = new int[numAlts];
+		centralWeightSquares = new double[numAlts][numCrit];
+		confidenceHits = new long[numAlts];
 		confidenceIteration = 0;
 		initializeCentralWeightVectors();
 		initializeRankAcceptabilities();
 		initializeConfidenceFactors();		
+		publishSnapshot();
 	}
 
 	private void calculateRankAccsAndCentralWeights() {
@@ -0,0 +1,77 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+/**
+ * Immutable snapshot of {@link SMAA2Results}, safe to read from any thread. Indices refer to
+ * the alternatives and criteria of the results.
+ */
+public final class SMAA2Snapshot {
+	private final long rankAccIterations;
+	private final long confidenceIterations;
+	private final double[][] rankAcceptabilities;
+	private final double[][] centralWeights;
+	private final double[] confidenceFactors;
+	
+	SMAA2Snapshot(long rankAccIterations, long confidenceIterations, double[][] rankAcceptabilities,
+			double[][] centralWeights, double[] confidenceFactors) {
+		this.rankAccIterations = rankAccIterations;
+		this.confidenceIterations = confidenceIterations;
+		this.rankAcceptabilities = rankAcceptabilities;
+		this.centralWeights = centralWeights;
+		this.confidenceFactors = confidenceFactors;
+	}
+	
+	public long getRankAccIterations() {
+		return rankAccIterations;
+	}
+	
+	public long getConfidenceIterations() {
+		return confidenceIterations;
+	}
+	
+	public int getNumAlternatives() {
+		return confidenceFactors.length;
+	}
+	
+	/**
+	 * @return the acceptability of the given rank for the alternative, NaN if there are no iterations yet
+	 */
+	public double getRankAcceptability(int altIndex, int rank) {
+		return rankAcceptabilities[altIndex][rank];
+	}
+	
+	/**
+	 * @return the central weight of the criterion for the alternative, NaN if it has not been ranked first
+	 */
+	public double getCentralWeight(int altIndex, int critIndex) {
+		return centralWeights[altIndex][critIndex];
+	}
+	
+	/**
+	 * @return the confidence factor of the alternative, NaN if there are no confidence iterations yet
+	 */
+	public double getConfidenceFactor(int altIndex) {
+		return confidenceFactors[altIndex];
+	}
+}
@@ -34,13 +34,37 @@ public abstract class SMAAResults {
 	protected ConcurrentLinkedQueue<SMAAResultsListener> listeners = new ConcurrentLinkedQueue<SMAAResultsListener>();
 	protected List<Alternative> alternatives;
 	protected int updateInterval;
+	protected int snapshotInterval;
+	private volatile ResultsEventDispatcher.Channel dispatchChannel;
 	
 	protected SMAAResults(List<Alternative> alts, int updateInterval) {
 		this.alternatives = alts;
 		this.updateInterval = updateInterval;
+		this.snapshotInterval = updateInterval;
 	}
 	
 	public abstract void reset();
+	
+	/**
+	 * Sets how often, in iterations, the results publish a snapshot for concurrent readers.
+	 * Defaults to the update interval. A snapshot is also published before every event.
+	 */
+	public void setSnapshotInterval(int snapshotInterval) {
+		if (snapshotInterval < 1) {
+			throw new IllegalArgumentException("snapshotInterval < 1");
+		}
+		this.snapshotInterval = snapshotInterval;
+	}
+	
+	public int getSnapshotInterval() {
+		return snapshotInterval;
+	}
+	
+	/**
+	 * Publishes a snapshot of the current results, e.g. when a simulation ends between two
+	 * scheduled snapshots. Must be called by the thread that updates the results.
+	 */
+	public abstract void publishSnapshot();
 
 	public void addResultsListener(SMAAResultsListener listener) {
 		if (!listeners.contains(listener)) {
@@ -52,9 +76,28 @@ public abstract class SMAAResults {
 		listeners.remove(listener);
 	}
 
+	/**
+	 * Sets the dispatcher through which the listeners are notified. By default (null) they are
+	 * notified synchronously by the thread that updates the results. Listeners notified through
+	 * a dispatcher run concurrently with the simulation, and must read the results through
+	 * their published snapshot only.
+	 */
+	public void setEventDispatcher(ResultsEventDispatcher dispatcher) {
+		dispatchChannel = dispatcher == null ? null : dispatcher.open(listeners);
+	}
+
 	protected void fireResultsChanged() {
+		fire(new ResultsEvent(this));
+	}
+	
+	private void fire(ResultsEvent ev) {
+		ResultsEventDispatcher.Channel channel = dispatchChannel;
+		if (channel != null) {
+			channel.post(ev);
+			return;
+		}
 		for (SMAAResultsListener listener : listeners) {
-			listener.resultsChanged(new ResultsEvent(this));
+			listener.resultsChanged(ev);
 		}
 	}
 	
@@ -71,9 +114,7 @@ public abstract class SMAAResults {
 	}
 
 	protected void fireResultsChanged(IterationException e) {
-		for (SMAAResultsListener listener : listeners) {
-			listener.resultsChanged(new ResultsEvent(this, e));
-		}		
+		fire(new ResultsEvent(this, e));
 	}
 	
 }
\ No newline at end of file
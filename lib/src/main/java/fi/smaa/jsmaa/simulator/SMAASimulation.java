@@ -22,9 +22,28 @@
 */
 package fi.smaa.jsmaa.simulator;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
 import org.drugis.common.threading.Task;
 
 import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
+import fi.smaa.jsmaa.model.PreferenceInformation;
 import fi.smaa.jsmaa.model.SMAAModel;
 
 public abstract class SMAASimulation<M extends SMAAModel> {
@@ -32,9 +51,23 @@ public abstract class SMAASimulation<M extends SMAAModel> {
 	protected double[][] measurements;
 	protected M model;
 	protected double[] weights;
+	private CompiledModel compiledModel;
+	private boolean commonRandomNumbers;
+	private RandomUtil weightRandom;
+	
+	private File checkpointFile;
+	private int checkpointInterval;
+	private int sinceCheckpoint;
 	
 	public static int REPORTING_INTERVAL = 100;
+	
+	private static final int CHECKPOINT_MAGIC = 0x4a534d43;
+	private static final int CHECKPOINT_VERSION = 3;
 
+	/**
+	 * @param random the random number stream; may be quasi-random (see {@link RandomUtil#createQuasiRandom(long)}),
+	 * in which case every iteration uses the next point of the low-discrepancy sequence.
+	 */
 	public SMAASimulation(M model, RandomUtil random) {
 		this.model = model;
 		this.random = random;
@@ -43,17 +76,236 @@ public abstract class SMAASimulation<M extends SMAAModel> {
 	
 	private void initialize() {
 		measurements = new double[model.getCriteria().size()][model.getAlternatives().size()];
+		weights = new double[model.getCriteria().size()];
 	}
 	
 	public abstract SMAAResults getResults();
 	
 	public void reset() {
 		initialize();
+		compiledModel = null;
+		weightRandom = null;
+	}
+	
+	/**
+	 * Sets whether to use common random numbers: when enabled, the weights, every measurement
+	 * and (in SMAA-TRI) the thresholds, profiles and lambda are sampled from their own substreams
+	 * of the random number stream, keyed by the names of the model elements. Running an edited
+	 * model with the same seed then re-uses the random numbers of all unchanged elements, so
+	 * differences in the results reflect the edit rather than Monte Carlo noise. Must be set
+	 * before the simulation starts.
+	 */
+	public void setCommonRandomNumbers(boolean commonRandomNumbers) {
+		this.commonRandomNumbers = commonRandomNumbers;
+		reset();
+	}
+	
+	public boolean getCommonRandomNumbers() {
+		return commonRandomNumbers;
+	}
+	
+	/**
+	 * @return the substream with the given key when using common random numbers, and the
+	 * random number stream of the simulation otherwise
+	 */
+	protected RandomUtil getRandom(String ... key) {
+		return commonRandomNumbers ? random.substream(RandomUtil.key(key)) : random;
+	}
+	
+	/**
+	 * Gets the compiled snapshot of the model, creating it on first use (i.e. when the
+	 * simulation starts running rather than when it is constructed).
+	 */
+	protected CompiledModel getCompiledModel() {
+		if (compiledModel == null) {
+			compiledModel = CompiledModel.compile(model);
+			if (commonRandomNumbers) {
+				compiledModel.useSubstreams(random);
+			}
+		}
+		return compiledModel;
+	}
+	
+	/**
+	 * Discards the compiled snapshot and compiles the current state of the model; with common
+	 * random numbers, the measurement substreams start afresh.
+	 */
+	protected CompiledModel recompileModel() {
+		compiledModel = null;
+		return getCompiledModel();
 	}
 	
 	protected void sampleMeasurements() {
-		this.model.getMeasurements().sample(random, measurements);
+		getCompiledModel().sample(random, measurements);
+	}
+
+	/**
+	 * Makes the simulation write a checkpoint to the given file every interval iterations, see
+	 * {@link #writeCheckpoint(File)}. Failing to write a checkpoint fails the simulation.
+	 * 
+	 * @param file the checkpoint file, or null to disable checkpointing
+	 */
+	public void setCheckpoint(File file, int interval) {
+		if (file != null && interval < 1) {
+			throw new IllegalArgumentException("interval < 1");
+		}
+		this.checkpointFile = file;
+		this.checkpointInterval = interval;
+		this.sinceCheckpoint = 0;
+	}
+	
+	/**
+	 * Called by the computations after each step; writes a checkpoint if one is due.
+	 */
+	protected void checkpointIfDue() throws IterationException {
+		checkpointIfDue(1);
+	}
+	
+	/**
+	 * Called by the computations after a step of the given number of iterations; writes a
+	 * checkpoint if one is due.
+	 */
+	protected void checkpointIfDue(int iterations) throws IterationException {
+		if (checkpointFile == null) {
+			return;
+		}
+		sinceCheckpoint += iterations;
+		if (sinceCheckpoint < checkpointInterval) {
+			return;
+		}
+		sinceCheckpoint = 0;
+		try {
+			writeCheckpoint(checkpointFile);
+		} catch (IOException e) {
+			throw new IterationException("Cannot write checkpoint: " + e.getMessage());
+		}
 	}
+	
+	/**
+	 * Writes the complete state of the simulation (progress, hit counts and the state of all
+	 * random number streams) to a binary file. The file is replaced atomically where the
+	 * platform allows, so an interruption while writing leaves the previous checkpoint intact.
+	 */
+	public void writeCheckpoint(File file) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+		try {
+			out.writeInt(CHECKPOINT_MAGIC);
+			out.writeInt(CHECKPOINT_VERSION);
+			out.writeUTF(getClass().getName());
+			out.writeInt(model.getCriteria().size());
+			out.writeInt(model.getAlternatives().size());
+			writeState(out);
+			writeSamplerState(out);
+			List<RandomUtil> streams = getStreams();
+			out.writeInt(streams.size());
+			for (RandomUtil r : streams) {
+				byte[] state = r.getState();
+				out.writeInt(state.length);
+				out.write(state);
+			}
+		} finally {
+			out.close();
+		}
+		if (!tmp.renameTo(file)) {
+			file.delete();
+			if (!tmp.renameTo(file)) {
+				throw new IOException("Cannot replace " + file);
+			}
+		}
+	}
+	
+	/**
+	 * Restores the state written by {@link #writeCheckpoint(File)}, so that running the
+	 * simulation continues where the checkpointed one was interrupted and gives exactly the
+	 * same results as an uninterrupted run. The simulation must be of the same class, created
+	 * for the same model, seed and stopping rule, with the same settings (e.g. common random
+	 * numbers), and not yet started.
+	 * 
+	 * @throws IOException if the file cannot be read or does not match this simulation
+	 */
+	public void resume(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+				throw new IOException("Not a checkpoint file: " + file);
+			}
+			if (!in.readUTF().equals(getClass().getName()) || in.readInt() != model.getCriteria().size()
+					|| in.readInt() != model.getAlternatives().size()) {
+				throw new IOException("Checkpoint does not match the simulation");
+			}
+			readState(in);
+			readSamplerState(in);
+			List<RandomUtil> streams = getStreams();
+			if (in.readInt() != streams.size()) {
+				throw new IOException("Checkpoint does not match the simulation");
+			}
+			for (RandomUtil r : streams) {
+				byte[] state = new byte[in.readInt()];
+				in.readFully(state);
+				r.setState(state);
+			}
+		} finally {
+			in.close();
+		}
+	}
+	
+	private List<RandomUtil> getStreams() {
+		List<RandomUtil> all = new ArrayList<RandomUtil>();
+		collectStreams(all);
+		Set<RandomUtil> seen = Collections.newSetFromMap(new IdentityHashMap<RandomUtil, Boolean>());
+		List<RandomUtil> streams = new ArrayList<RandomUtil>();
+		for (RandomUtil r : all) {
+			if (seen.add(r)) {
+				streams.add(r);
+			}
+		}
+		return streams;
+	}
+
+	/**
+	 * Writes the state of the weight sampler of the model, i.e. its hit-and-run chain.
+	 */
+	protected void writeSamplerState(DataOutput out) throws IOException {
+		PreferenceInformation pref = model.getPreferenceInformation();
+		out.writeBoolean(pref instanceof CardinalPreferenceInformation);
+		if (pref instanceof CardinalPreferenceInformation) {
+			((CardinalPreferenceInformation) pref).writeSamplerState(out);
+		}
+	}
+	
+	/**
+	 * Reads the state written by {@link #writeSamplerState(DataOutput)}.
+	 */
+	protected void readSamplerState(DataInput in) throws IOException {
+		PreferenceInformation pref = model.getPreferenceInformation();
+		if (in.readBoolean() != pref instanceof CardinalPreferenceInformation) {
+			throw new IOException("Checkpoint does not match the simulation");
+		}
+		if (pref instanceof CardinalPreferenceInformation) {
+			((CardinalPreferenceInformation) pref).readSamplerState(in);
+		}
+	}
+
+	/**
+	 * Adds all random number streams used by the simulation to the list, in a fixed order,
+	 * creating them if needed.
+	 */
+	protected void collectStreams(List<RandomUtil> streams) {
+		streams.add(random);
+		streams.add(getWeightRandom());
+		getCompiledModel().collectStreams(streams);
+	}
+	
+	/**
+	 * Writes the progress of the computations and the results.
+	 */
+	protected abstract void writeState(DataOutput out) throws IOException;
+	
+	/**
+	 * Reads the state written by {@link #writeState(DataOutput)}.
+	 */
+	protected abstract void readState(DataInput in) throws IOException;
 
 	protected double[] getMeasurements(int critIndex) {
 		assert(critIndex >= 0 && critIndex < measurements.length);
@@ -61,12 +313,19 @@ public abstract class SMAASimulation<M extends SMAAModel> {
 	}
 
 	protected void generateWeights() throws IterationException {
-		weights = model.getPreferenceInformation().sampleWeights(random);
-		
-		// hack until we can listen only to relevant events
-		if (weights.length != model.getCriteria().size()) {
-			weights = new double[model.getCriteria().size()];
+		try {
+			model.getPreferenceInformation().sampleWeights(getWeightRandom(), weights);
+		} catch (IllegalArgumentException e) {
+			// hack until we can listen only to relevant events
+			Arrays.fill(weights, 0.0);
+		}
+	}
+	
+	private RandomUtil getWeightRandom() {
+		if (weightRandom == null) {
+			weightRandom = getRandom("weights");
 		}
+		return weightRandom;
 	}
 	
 	public abstract Task getTask();
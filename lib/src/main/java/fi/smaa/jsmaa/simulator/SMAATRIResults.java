@@ -22,6 +22,10 @@
 */
 package fi.smaa.jsmaa.simulator;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +36,7 @@ public class SMAATRIResults extends SMAAResults {
 	
 	private Acceptabilities categoryAcceptabilities;
 	private List<Category> categories;
+	private volatile SMAATRISnapshot snapshot;
 		
 	public SMAATRIResults(List<Alternative> alts, List<Category> categories, int updateInterval) {
 		super(alts, updateInterval);
@@ -41,24 +46,120 @@ public class SMAATRIResults extends SMAAResults {
 
 	public void reset() {
 		categoryAcceptabilities = new Acceptabilities(alternatives, categories.size());		
+		publishSnapshot();
+	}
+	
+	/**
+	 * @return the most recently published snapshot
+	 * @see #setSnapshotInterval(int)
+	 */
+	public SMAATRISnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	@Override
+	public void publishSnapshot() {
+		snapshot = new SMAATRISnapshot(categoryAcceptabilities.getIterations(),
+				categoryAcceptabilities.getAcceptabilityMatrix());
 	}
 	
 	public void update(Integer[] categories) {
 		assert(categories.length == alternatives.size());
 		
+		int[] cats = new int[categories.length];
 		for (int altIndex=0;altIndex<categories.length;altIndex++) {
-			categoryAcceptabilities.hit(altIndex, categories[altIndex]);
+			cats[altIndex] = categories[altIndex];
 		}
+		update(cats);
+	}
+	
+	/**
+	 * @param categories an array, where [i] = index of the category alternative i was sorted into
+	 */
+	public void update(int[] categories) {
+		assert(categories.length == alternatives.size());
+		
+		categoryAcceptabilities.update(categories);
 		
-		if (getIteration() % updateInterval == 0) {
+		boolean fire = getIterations() % updateInterval == 0;
+		if (fire || getIterations() % snapshotInterval == 0) {
+			publishSnapshot();
+		}
+		if (fire) {
 			fireResultsChanged();
 		}
 	}
 
+	/**
+	 * Adds the category acceptability hits of another set of results (e.g. those of a
+	 * parallel worker) to these results.
+	 * 
+	 * @param other results for the same alternatives and categories, in the same order
+	 */
+	public void merge(SMAATRIResults other) {
+		merge(Collections.singletonList(other));
+	}
+	
+	/**
+	 * Adds the results of several others, publishing a snapshot and firing a single event
+	 * once all of them have been added.
+	 * 
+	 * @see #merge(SMAATRIResults)
+	 */
+	public void merge(List<SMAATRIResults> others) {
+		for (SMAATRIResults other : others) {
+			assert(other.alternatives.size() == alternatives.size());
+			assert(other.categories.size() == categories.size());
+			
+			categoryAcceptabilities.add(other.categoryAcceptabilities);
+		}
+		publishSnapshot();
+		fireResultsChanged();
+	}
+
+	/**
+	 * Writes the hit counts, e.g. to checkpoint a simulation.
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		categoryAcceptabilities.writeState(out);
+	}
+	
+	/**
+	 * Replaces the hit counts by those written by {@link #writeState(DataOutput)} for results
+	 * with the same dimensions.
+	 */
+	public void readState(DataInput in) throws IOException {
+		categoryAcceptabilities.readState(in);
+		publishSnapshot();
+		fireResultsChanged();
+	}
+
+	/**
+	 * @return the largest standard error of the category acceptabilities, NaN if there are no iterations yet
+	 */
+	public double getMaxCategoryAcceptabilityError() {
+		return categoryAcceptabilities.getMaxStandardError();
+	}
+
+	/**
+	 * @return the number of iterations, truncated to Integer.MAX_VALUE
+	 * @see #getIterations()
+	 */
 	public Integer getIteration() {
-		return new Integer(categoryAcceptabilities.getTotalHits(0));
+		return new Integer((int) Math.min(Integer.MAX_VALUE, getIterations()));
 	}	
 	
+	public long getIterations() {
+		return categoryAcceptabilities.getIterations();
+	}
+	
+	/**
+	 * @return a snapshot of the category acceptabilities, [altIndex][categoryIndex]
+	 */
+	public double[][] getCategoryAcceptabilityMatrix() {
+		return categoryAcceptabilities.getAcceptabilityMatrix();
+	}
+	
 	public Map<Alternative, List<Double>> getCategoryAcceptabilities() {
 		return categoryAcceptabilities.getResults();
 	}	
@@ -22,126 +22,223 @@
 */
 package fi.smaa.jsmaa.simulator;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import org.drugis.common.threading.AbstractIterativeComputation;
 import org.drugis.common.threading.IterativeTask;
 import org.drugis.common.threading.Task;
 
 import fi.smaa.common.RandomUtil;
-import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.CardinalMeasurement;
+import fi.smaa.jsmaa.model.Category;
 import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.OrderedSampler;
 import fi.smaa.jsmaa.model.OutrankingCriterion;
 import fi.smaa.jsmaa.model.SMAATRIModel;
-import fi.smaa.jsmaa.model.electre.ElectreTri;
+import fi.smaa.jsmaa.model.electre.ElectreTriKernel;
 
 public class SMAATRISimulation extends SMAASimulation<SMAATRIModel> {
 	
-	private static final int MAX_SAMPLE_TRIES = 1000;
 	private SMAATRIResults results;
-	private Map<Alternative, Alternative> sortRes;
-	private Map<Alternative, Map<OutrankingCriterion, Double>> criteriaMeasurements;
-	private Map<Alternative, Map<OutrankingCriterion, Double>> categoryUpperBounds;
+	private int[] categories;
+	private double[][] categoryUpperBounds;
+	private boolean[] ascending;
+	private double[] indifThresholds;
+	private double[] prefThresholds;
 	private double lambda;
+	private RandomUtil[] thresholdRandom;
+	private RandomUtil[][] profileRandom;
+	private RandomUtil lambdaRandom;
+	private OrderedSampler[] profileSamplers;
+	private RandomUtil[][] orderedProfileRandom;
+	private double[] orderedProfiles;
+	private ConvergingComputation catAccIterations;
 	private IterativeTask catAccComputation;
 
 	public SMAATRISimulation(SMAATRIModel triModel, RandomUtil random, int iterations) {
+		this(triModel, random, ConvergenceCriterion.fixed(iterations));
+	}
+	
+	/**
+	 * Creates a simulation that runs until the category acceptabilities converge.
+	 */
+	public SMAATRISimulation(SMAATRIModel triModel, RandomUtil random, ConvergenceCriterion convergence) {
 		super(triModel, random);
 		results = new SMAATRIResults(model.getAlternatives(), model.getCategories(), REPORTING_INTERVAL);
+		initializeArrays();
 		
-		catAccComputation = new IterativeTask(new AbstractIterativeComputation(iterations) {
+		catAccIterations = new ConvergingComputation(
+				convergence, convergence.getMaxIterations(), REPORTING_INTERVAL) {
+			@Override
+			protected int doIterations() {
+				catAccIteration();
+				return 1;
+			}
+			@Override
+			protected double getError() {
+				return results.getMaxCategoryAcceptabilityError();
+			}
 			@Override
-			public void doStep() {
-				if (getModel().getCategories().size() == 0) {
-					return;
-				}
-				generateWeights();
-				sampleThresholds();
-				sampleMeasurements();
-				sampleCategoryUpperBounds();
-				sampleLambda();				
-				sortAlternatives();
-				updateHits();
+			protected void stepDone() {
+				checkpointIfDue();
 			}
-		}, "CatAcc computation");
+			@Override
+			public void finish() {
+				results.publishSnapshot();
+			}
+		};
+		catAccComputation = new IterativeTask(catAccIterations, "CatAcc computation");
 		catAccComputation.setReportingInterval(REPORTING_INTERVAL);
 
 	}
 	
+	private void initializeArrays() {
+		int numCrit = model.getCriteria().size();
+		categories = new int[model.getAlternatives().size()];
+		categoryUpperBounds = new double[numCrit][Math.max(0, model.getCategories().size()-1)];
+		ascending = new boolean[numCrit];
+		indifThresholds = new double[numCrit];
+		prefThresholds = new double[numCrit];
+	}
+	
+	/**
+	 * Creates the random number streams for thresholds, profiles and lambda; with common random
+	 * numbers, these are substreams keyed by criterion and category names.
+	 */
+	private void initializeStreams() {
+		List<Criterion> crit = model.getCriteria();
+		List<Category> cats = getModel().getCategories();
+		thresholdRandom = new RandomUtil[crit.size()];
+		profileRandom = new RandomUtil[crit.size()][Math.max(0, cats.size()-1)];
+		for (int critIndex=0;critIndex<crit.size();critIndex++) {
+			thresholdRandom[critIndex] = getRandom("thresholds", crit.get(critIndex).getName());
+			for (int catIndex=0;catIndex<cats.size()-1;catIndex++) {
+				profileRandom[critIndex][catIndex] = getRandom("profile", crit.get(critIndex).getName(), cats.get(catIndex).getName());
+			}
+		}
+		lambdaRandom = getRandom("lambda");
+		profileSamplers = null;
+	}
+	
+	@Override
+	protected void collectStreams(List<RandomUtil> streams) {
+		super.collectStreams(streams);
+		if (lambdaRandom == null) {
+			initializeStreams();
+		}
+		for (int critIndex=0;critIndex<thresholdRandom.length;critIndex++) {
+			streams.add(thresholdRandom[critIndex]);
+			for (RandomUtil r : profileRandom[critIndex]) {
+				streams.add(r);
+			}
+		}
+		streams.add(lambdaRandom);
+	}
+	
+	@Override
+	protected void writeState(DataOutput out) throws IOException {
+		catAccIterations.writeState(out);
+		results.writeState(out);
+	}
+	
+	@Override
+	protected void readState(DataInput in) throws IOException {
+		catAccIterations.readState(in);
+		results.readState(in);
+	}
+	
+	@Override
+	public void reset() {
+		super.reset();
+		lambdaRandom = null;
+		profileSamplers = null;
+	}
+	
 	public Task getTask() {
 		return catAccComputation;
 	}
 	
-	protected void sampleThresholds() throws IterationException {
-		for (Criterion c : model.getCriteria()) {
-			((OutrankingCriterion)c).sampleThresholds(random);
+	/**
+	 * Performs a single category acceptability iteration, recording it in the results.
+	 */
+	void catAccIteration() {
+		if (getModel().getCategories().size() == 0) {
+			return;
 		}
-	}
-
-	private void updateHits() {
-		Integer[] cats = new Integer[getModel().getAlternatives().size()];
-		for (int i=0;i<cats.length;i++) {
-			Alternative alt = getModel().getAlternatives().get(i);
-			cats[i] = getModel().getCategories().indexOf(sortRes.get(alt));
+		if (lambdaRandom == null) {
+			initializeStreams();
 		}
-		results.update(cats);
+		random.nextPoint();
+		generateWeights();
+		sampleThresholds();
+		sampleMeasurements();
+		sampleCategoryUpperBounds();
+		sampleLambda();				
+		sortAlternatives();
+		results.update(categories);
 	}
 	
-	protected void sampleMeasurements() {
-		super.sampleMeasurements();
-		
-		criteriaMeasurements = new HashMap<Alternative, Map<OutrankingCriterion, Double>>();
-		
-		for (int altIndex=0;altIndex<getModel().getAlternatives().size();altIndex++) {
-			Alternative a = getModel().getAlternatives().get(altIndex);
-			Map<OutrankingCriterion, Double> m = new HashMap<OutrankingCriterion, Double>();
-			for (int critIndex=0;critIndex<getModel().getCriteria().size();critIndex++) {
-				OutrankingCriterion oc = (OutrankingCriterion) getModel().getCriteria().get(critIndex);
-				m.put(oc, getMeasurements(critIndex)[altIndex]);
-			}
-			criteriaMeasurements.put(a, m);
-		}		
+	protected void sampleThresholds() throws IterationException {
+		for (int critIndex=0;critIndex<model.getCriteria().size();critIndex++) {
+			OutrankingCriterion oc = (OutrankingCriterion) model.getCriteria().get(critIndex);
+			oc.sampleThresholds(thresholdRandom[critIndex]);
+			ascending[critIndex] = oc.getAscending();
+			indifThresholds[critIndex] = oc.getIndifferenceThreshold();
+			prefThresholds[critIndex] = oc.getPreferenceThreshold();
+		}
 	}
 
 	private void sortAlternatives() {
-		// construct outranking-criteria-vector
-		List<OutrankingCriterion> ocrits = new ArrayList<OutrankingCriterion>();
-		for (Criterion c : getModel().getCriteria()) {
-			ocrits.add((OutrankingCriterion) c);
-		}
-		
-		ElectreTri tri = new ElectreTri(getModel().getAlternatives(), ocrits,
-				getModel().getCategories(), criteriaMeasurements, categoryUpperBounds, weights, lambda, getModel().getRule());
-		
-		sortRes = tri.compute();
+		ElectreTriKernel.compute(measurements, categoryUpperBounds, getModel().getCategories().size()-1,
+				ascending, indifThresholds, prefThresholds, weights, lambda, getModel().getRule(), categories);
 	}
 
 	private void sampleLambda() {
-		lambda = getModel().getLambda().sample(random);
+		lambda = getModel().getLambda().sample(lambdaRandom);
 	}
 
+	/**
+	 * Samples the profiles of each criterion from their joint distribution conditioned on
+	 * dominance, see {@link OrderedSampler}; the profiles of different criteria are independent.
+	 */
 	private void sampleCategoryUpperBounds() throws IterationException {
-		for (int i=0;i<MAX_SAMPLE_TRIES;i++) {
-			categoryUpperBounds = new HashMap<Alternative, Map<OutrankingCriterion, Double>>();
-
-			for (int catIndex=0;catIndex<getModel().getCategories().size()-1;catIndex++) {
-				Alternative cat = getModel().getCategories().get(catIndex);
-				Map<OutrankingCriterion, Double> m = new HashMap<OutrankingCriterion, Double>();
-				for (int critIndex=0;critIndex<getModel().getCriteria().size();critIndex++) {
-					OutrankingCriterion oc = (OutrankingCriterion) getModel().getCriteria().get(critIndex);
-					m.put(oc, getModel().getCategoryUpperBound(oc, cat).sample(random));
-				}
-				categoryUpperBounds.put(cat, m);
+		if (profileSamplers == null) {
+			initializeProfileSamplers();
+		}
+		for (int critIndex=0;critIndex<profileSamplers.length;critIndex++) {
+			if (!profileSamplers[critIndex].sample(orderedProfileRandom[critIndex], orderedProfiles)) {
+				throw new IterationException("Cannot sample category upper bounds, dominance not satisfied");
 			}
-			if (checkCategoryUpperBounds()) {
-				break;
+			double[] bounds = categoryUpperBounds[critIndex];
+			boolean asc = ((OutrankingCriterion) model.getCriteria().get(critIndex)).getAscending();
+			for (int catIndex=0;catIndex<bounds.length;catIndex++) {
+				bounds[catIndex] = orderedProfiles[asc ? catIndex : bounds.length - 1 - catIndex];
 			}
-			if (i == MAX_SAMPLE_TRIES-1) {
-				throw new IterationException("Cannot sample category upper bounds, dominance not satisfied");				
+		}
+	}
+
+	/**
+	 * Creates the samplers of the profiles, with their streams, in increasing order: by
+	 * category for ascending criteria, and in reverse for descending ones.
+	 */
+	private void initializeProfileSamplers() {
+		List<Category> cats = getModel().getCategories();
+		int numProfiles = Math.max(0, cats.size()-1);
+		profileSamplers = new OrderedSampler[model.getCriteria().size()];
+		orderedProfileRandom = new RandomUtil[profileSamplers.length][numProfiles];
+		orderedProfiles = new double[numProfiles];
+		for (int critIndex=0;critIndex<profileSamplers.length;critIndex++) {
+			OutrankingCriterion oc = (OutrankingCriterion) model.getCriteria().get(critIndex);
+			List<CardinalMeasurement> profiles = new ArrayList<CardinalMeasurement>();
+			for (int i=0;i<numProfiles;i++) {
+				int catIndex = oc.getAscending() ? i : numProfiles - 1 - i;
+				profiles.add(getModel().getCategoryUpperBound(oc, cats.get(catIndex)));
+				orderedProfileRandom[critIndex][i] = profileRandom[critIndex][catIndex];
 			}
+			profileSamplers[critIndex] = new OrderedSampler(profiles);
 		}
 	}
 
@@ -149,30 +246,6 @@ public class SMAATRISimulation extends SMAASimulation<SMAATRIModel> {
 		return (SMAATRIModel) model;
 	}
 
-	private boolean checkCategoryUpperBounds() {
-		for (Criterion c : getModel().getCriteria()) {
-			OutrankingCriterion oc = (OutrankingCriterion) c;
-			
-			Double compareVal = oc.getAscending() ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY; 
-
-			for (int catIndex=0;catIndex<getModel().getCategories().size()-1;catIndex++) {
-				Alternative cat = getModel().getCategories().get(catIndex);
-				Double bound = categoryUpperBounds.get(cat).get(oc);
-				if (oc.getAscending()) {
-					if (bound < compareVal) {
-						return false;
-					}
-				} else { // descending
-					if (bound > compareVal) {
-						return false;
-					}					
-				}
-				compareVal = bound;
-			}
-		}
-		return true;
-	}
-
 	@Override
 	public SMAATRIResults getResults() {
 		return results;
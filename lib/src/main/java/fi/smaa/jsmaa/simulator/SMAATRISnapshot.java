@@ -0,0 +1,52 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+/**
+ * Immutable snapshot of {@link SMAATRIResults}, safe to read from any thread. Indices refer to
+ * the alternatives and categories of the results.
+ */
+public final class SMAATRISnapshot {
+	private final long iterations;
+	private final double[][] categoryAcceptabilities;
+	
+	SMAATRISnapshot(long iterations, double[][] categoryAcceptabilities) {
+		this.iterations = iterations;
+		this.categoryAcceptabilities = categoryAcceptabilities;
+	}
+	
+	public long getIterations() {
+		return iterations;
+	}
+	
+	public int getNumAlternatives() {
+		return categoryAcceptabilities.length;
+	}
+	
+	/**
+	 * @return the acceptability of the category for the alternative, NaN if there are no iterations yet
+	 */
+	public double getCategoryAcceptability(int altIndex, int catIndex) {
+		return categoryAcceptabilities[altIndex][catIndex];
+	}
+}
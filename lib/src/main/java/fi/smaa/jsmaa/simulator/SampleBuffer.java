@@ -0,0 +1,72 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.io.IOException;
+
+/**
+ * Holds the samples of a block of SMAA-2 iterations in preallocated records, so that a
+ * parallel worker can collect them without sharing a {@link SampleWriter}.
+ */
+final class SampleBuffer {
+	
+	private final double[][] weights;
+	private final double[][] utilities;
+	private final int[][] ranks;
+	private int count;
+	
+	public SampleBuffer(int numCrit, int numAlts, int capacity) {
+		weights = new double[capacity][numCrit];
+		utilities = new double[capacity][numAlts];
+		ranks = new int[capacity][numAlts];
+	}
+	
+	public int getCount() {
+		return count;
+	}
+	
+	/**
+	 * Appends a record.
+	 * 
+	 * @throws IllegalStateException if the buffer is full
+	 */
+	public void add(double[] w, double[] u, int[] r) {
+		if (count == weights.length) {
+			throw new IllegalStateException("Sample buffer is full");
+		}
+		System.arraycopy(w, 0, weights[count], 0, w.length);
+		System.arraycopy(u, 0, utilities[count], 0, u.length);
+		System.arraycopy(r, 0, ranks[count], 0, r.length);
+		count++;
+	}
+	
+	/**
+	 * Appends the records to the writer, in the order they were added, and empties the buffer.
+	 */
+	public void writeTo(SampleWriter writer) throws IOException {
+		for (int i=0;i<count;i++) {
+			writer.write(weights[i], utilities[i], ranks[i]);
+		}
+		count = 0;
+	}
+}
@@ -0,0 +1,131 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Growable buffer of the per-iteration samples of an SMAA-2 simulation: the weights and partial
+ * values of every rank acceptability iteration, and the partial values of every confidence
+ * factor iteration. Values are stored per criterion ([iteration * numAlts + alt]), so that the
+ * column of a single criterion can be replaced without touching the others. The buffer is
+ * split into chunks of a fixed number of iterations, so that offsets fit an int for any
+ * number of iterations and growing never copies the samples.
+ */
+final class SampleCache {
+	
+	/** Approximate number of values per chunk and criterion. */
+	private static final int CHUNK_LENGTH = 1 << 16;
+	
+	private final int numCrit;
+	private final int numAlts;
+	private final int chunkIterations;
+	private int rankAccCount;
+	private int confFacCount;
+	private final List<double[]> weights = new ArrayList<double[]>();
+	private final List<double[][]> rankAccValues = new ArrayList<double[][]>();
+	private final List<double[][]> confFacValues = new ArrayList<double[][]>();
+
+	public SampleCache(int numCrit, int numAlts) {
+		this.numCrit = numCrit;
+		this.numAlts = numAlts;
+		this.chunkIterations = Math.max(1, CHUNK_LENGTH / Math.max(1, Math.max(numCrit, numAlts)));
+	}
+	
+	public int getRankAccCount() {
+		return rankAccCount;
+	}
+	
+	public int getConfFacCount() {
+		return confFacCount;
+	}
+	
+	/**
+	 * @param w the weights, numCrit
+	 * @param pv the partial values, numCrit x numAlts
+	 */
+	public void addRankAccSample(double[] w, double[][] pv) {
+		int chunk = rankAccCount / chunkIterations;
+		if (chunk == weights.size()) {
+			weights.add(new double[chunkIterations * numCrit]);
+			rankAccValues.add(new double[numCrit][chunkIterations * numAlts]);
+		}
+		int pos = rankAccCount % chunkIterations;
+		System.arraycopy(w, 0, weights.get(chunk), pos * numCrit, numCrit);
+		copyIn(pv, rankAccValues.get(chunk), pos);
+		rankAccCount++;
+	}
+	
+	/**
+	 * @param pv the partial values, numCrit x numAlts
+	 */
+	public void addConfFacSample(double[][] pv) {
+		int chunk = confFacCount / chunkIterations;
+		if (chunk == confFacValues.size()) {
+			confFacValues.add(new double[numCrit][chunkIterations * numAlts]);
+		}
+		copyIn(pv, confFacValues.get(chunk), confFacCount % chunkIterations);
+		confFacCount++;
+	}
+	
+	public void getWeights(int iteration, double[] dest) {
+		System.arraycopy(weights.get(iteration / chunkIterations), (iteration % chunkIterations) * numCrit, dest, 0, numCrit);
+	}
+	
+	public void getRankAccValues(int iteration, double[][] dest) {
+		copyOut(rankAccValues.get(iteration / chunkIterations), iteration % chunkIterations, dest);
+	}
+	
+	public void getConfFacValues(int iteration, double[][] dest) {
+		copyOut(confFacValues.get(iteration / chunkIterations), iteration % chunkIterations, dest);
+	}
+	
+	public void setRankAccValues(int iteration, int critIndex, double[] pv) {
+		System.arraycopy(pv, 0, rankAccValues.get(iteration / chunkIterations)[critIndex], (iteration % chunkIterations) * numAlts, numAlts);
+	}
+	
+	public void setConfFacValues(int iteration, int critIndex, double[] pv) {
+		System.arraycopy(pv, 0, confFacValues.get(iteration / chunkIterations)[critIndex], (iteration % chunkIterations) * numAlts, numAlts);
+	}
+	
+	/**
+	 * Discards the samples; the chunks are kept for re-use.
+	 */
+	public void clear() {
+		rankAccCount = 0;
+		confFacCount = 0;
+	}
+
+	private void copyIn(double[][] pv, double[][] chunk, int pos) {
+		for (int c=0;c<numCrit;c++) {
+			System.arraycopy(pv[c], 0, chunk[c], pos * numAlts, numAlts);
+		}
+	}
+
+	private void copyOut(double[][] chunk, int pos, double[][] dest) {
+		for (int c=0;c<numCrit;c++) {
+			System.arraycopy(chunk[c], pos * numAlts, dest[c], 0, numAlts);
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the records of a file written by {@link SampleWriter}, through memory mapped
+ * windows. Reading a record does not allocate.
+ */
+public final class SampleReader implements Closeable {
+	
+	private static final int WINDOW_SIZE = 1 << 30;
+	
+	private final int numCrit;
+	private final int numAlts;
+	private final long count;
+	private final int recordSize;
+	private final int windowRecords;
+	private final RandomAccessFile file;
+	private final MappedByteBuffer[] windows;
+
+	/**
+	 * @throws IOException if the file cannot be read or is not a sample file
+	 */
+	public SampleReader(File f) throws IOException {
+		file = new RandomAccessFile(f, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(SampleWriter.HEADER_SIZE);
+			if (channel.read(header, 0) != SampleWriter.HEADER_SIZE) {
+				throw new IOException("Not a sample file: " + f);
+			}
+			header.rewind();
+			if (header.getInt() != SampleWriter.MAGIC || header.getInt() != SampleWriter.VERSION) {
+				throw new IOException("Not a sample file: " + f);
+			}
+			numCrit = header.getInt();
+			numAlts = header.getInt();
+			count = header.getLong();
+			recordSize = SampleWriter.recordSize(numCrit, numAlts);
+			if (numCrit < 0 || numAlts < 0 || count < 0 || recordSize <= 0
+					|| SampleWriter.HEADER_SIZE + count * recordSize > channel.size()) {
+				throw new IOException("Corrupt sample file: " + f);
+			}
+			windowRecords = Math.max(1, WINDOW_SIZE / recordSize);
+			windows = new MappedByteBuffer[(int) ((count + windowRecords - 1) / windowRecords)];
+			for (int i=0;i<windows.length;i++) {
+				long first = (long) i * windowRecords;
+				long records = Math.min(windowRecords, count - first);
+				windows[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						SampleWriter.HEADER_SIZE + first * recordSize, records * recordSize);
+			}
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+	
+	public int getNumCriteria() {
+		return numCrit;
+	}
+	
+	public int getNumAlternatives() {
+		return numAlts;
+	}
+	
+	/**
+	 * @return the number of records
+	 */
+	public long getCount() {
+		return count;
+	}
+	
+	/**
+	 * Reads a record into the given arrays; any of them may be null to skip that part.
+	 * 
+	 * @param index the index of the record, 0 <= index < getCount()
+	 * @throws IndexOutOfBoundsException if there is no such record
+	 */
+	public void read(long index, double[] weights, double[] utilities, int[] ranks) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("No record " + index);
+		}
+		MappedByteBuffer w = windows[(int) (index / windowRecords)];
+		int pos = (int) (index % windowRecords) * recordSize;
+		if (weights != null) {
+			for (int i=0;i<numCrit;i++) {
+				weights[i] = w.getDouble(pos + 8 * i);
+			}
+		}
+		pos += 8 * numCrit;
+		if (utilities != null) {
+			for (int i=0;i<numAlts;i++) {
+				utilities[i] = w.getDouble(pos + 8 * i);
+			}
+		}
+		pos += 8 * numAlts;
+		if (ranks != null) {
+			for (int i=0;i<numAlts;i++) {
+				ranks[i] = w.getInt(pos + 4 * i);
+			}
+		}
+	}
+
+	public void close() throws IOException {
+		file.close();
+	}
+}
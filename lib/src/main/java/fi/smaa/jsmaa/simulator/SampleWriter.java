@@ -0,0 +1,148 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes the samples of every SMAA-2 iteration (weights, utilities and ranks) to a binary file
+ * of fixed-size records, through a memory mapped window, without allocating per iteration.
+ * 
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: the magic number, the format
+ * version, the number of criteria and alternatives (ints) and the number of records (long).
+ * Each record holds the weights (numCrit doubles), the utilities (numAlts doubles) and the
+ * ranks (numAlts ints, 0 being the best rank). All values are big-endian. The file may be
+ * longer than the records it holds; the record count in the header is written on close.
+ * 
+ * @see SampleReader
+ */
+public final class SampleWriter implements Closeable {
+	
+	static final int MAGIC = 0x4a534d53;
+	static final int VERSION = 1;
+	public static final int HEADER_SIZE = 32;
+	private static final int WINDOW_SIZE = 1 << 23;
+	
+	private final int numCrit;
+	private final int numAlts;
+	private final int recordSize;
+	private final int windowRecords;
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private MappedByteBuffer window;
+	private long count;
+
+	/**
+	 * Creates the file, replacing any existing one.
+	 */
+	public SampleWriter(File file, int numCrit, int numAlts) throws IOException {
+		this.numCrit = numCrit;
+		this.numAlts = numAlts;
+		this.recordSize = recordSize(numCrit, numAlts);
+		this.windowRecords = Math.max(1, WINDOW_SIZE / recordSize);
+		this.file = new RandomAccessFile(file, "rw");
+		this.file.setLength(0);
+		this.channel = this.file.getChannel();
+		writeHeader();
+	}
+	
+	static int recordSize(int numCrit, int numAlts) {
+		return 8 * numCrit + 12 * numAlts;
+	}
+	
+	public int getNumCriteria() {
+		return numCrit;
+	}
+	
+	public int getNumAlternatives() {
+		return numAlts;
+	}
+	
+	/**
+	 * @return the number of records written
+	 */
+	public long getCount() {
+		return count;
+	}
+	
+	/**
+	 * Appends a record.
+	 * 
+	 * @param weights numCrit weights
+	 * @param utilities numAlts utilities
+	 * @param ranks numAlts ranks, [i] = rank of alternative i
+	 */
+	public void write(double[] weights, double[] utilities, int[] ranks) throws IOException {
+		if (window == null || !window.hasRemaining()) {
+			window = channel.map(FileChannel.MapMode.READ_WRITE,
+					HEADER_SIZE + count * recordSize, (long) windowRecords * recordSize);
+		}
+		for (int i=0;i<numCrit;i++) {
+			window.putDouble(weights[i]);
+		}
+		for (int i=0;i<numAlts;i++) {
+			window.putDouble(utilities[i]);
+		}
+		for (int i=0;i<numAlts;i++) {
+			window.putInt(ranks[i]);
+		}
+		count++;
+	}
+	
+	/**
+	 * Writes the record count to the header and flushes the records to disk.
+	 */
+	public void flush() throws IOException {
+		if (window != null) {
+			window.force();
+		}
+		writeHeader();
+		channel.force(false);
+	}
+
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			window = null;
+			file.close();
+		}
+	}
+
+	private void writeHeader() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(numCrit);
+		header.putInt(numAlts);
+		header.putLong(count);
+		header.rewind();
+		channel.write(header, 0);
+	}
+}
@@ -65,11 +65,7 @@ public class Sampler {
 		}
 		
 		RankSampler rs = new RankSampler(ranks);
-		double[] w = rs.sampleWeights(random);
-				
-		for (int i=0;i<w.length;i++) {
-			target[i] = w[i];
-		}
+		rs.sampleWeights(random, target);
 	}
 
 	private void sample(CardinalCriterion c, double[] target) {
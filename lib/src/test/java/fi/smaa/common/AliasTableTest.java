@@ -0,0 +1,63 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class AliasTableTest {
+
+	@Test
+	public void testFrequencies() {
+		double[] weights = new double[] { 0.1, 0.0, 0.4, 0.2, 0.3 };
+		AliasTable table = new AliasTable(weights);
+		assertEquals(weights.length, table.size());
+		
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		final int n = 100000;
+		int[] counts = new int[weights.length];
+		for (int i=0;i<n;i++) {
+			counts[table.sample(random)]++;
+		}
+		for (int i=0;i<weights.length;i++) {
+			assertEquals(weights[i], (double) counts[i] / n, 0.01);
+		}
+		assertEquals(0, counts[1]);
+	}
+	
+	@Test
+	public void testUnnormalized() {
+		AliasTable table = new AliasTable(new double[] { 0.0, 3.0, 0.0 });
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		for (int i=0;i<100;i++) {
+			assertEquals(1, table.sample(random));
+		}
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testNegativeWeight() {
+		new AliasTable(new double[] { 0.5, -0.5, 1.0 });
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testEmpty() {
+		new AliasTable(new double[0]);
+	}
+}
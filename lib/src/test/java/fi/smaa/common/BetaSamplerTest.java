@@ -0,0 +1,69 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BetaSamplerTest {
+	
+	@Test
+	public void testMoments() {
+		double[][] params = { {2.0, 3.0}, {5.0, 1.5}, {0.5, 0.5}, {0.3, 4.0}, {4.0, 0.8}, {1.0, 1.0} };
+		RandomUtil random = RandomUtil.create(RandomUtil.Engine.XOSHIRO256, 666);
+		int n = 100000;
+		for (double[] p : params) {
+			double a = p[0];
+			double b = p[1];
+			BetaSampler sampler = new BetaSampler(a, b, 0.0, 1.0);
+			double sum = 0.0;
+			double sumSq = 0.0;
+			for (int i=0;i<n;i++) {
+				double x = sampler.sample(random);
+				assertTrue(x >= 0.0 && x <= 1.0);
+				sum += x;
+				sumSq += x * x;
+			}
+			double mean = a / (a + b);
+			double var = a * b / ((a + b) * (a + b) * (a + b + 1));
+			assertEquals(mean, sum / n, 4.0 * Math.sqrt(var / n));
+			assertEquals(var, sumSq / n - (sum / n) * (sum / n), 0.05 * var);
+		}
+	}
+	
+	@Test
+	public void testRescaling() {
+		BetaSampler sampler = new BetaSampler(2.0, 2.0, 10.0, 12.0);
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		double sum = 0.0;
+		for (int i=0;i<10000;i++) {
+			double x = random.createBeta(sampler);
+			assertTrue(x >= 10.0 && x <= 12.0);
+			sum += x;
+		}
+		assertEquals(11.0, sum / 10000, 0.02);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidShape() {
+		new BetaSampler(0.0, 1.0, 0.0, 1.0);
+	}
+}
@@ -0,0 +1,103 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.stat.correlation.StorelessCovariance;
+import org.apache.commons.math3.stat.descriptive.moment.Mean;
+import org.junit.Test;
+
+public class MultivariateGaussianSamplerTest {
+	private static final int N_SAMPLES = 20000;
+
+	@Test
+	public void testMeanAndCovariance() {
+		double[] mean = new double[] { 1.0, -2.0, 0.0, 3.0 };
+		double[][] cov = new double[][] {
+				{ 1.0, 0.5, 0.0, 0.2 },
+				{ 0.5, 2.0, 0.0, 0.0 },
+				{ 0.0, 0.0, 0.0, 0.0 },
+				{ 0.2, 0.0, 0.0, 0.5 } };
+		MultivariateGaussianSampler sampler = new MultivariateGaussianSampler(
+				new ArrayRealVector(mean), new Array2DRowRealMatrix(cov));
+		assertEquals(3, sampler.getRank());
+		
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		StorelessCovariance sampleCov = new StorelessCovariance(mean.length);
+		Mean[] sampleMean = new Mean[mean.length];
+		for (int i=0;i<mean.length;i++) {
+			sampleMean[i] = new Mean();
+		}
+		double[] x = new double[mean.length];
+		for (int k=0;k<N_SAMPLES;k++) {
+			sampler.sample(random, x);
+			sampleCov.increment(x);
+			for (int i=0;i<mean.length;i++) {
+				sampleMean[i].increment(x[i]);
+			}
+		}
+		for (int i=0;i<mean.length;i++) {
+			assertEquals(mean[i], sampleMean[i].getResult(), 0.05);
+			assertArrayEquals(cov[i], sampleCov.getData()[i], 0.05);
+		}
+	}
+	
+	@Test
+	public void testSingular() {
+		RealMatrix cov = new Array2DRowRealMatrix(new double[][] { { 1.0, 1.0 }, { 1.0, 1.0 } });
+		MultivariateGaussianSampler sampler = new MultivariateGaussianSampler(new ArrayRealVector(2), cov);
+		double[] x = new double[2];
+		sampler.sample(RandomUtil.createWithFixedSeed(), x);
+		assertEquals(x[0], x[1], 1E-12);
+	}
+	
+	@Test
+	public void testZeroVariance() {
+		double[] mean = new double[] { 1.0, 2.0, 3.0 };
+		MultivariateGaussianSampler sampler = new MultivariateGaussianSampler(
+				new ArrayRealVector(mean), new Array2DRowRealMatrix(3, 3));
+		assertEquals(0, sampler.getRank());
+		double[] x = new double[3];
+		sampler.sample(RandomUtil.createWithFixedSeed(), x);
+		assertArrayEquals(mean, x, 0.0);
+	}
+	
+	@Test
+	public void testWithMean() {
+		RealMatrix cov = new Array2DRowRealMatrix(new double[][] { { 1.0, 0.3 }, { 0.3, 1.0 } });
+		MultivariateGaussianSampler s1 = new MultivariateGaussianSampler(new ArrayRealVector(2), cov);
+		MultivariateGaussianSampler s2 = s1.withMean(new ArrayRealVector(new double[] { 10.0, 20.0 }));
+		double[] x1 = new double[2];
+		double[] x2 = new double[2];
+		s1.sample(RandomUtil.createWithFixedSeed(), x1);
+		s2.sample(RandomUtil.createWithFixedSeed(), x2);
+		assertEquals(x1[0] + 10.0, x2[0], 1E-12);
+		assertEquals(x1[1] + 20.0, x2[1], 1E-12);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testWrongDimension() {
+		new MultivariateGaussianSampler(new ArrayRealVector(3), new Array2DRowRealMatrix(2, 2));
+	}
+}
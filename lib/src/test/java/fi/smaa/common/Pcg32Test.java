@@ -1,9 +1,6 @@
 /*
-    This file is part of JSMAA.
-    JSMAA is distributed from http://smaa.fi/.
-
-    (c) Tommi Tervonen, 2009-2010.
-    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009	
 
     JSMAA is free software: you can redistribute it and/or modify
     it under the terms of the GNU General Public License as published by
@@ -18,27 +15,33 @@
     You should have received a copy of the GNU General Public License
     along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
 */
-package fi.smaa.common;
 
-import static org.junit.Assert.*;
+package fi.smaa.common;
 
+import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 
-import fi.smaa.common.ValueIndexPair;
-
-
-public class ValueIndexPairTest {
-
+public class Pcg32Test {
+	
+	@Test
+	public void testReferenceValues() {
+		// output of the pcg32 demo program, seeded with 42 on stream 54
+		Pcg32 r = new Pcg32(42, 54);
+		int[] expected = { 0xa15c02b7, 0x7b47f409, 0xba1d3330, 0x83d2f293, 0xbfa4784b, 0xcbed606e };
+		for (int i=0;i<expected.length;i++) {
+			assertEquals(expected[i], r.nextInt());
+		}
+	}
+	
 	@Test
-	public void testCompare() {
-		ValueIndexPair p1 = new ValueIndexPair(0, 0.0);
-		ValueIndexPair p2 = new ValueIndexPair(0, -1.0);
-		ValueIndexPair p3 = new ValueIndexPair(0, 1.0);
-		ValueIndexPair p4 = new ValueIndexPair(1, 0.0);
-		
-		assertEquals(-1, p1.compareTo(p2));
-		assertEquals(1, p1.compareTo(p3));
-		assertEquals(0, p1.compareTo(p4));
+	public void testAdvance() {
+		Pcg32 r1 = new Pcg32(7);
+		Pcg32 r2 = new Pcg32(7);
+		for (int i=0;i<1000;i++) {
+			r1.nextInt();
+		}
+		r2.advance(1000);
+		assertEquals(r1.nextInt(), r2.nextInt());
 	}
 }
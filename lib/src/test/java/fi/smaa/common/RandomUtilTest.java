@@ -20,6 +20,8 @@ package fi.smaa.common;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -66,6 +68,32 @@ public class RandomUtilTest {
 		assertEquals(0.5, destCount[1], 0.01);
 	}
 	
+	@Test
+	public void testCreateSumToOneSorted() {
+		double[] dest = new double[3];
+		double[] mean = new double[3];
+		int iters = 10000;
+		for (int i=0;i<iters;i++) {
+			random.createSumToOneSorted(dest);
+			assertTrue(dest[0] <= dest[1] && dest[1] <= dest[2]);
+			assertEquals(1.0, dest[0] + dest[1] + dest[2], 0.0000001);
+			for (int j=0;j<3;j++) {
+				mean[j] += dest[j] / iters;
+			}
+		}
+		// expected order statistics of the uniform 3-simplex
+		assertEquals(1.0 / 9.0, mean[0], 0.01);
+		assertEquals(5.0 / 18.0, mean[1], 0.01);
+		assertEquals(11.0 / 18.0, mean[2], 0.01);
+	}
+	
+	@Test
+	public void testCreateSumToRandSingle() {
+		double[] dest = new double[1];
+		random.createSumToRand(dest, 2.0);
+		assertEquals(2.0, dest[0], 0.0);
+	}
+	
 	@Test
 	public void testCreateUnif01() {
 		double ran = random.createUnif01();
@@ -82,4 +110,126 @@ public class RandomUtilTest {
 		gaus = random.createGaussian(1.0, 0.0);
 		assertEquals(1.0, gaus, 0.0001);
 	}
+	
+	@Test
+	public void testQuasiRandomGaussian() {
+		RandomUtil qr = RandomUtil.createQuasiRandom(1);
+		assertTrue(qr.isQuasiRandom());
+		double sum = 0.0;
+		int n = 1000;
+		for (int i=0;i<n;i++) {
+			qr.nextPoint();
+			sum += qr.createGaussian(1.0, 2.0);
+		}
+		assertEquals(1.0, sum / n, 0.02);
+	}
+	
+	@Test
+	public void testQuasiRandomBeta() {
+		RandomUtil qr = RandomUtil.createQuasiRandom(1);
+		double sum = 0.0;
+		int n = 1000;
+		for (int i=0;i<n;i++) {
+			qr.nextPoint();
+			double b = qr.createBeta(1.0, 2.0, 2.0, 3.0);
+			assertTrue(b >= 1.0 && b <= 2.0);
+			sum += b;
+		}
+		assertEquals(1.4, sum / n, 0.01);
+	}
+	
+	@Test
+	public void testCreateBetaMatchesSampler() {
+		RandomUtil r1 = RandomUtil.createWithFixedSeed();
+		RandomUtil r2 = RandomUtil.createWithFixedSeed();
+		BetaSampler sampler = new BetaSampler(2.0, 3.0, 1.0, 2.0);
+		for (int i=0;i<10;i++) {
+			assertEquals(r2.createBeta(sampler), r1.createBeta(1.0, 2.0, 2.0, 3.0), 0.0);
+		}
+		assertEquals(r2.createBeta(new BetaSampler(0.5, 0.5, 0.0, 1.0)), r1.createBeta(0.0, 1.0, 0.5, 0.5), 0.0);
+	}
+	
+	@Test
+	public void testQuasiRandomSplit() {
+		RandomUtil qr = RandomUtil.createQuasiRandom(1);
+		assertTrue(qr.split().isQuasiRandom());
+		assertFalse(random.split().isQuasiRandom());
+	}
+	
+	@Test
+	public void testSubstreamIndependentOfDraws() {
+		RandomUtil s1 = random.substream(RandomUtil.key("a", "b"));
+		random.createUnif01();
+		RandomUtil s2 = random.substream(RandomUtil.key("a", "b"));
+		RandomUtil s3 = random.substream(RandomUtil.key("ab"));
+		double x = s1.createUnif01();
+		assertEquals(x, s2.createUnif01(), 0.0);
+		assertFalse(x == s3.createUnif01());
+		assertFalse(s2.substream(1).isQuasiRandom());
+		assertFalse(RandomUtil.createQuasiRandom(1).substream(1).isQuasiRandom());
+	}
+	
+	@Test
+	public void testStateRestoresStream() throws Exception {
+		RandomUtil[] streams = { RandomUtil.createWithFixedSeed(), RandomUtil.createWithRandomSeed(),
+				random.substream(1), RandomUtil.createQuasiRandom(1) };
+		for (RandomUtil r : streams) {
+			r.nextPoint();
+			r.createGaussian(0.0, 1.0);
+			byte[] state = r.getState();
+			double[] expected = { r.createGaussian(0.0, 1.0), r.createUnif01(), r.createGaussian(0.0, 1.0) };
+			r.setState(state);
+			assertEquals(expected[0], r.createGaussian(0.0, 1.0), 0.0);
+			assertEquals(expected[1], r.createUnif01(), 0.0);
+			assertEquals(expected[2], r.createGaussian(0.0, 1.0), 0.0);
+		}
+	}
+	
+	@Test
+	public void testQuasiRandomStateIsCompact() throws Exception {
+		RandomUtil r = RandomUtil.createQuasiRandom(3).split();
+		for (int i=0;i<10;i++) {
+			r.nextPoint();
+			r.createUnif01();
+		}
+		r.createUnif01();
+		byte[] state = r.getState();
+		assertTrue(state.length < 4096);
+		double x = r.createUnif01();
+		r.nextPoint();
+		double y = r.createUnif01();
+		
+		RandomUtil resumed = RandomUtil.createQuasiRandom(3).split();
+		resumed.setState(state);
+		assertEquals(x, resumed.createUnif01(), 0.0);
+		resumed.nextPoint();
+		assertEquals(y, resumed.createUnif01(), 0.0);
+	}
+	
+	@Test(expected=IOException.class)
+	public void testStateOfOtherEngine() throws Exception {
+		byte[] state = RandomUtil.create(RandomUtil.Engine.XOSHIRO256, 1).getState();
+		RandomUtil.createWithFixedSeed().setState(state);
+	}
+	
+	@Test
+	public void testEngines() throws Exception {
+		for (RandomUtil.Engine e : RandomUtil.Engine.values()) {
+			RandomUtil r = RandomUtil.create(e, 666);
+			double sum = 0.0;
+			for (int i=0;i<10000;i++) {
+				double u = r.createUnif01();
+				assertTrue(u > 0.0 && u < 1.0);
+				sum += u;
+			}
+			assertEquals(0.5, sum / 10000, 0.02);
+			RandomUtil s = r.split();
+			byte[] state = s.getState();
+			double x = s.createGaussian(0.0, 1.0);
+			s.setState(state);
+			assertEquals(x, s.createGaussian(0.0, 1.0), 0.0);
+			assertEquals(r.substream(3).createUnif01(), r.substream(3).createUnif01(), 0.0);
+		}
+		assertEquals(RandomUtil.createWithFixedSeed().createUnif01(), RandomUtil.create(RandomUtil.Engine.JDK, 666).createUnif01(), 0.0);
+	}
 }
@@ -0,0 +1,76 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.math3.random.JDKRandomGenerator;
+import org.junit.Test;
+
+public class ScrambledHaltonSequenceTest {
+	
+	private ScrambledHaltonSequence create(long seed) {
+		JDKRandomGenerator engine = new JDKRandomGenerator();
+		engine.setSeed(seed);
+		return new ScrambledHaltonSequence(engine);
+	}
+
+	@Test
+	public void testCoordinatesInUnitInterval() {
+		ScrambledHaltonSequence seq = create(1);
+		for (int i=0;i<1000;i++) {
+			seq.nextPoint();
+			for (int k=0;k<ScrambledHaltonSequence.MAX_DIMENSION + 2;k++) {
+				double u = seq.nextCoordinate();
+				assertTrue(u > 0.0 && u < 1.0);
+			}
+		}
+	}
+	
+	@Test
+	public void testLowDiscrepancy() {
+		// the mean of the first 1024 points is much closer to 0.5 than for pseudo-random numbers
+		ScrambledHaltonSequence seq = create(1);
+		double[] sum = new double[3];
+		int n = 1024;
+		for (int i=0;i<n;i++) {
+			seq.nextPoint();
+			for (int k=0;k<sum.length;k++) {
+				sum[k] += seq.nextCoordinate();
+			}
+		}
+		for (int k=0;k<sum.length;k++) {
+			assertEquals(0.5, sum[k] / n, 0.002);
+		}
+	}
+	
+	@Test
+	public void testRandomized() {
+		ScrambledHaltonSequence s1 = create(1);
+		ScrambledHaltonSequence s2 = create(1);
+		ScrambledHaltonSequence s3 = create(2);
+		s1.nextPoint();
+		s2.nextPoint();
+		s3.nextPoint();
+		double u1 = s1.nextCoordinate();
+		assertEquals(u1, s2.nextCoordinate(), 0.0);
+		assertFalse(u1 == s3.nextCoordinate());
+	}
+}
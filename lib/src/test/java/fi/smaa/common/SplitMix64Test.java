@@ -0,0 +1,47 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SplitMix64Test {
+	
+	@Test
+	public void testReferenceValues() {
+		// values of java.util.SplittableRandom(1234567)
+		SplitMix64 r = new SplitMix64(1234567L);
+		assertEquals(6457827717110365317L, r.nextLong());
+		assertEquals(3203168211198807973L, r.nextLong());
+		assertEquals(-8629252141511181193L, r.nextLong());
+		SplitMix64 child = r.split();
+		assertEquals(-4983720440820048501L, child.nextLong());
+		assertEquals(7804594928223864054L, r.nextLong());
+	}
+	
+	@Test
+	public void testNextDouble() {
+		SplitMix64 r = new SplitMix64(1);
+		for (int i=0;i<1000;i++) {
+			double d = r.nextDouble();
+			assertEquals(0.5, d, 0.5);
+		}
+	}
+}
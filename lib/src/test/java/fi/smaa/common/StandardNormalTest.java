@@ -0,0 +1,58 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009-2010	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.junit.Test;
+
+public class StandardNormalTest {
+	
+	private NormalDistribution dist = new NormalDistribution(0.0, 1.0);
+
+	@Test
+	public void testCdf() {
+		for (double x=-6.0;x<=6.0;x+=0.25) {
+			assertEquals(dist.cumulativeProbability(x), StandardNormal.cdf(x), 1e-12);
+		}
+	}
+	
+	@Test
+	public void testQuantile() {
+		double[] ps = {1e-10, 1e-5, 0.01, 0.02425, 0.1, 0.3, 0.5, 0.7, 0.9, 0.99, 1 - 1e-5};
+		for (double p : ps) {
+			double x = StandardNormal.quantile(p);
+			assertEquals(p, StandardNormal.cdf(x), p * 1e-9);
+		}
+		assertEquals(0.0, StandardNormal.quantile(0.5), 1e-12);
+		assertTrue(Double.isInfinite(StandardNormal.quantile(0.0)));
+		assertTrue(Double.isInfinite(StandardNormal.quantile(1.0)));
+	}
+	
+	@Test
+	public void testTruncatedQuantile() {
+		assertEquals(0.0, StandardNormal.truncatedQuantile(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 0.5), 1e-12);
+		assertEquals(StandardNormal.quantile(0.75), StandardNormal.truncatedQuantile(0.0, Double.POSITIVE_INFINITY, 0.5), 1e-9);
+		// far in the upper tail, where the CDF is 1 in double precision
+		double x = StandardNormal.truncatedQuantile(10.0, 11.0, 0.5);
+		assertTrue(x > 10.0 && x < 10.1);
+		assertTrue(Double.isNaN(StandardNormal.truncatedQuantile(1.0, 0.0, 0.5)));
+	}
+}
@@ -0,0 +1,99 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import fi.smaa.common.ValueRanker.TiePolicy;
+
+public class ValueRankerTest {
+
+	@Test
+	public void testSharedRanks() {
+		int[] ranks = new int[5];
+		ValueRanker.rankValues(new double[] { 1.0, 3.0, 2.0, 3.0, 0.5 }, ranks);
+		assertArrayEquals(new int[] { 2, 0, 1, 0, 3 }, ranks);
+	}
+	
+	@Test
+	public void testLargeAgainstNaiveRanking() {
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		final int n = 1000;
+		double[] values = new double[n];
+		for (int i=0;i<n;i++) {
+			// many ties
+			values[i] = Math.floor(random.createUnif01() * 100.0);
+		}
+		ValueRanker ranker = new ValueRanker(n, TiePolicy.SHARED);
+		int[] ranks = new int[n];
+		ranker.rank(values, ranks, null);
+		
+		double[] distinct = distinctDescending(values);
+		for (int i=0;i<n;i++) {
+			assertEquals(Arrays.binarySearch(distinct, -values[i]), ranks[i]);
+		}
+	}
+	
+	@Test
+	public void testRandomTieBreaking() {
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		double[] values = new double[] { 2.0, 1.0, 2.0, 0.0, 2.0 };
+		ValueRanker ranker = new ValueRanker(values.length, TiePolicy.RANDOM);
+		int[] ranks = new int[values.length];
+		int[][] counts = new int[values.length][values.length];
+		final int iter = 30000;
+		for (int k=0;k<iter;k++) {
+			ranker.rank(values, ranks, random);
+			Set<Integer> seen = new HashSet<Integer>();
+			for (int i=0;i<ranks.length;i++) {
+				seen.add(ranks[i]);
+				counts[i][ranks[i]]++;
+			}
+			assertEquals(values.length, seen.size());
+			assertEquals(3, ranks[1]);
+			assertEquals(4, ranks[3]);
+		}
+		for (int i : new int[] { 0, 2, 4 }) {
+			for (int r=0;r<3;r++) {
+				assertEquals(1.0 / 3.0, (double) counts[i][r] / iter, 0.02);
+			}
+		}
+	}
+	
+	private static double[] distinctDescending(double[] values) {
+		Set<Double> set = new HashSet<Double>();
+		for (double v : values) {
+			set.add(-v);
+		}
+		double[] distinct = new double[set.size()];
+		int i = 0;
+		for (Double v : set) {
+			distinct[i++] = v;
+		}
+		Arrays.sort(distinct);
+		return distinct;
+	}
+}
@@ -0,0 +1,48 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+public class Xoshiro256StarStarTest {
+	
+	@Test
+	public void testReferenceValues() {
+		Xoshiro256StarStar r = new Xoshiro256StarStar(1, 2, 3, 4);
+		assertEquals(11520L, r.nextLong());
+		assertEquals(0L, r.nextLong());
+		assertEquals(1509978240L, r.nextLong());
+		assertEquals(1215971899390074240L, r.nextLong());
+	}
+	
+	@Test
+	public void testSplitJumpsAhead() {
+		Xoshiro256StarStar r = new Xoshiro256StarStar(666);
+		Xoshiro256StarStar copy = new Xoshiro256StarStar(666);
+		Xoshiro256StarStar jumped = new Xoshiro256StarStar(666);
+		jumped.jump();
+		Xoshiro256StarStar child = r.split();
+		assertEquals(copy.nextLong(), child.nextLong());
+		assertEquals(jumped.nextLong(), r.nextLong());
+		assertFalse(r.nextLong() == child.nextLong());
+	}
+}
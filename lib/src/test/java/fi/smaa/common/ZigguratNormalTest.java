@@ -0,0 +1,53 @@
+/*
+	This file is part of JSMAA.
+	(c) Tommi Tervonen, 2009	
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package fi.smaa.common;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.Test;
+
+public class ZigguratNormalTest {
+	
+	@Test
+	public void testDistribution() {
+		RandomGenerator engine = new Xoshiro256StarStar(666);
+		double[] points = { -3.5, -2.0, -1.0, -0.3, 0.0, 0.5, 1.5, 3.5 };
+		int[] below = new int[points.length];
+		int n = 400000;
+		double sum = 0.0;
+		double sumSq = 0.0;
+		for (int i=0;i<n;i++) {
+			double x = ZigguratNormal.sample(engine);
+			sum += x;
+			sumSq += x * x;
+			for (int j=0;j<points.length;j++) {
+				if (x < points[j]) {
+					below[j]++;
+				}
+			}
+		}
+		assertEquals(0.0, sum / n, 0.01);
+		assertEquals(1.0, sumSq / n, 0.01);
+		for (int j=0;j<points.length;j++) {
+			double p = StandardNormal.cdf(points[j]);
+			assertEquals(p, (double) below[j] / n, 4.0 * Math.sqrt(p * (1.0 - p) / n));
+		}
+	}
+}
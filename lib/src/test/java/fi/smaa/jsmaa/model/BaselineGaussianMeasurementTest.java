@@ -24,6 +24,7 @@ package fi.smaa.jsmaa.model;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -78,4 +79,11 @@ public class BaselineGaussianMeasurementTest {
 		assertFalse(m.equals(new BaselineGaussianMeasurement(2.0, 1.0)));
 		assertFalse(m.equals("m"));
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testNoCdfQuantile() {
+		BaselineGaussianMeasurement m = new BaselineGaussianMeasurement(0.0, 1.0);
+		assertTrue(Double.isNaN(m.cdf(0.0)));
+		assertTrue(Double.isNaN(m.quantile(0.5)));
+	}
+}
@@ -24,6 +24,8 @@ package fi.smaa.jsmaa.model;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.drugis.common.JUnitUtil;
 import org.junit.Before;
@@ -62,6 +64,16 @@ public class BetaMeasurementTest {
 		JUnitUtil.testSetter(new BetaMeasurement(), BetaMeasurement.PROPERTY_ALPHA, 2.0, 3.0);
 	}
 	
+	@Test
+	public void testSamplerInvalidatedOnChange() {
+		BetaMeasurement meas = new BetaMeasurement(1.0, 2.0, 3.0, 4.0);
+		assertSame(meas.getSampler(), meas.getSampler());
+		meas.setAlpha(3.0);
+		assertEquals(3.0, meas.getSampler().getAlpha(), 0.0);
+		meas.setMax(5.0);
+		assertEquals(5.0, meas.getSampler().getMax(), 0.0);
+	}
+	
 	@Test
 	public void testSetBeta() {
 		JUnitUtil.testSetter(new BetaMeasurement(), BetaMeasurement.PROPERTY_BETA, 2.0, 3.0);
@@ -105,6 +117,16 @@ public class BetaMeasurementTest {
 		assertEquals(3.0, m.sample(random), 0.99);
 	}	
 	
+	@Test
+	public void testSampleTruncated() {
+		BetaMeasurement m = new BetaMeasurement(10.0, 20.0, 2.0, 4.0);
+		for (int i=0;i<100;i++) {
+			double x = m.sampleTruncated(random, 3.5, Double.POSITIVE_INFINITY);
+			assertTrue(x >= 3.5 && x <= 4.0);
+		}
+		assertTrue(Double.isNaN(m.sampleTruncated(random, 4.5, 5.0)));
+	}
+	
 	@Test
 	public void testEquals() {
 		BetaMeasurement m = new BetaMeasurement(1.0, 2.0, 3.0, 4.0);
@@ -115,4 +137,19 @@ public class BetaMeasurementTest {
 		assertFalse(m.equals(new BetaMeasurement(1.0, 2.0, 3.0, 5.0)));
 		assertFalse(m.equals("m"));
 	}
+	
+	@Test
+	public void testGetLowerBound() {
+		assertEquals(1.0, new BetaMeasurement(2.0, 2.0, 1.0, 3.0).getLowerBound(), 0.0);
+	}
+	
+	@Test
+	public void testCdfQuantile() {
+		BetaMeasurement m = new BetaMeasurement(2.0, 2.0, 1.0, 3.0);
+		assertEquals(0.0, m.cdf(0.5), 0.0);
+		assertEquals(0.5, m.cdf(2.0), 1E-12);
+		assertEquals(1.0, m.cdf(3.0), 0.0);
+		assertEquals(2.0, m.quantile(0.5), 1E-9);
+		assertEquals(0.15625, m.cdf(1.5), 1E-12);
+	}
 }
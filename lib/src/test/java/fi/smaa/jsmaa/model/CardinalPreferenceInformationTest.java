@@ -23,11 +23,17 @@
 package fi.smaa.jsmaa.model;
 
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.beans.PropertyChangeListener;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.drugis.common.JUnitUtil;
@@ -87,20 +93,20 @@ public class CardinalPreferenceInformationTest {
 	@Test(expected=IterationException.class)
 	public void testSampleOverUppberBoundWeightsThrows() throws IterationException {
 		info.setMeasurement(crit, new Interval(0.0, 0.4));
-		info.sampleWeights(random);
+		info.sampleWeights(random, new double[1]);
 	}
 	
 	@Test(expected=IterationException.class)
 	public void testSampleInfeasibleWeightsThrows() throws IterationException {
 		info.setMeasurement(crit, new ExactMeasurement(0.2));
-		info.sampleWeights(random);
+		info.sampleWeights(random, new double[1]);
 	}	
 	
 	@Test
 	public void testSampleWeights() throws Exception {
 		info.setMeasurement(crit, new ExactMeasurement(1.0));
-		double[] w = info.sampleWeights(random);
-		assertEquals(1, w.length);
+		double[] w = new double[1];
+		info.sampleWeights(random, w);
 		assertEquals(1.0, w[0], 0.0000001);
 	}
 	
@@ -114,7 +120,8 @@ public class CardinalPreferenceInformationTest {
 		info = new CardinalPreferenceInformation(list);
 		info.setMeasurement(c1, new Interval(0.0, 1.0));
 		info.setMeasurement(c2, new ExactMeasurement(0.2));
-		double[] w = info.sampleWeights(random);
+		double[] w = new double[2];
+		info.sampleWeights(random, w);
 		assertEquals(0.8, w[0], 0.000001);
 		assertEquals(0.2, w[1], 0.000001);
 	}
@@ -180,7 +187,8 @@ public class CardinalPreferenceInformationTest {
 		info.setMeasurement(g24, new Interval(0.0, 0.04));
 		info.setMeasurement(g251, new Interval(0.15, 0.28));
 		
-		double[] w = info.sampleWeights(random);
+		double[] w = new double[crit.size()];
+		info.sampleWeights(random, w);
 		assertTrue(w[0] >= 0.06);
 		assertTrue(w[0] <= 0.15);
 		
@@ -216,4 +224,139 @@ public class CardinalPreferenceInformationTest {
 	public void testGetMeasurement() {
 		assertTrue(info.getMeasurement(crit) instanceof ExactMeasurement);
 	}
+	
+	private CardinalPreferenceInformation createTightlyConstrained(int n) {
+		List<Criterion> list = new ArrayList<Criterion>();
+		for (int i=0;i<n;i++) {
+			list.add(new ScaleCriterion("c" + i));
+		}
+		CardinalPreferenceInformation pref = new CardinalPreferenceInformation(list);
+		for (int i=0;i<n;i++) {
+			pref.setMeasurement(list.get(i), new Interval(1.0 / n - 0.01, 1.0 / n + 0.01));
+		}
+		return pref;
+	}
+	
+	@Test
+	public void testHitAndRunTightConstraints() throws IterationException {
+		int n = 8;
+		CardinalPreferenceInformation pref = createTightlyConstrained(n);
+		pref.setSamplingStrategy(CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN);
+		double[] mean = new double[n];
+		int iters = 2000;
+		double[] w = new double[n];
+		for (int iter=0;iter<iters;iter++) {
+			pref.sampleWeights(random, w);
+			double sum = 0.0;
+			for (int i=0;i<n;i++) {
+				assertTrue(w[i] >= 1.0 / n - 0.01 - 1E-10 && w[i] <= 1.0 / n + 0.01 + 1E-10);
+				sum += w[i];
+				mean[i] += w[i] / iters;
+			}
+			assertEquals(1.0, sum, 1E-10);
+		}
+		for (int i=0;i<n;i++) {
+			assertEquals(1.0 / n, mean[i], 0.002);
+		}
+	}
+	
+	@Test
+	public void testHitAndRunWithExactWeights() throws IterationException {
+		List<Criterion> list = new ArrayList<Criterion>();
+		ScaleCriterion c1 = new ScaleCriterion("c1");
+		ScaleCriterion c2 = new ScaleCriterion("c2");
+		ScaleCriterion c3 = new ScaleCriterion("c3");
+		list.add(c1);
+		list.add(c2);
+		list.add(c3);
+		CardinalPreferenceInformation pref = new CardinalPreferenceInformation(list);
+		pref.setSamplingStrategy(CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN);
+		pref.setMeasurement(c1, new ExactMeasurement(0.5));
+		pref.setMeasurement(c2, new Interval(0.1, 0.4));
+		pref.setMeasurement(c3, new Interval(0.0, 0.3));
+		double[] w = new double[3];
+		for (int i=0;i<100;i++) {
+			pref.sampleWeights(random, w);
+			assertEquals(0.5, w[0], 0.0);
+			assertTrue(w[1] >= 0.1 && w[1] <= 0.4);
+			assertTrue(w[2] >= 0.0 && w[2] <= 0.3);
+			assertEquals(1.0, w[0] + w[1] + w[2], 1E-10);
+		}
+		
+		// every draw fills in all weights of the buffer
+		Arrays.fill(w, Double.NaN);
+		pref.sampleWeights(random, w);
+		assertEquals(0.5, w[0], 0.0);
+		
+		// changing the constraints restarts the chain
+		pref.setMeasurement(c2, new Interval(0.3, 0.4));
+		for (int i=0;i<100;i++) {
+			pref.sampleWeights(random, w);
+			assertTrue(w[1] >= 0.3 && w[1] <= 0.4);
+		}
+	}
+	
+	@Test
+	public void testSamplerStateContinuesChain() throws Exception {
+		CardinalPreferenceInformation pref = createTightlyConstrained(4);
+		pref.setSamplingStrategy(CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN);
+		double[] w = new double[4];
+		for (int i=0;i<10;i++) {
+			pref.sampleWeights(random, w);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		pref.writeSamplerState(new DataOutputStream(bytes));
+		byte[] randomState = random.getState();
+		pref.sampleWeights(random, w);
+		double[] expected = w.clone();
+		
+		CardinalPreferenceInformation resumed = pref.deepCopy();
+		resumed.readSamplerState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		random.setState(randomState);
+		resumed.sampleWeights(random, w);
+		assertArrayEquals(expected, w, 0.0);
+	}
+	
+	@Test(expected=IterationException.class)
+	public void testHitAndRunInfeasibleThrows() throws IterationException {
+		info.setSamplingStrategy(CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN);
+		info.setMeasurement(crit, new Interval(0.0, 0.4));
+		info.sampleWeights(random, new double[1]);
+	}
+	
+	@Test
+	public void testSetSamplingStrategyFires() {
+		PropertyChangeListener list = JUnitUtil.mockListener(info, CardinalPreferenceInformation.PROPERTY_SAMPLING_STRATEGY,
+				CardinalPreferenceInformation.SamplingStrategy.REJECTION, CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN);
+		info.addPropertyChangeListener(list);
+		info.setSamplingStrategy(CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN);
+		verify(list);
+	}
+	
+	@Test
+	public void testSetBurnInAndThinningFire() {
+		PropertyChangeListener list = JUnitUtil.mockListener(info, CardinalPreferenceInformation.PROPERTY_BURN_IN,
+				CardinalPreferenceInformation.DEFAULT_BURN_IN, 50);
+		info.addPropertyChangeListener(list);
+		info.setBurnIn(50);
+		verify(list);
+		info.removePropertyChangeListener(list);
+		
+		list = JUnitUtil.mockListener(info, CardinalPreferenceInformation.PROPERTY_THINNING,
+				CardinalPreferenceInformation.DEFAULT_THINNING, 3);
+		info.addPropertyChangeListener(list);
+		info.setThinning(3);
+		verify(list);
+	}
+	
+	@Test
+	public void testDeepCopyCopiesSamplingStrategy() {
+		info.setSamplingStrategy(CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN);
+		info.setBurnIn(50);
+		info.setThinning(3);
+		CardinalPreferenceInformation copy = info.deepCopy();
+		assertEquals(CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN, copy.getSamplingStrategy());
+		assertEquals(50, copy.getBurnIn());
+		assertEquals(3, copy.getThinning());
+	}
 }
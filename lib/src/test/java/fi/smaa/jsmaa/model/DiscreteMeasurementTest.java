@@ -105,6 +105,20 @@ public class DiscreteMeasurementTest {
 		Assert.assertEquals(5.0, sample, 0.1);
 	}
 
+	@Test
+	public void testSampleAfterChange() {
+		DiscreteMeasurement dm = twoPointDiscreteMeasurement();
+		dm.sample(random);
+		dm.set(0, new Point2D(4, 0.0));
+		dm.set(1, new Point2D(5, 1.0));
+		for (int i=0;i<100;i++) {
+			Assert.assertEquals(5.0, dm.sample(random), 0.0);
+		}
+		dm.remove(1);
+		dm.add(new Point2D(6, 1.0));
+		Assert.assertEquals(6.0, dm.sample(random), 0.0);
+	}
+
 	@Test
 	public void testSampleIncomplete() {
 		DiscreteMeasurement dm = onePointDiscreteMeasurement();
@@ -49,4 +49,12 @@ public class ExactMeasurementTest {
 		assertFalse(new ExactMeasurement(0.0).equals(null));
 		assertTrue(new ExactMeasurement(0.0).equals(new ExactMeasurement(0.0)));
 	}
+	
+	@Test
+	public void testCdfQuantile() {
+		ExactMeasurement m = new ExactMeasurement(2.0);
+		assertEquals(0.0, m.cdf(1.9), 0.0);
+		assertEquals(1.0, m.cdf(2.0), 0.0);
+		assertEquals(2.0, m.quantile(0.3), 0.0);
+	}
 }
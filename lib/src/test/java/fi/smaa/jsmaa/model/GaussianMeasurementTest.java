@@ -24,6 +24,7 @@ package fi.smaa.jsmaa.model;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import org.drugis.common.JUnitUtil;
 import org.junit.Before;
@@ -85,6 +86,17 @@ public class GaussianMeasurementTest {
 		assertEquals(1.0, m.sample(random), 0.0001);
 	}	
 	
+	@Test
+	public void testSampleTruncated() {
+		GaussianMeasurement m = new GaussianMeasurement(0.0, 1.0);
+		for (int i=0;i<1000;i++) {
+			double x = m.sampleTruncated(random, 2.0, 3.0);
+			assertTrue(x >= 2.0 && x <= 3.0);
+		}
+		assertEquals(1.0, new GaussianMeasurement(1.0, 0.0).sampleTruncated(random, 0.0, 2.0), 0.0);
+		assertTrue(Double.isNaN(new GaussianMeasurement(1.0, 0.0).sampleTruncated(random, 2.0, 3.0)));
+	}
+	
 	@Test
 	public void testEquals() {
 		GaussianMeasurement m = new GaussianMeasurement(1.0, 2.0);
@@ -93,4 +105,20 @@ public class GaussianMeasurementTest {
 		assertFalse(m.equals(new GaussianMeasurement(2.0, 1.0)));
 		assertFalse(m.equals("m"));
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testGetLowerBound() {
+		assertEquals(Double.NEGATIVE_INFINITY, new GaussianMeasurement(1.0, 0.5).getLowerBound(), 0.0);
+	}
+	
+	@Test
+	public void testCdfQuantile() {
+		GaussianMeasurement m = new GaussianMeasurement(1.0, 0.5);
+		assertEquals(0.5, m.cdf(1.0), 1E-12);
+		assertEquals(0.975, m.cdf(1.0 + 1.959964 * 0.5), 1E-6);
+		assertEquals(1.0 - 1.959964 * 0.5, m.quantile(0.025), 1E-6);
+		assertEquals(7.6E-24, m.cdf(-4.0), 1E-25); // accurate in the lower tail
+		assertEquals(-4.0, m.quantile(m.cdf(-4.0)), 1E-9);
+		assertEquals(Double.NEGATIVE_INFINITY, m.quantile(0.0), 0.0);
+	}
+}
@@ -152,4 +152,30 @@ public class IntervalTest {
 		Interval res = Interval.enclosingInterval(ivals);
 		assertEquals(new Interval(-5.0, -1.0), res);
 	}
+	
+	@Test
+	public void testSampleTruncated() {
+		Interval in = new Interval(0.0, 2.0);
+		for (int i=0;i<100;i++) {
+			double x = in.sampleTruncated(random, 1.5, Double.POSITIVE_INFINITY);
+			assertTrue(x >= 1.5 && x <= 2.0);
+		}
+		assertEquals(2.0, in.sampleTruncated(random, 2.0, 3.0), 0.0);
+		assertTrue(Double.isNaN(in.sampleTruncated(random, 2.5, 3.0)));
+	}
+	
+	@Test
+	public void testGetLowerBound() {
+		assertEquals(1.0, new Interval(1.0, 2.0).getLowerBound(), 0.0);
+	}
+	
+	@Test
+	public void testCdfQuantile() {
+		Interval i = new Interval(1.0, 3.0);
+		assertEquals(0.0, i.cdf(0.5), 0.0);
+		assertEquals(0.25, i.cdf(1.5), 0.0);
+		assertEquals(1.0, i.cdf(3.0), 0.0);
+		assertEquals(2.5, i.quantile(0.75), 0.0);
+		assertEquals(1.0, new Interval(1.0, 1.0).cdf(1.0), 0.0);
+	}
 }
@@ -71,4 +71,17 @@ public class LogNormalMeasurementTest {
 		LogNormalMeasurement m = new LogNormalMeasurement(0.5, 0.0);
 		assertEquals(Math.exp(0.5), m.sample(random), 0.000001);
 	}
+	
+	@Test
+	public void testGetLowerBound() {
+		assertEquals(0.0, m.getLowerBound(), 0.0);
+	}
+	
+	@Test
+	public void testCdfQuantile() {
+		assertEquals(0.0, m.cdf(-1.0), 0.0);
+		assertEquals(0.5, m.cdf(Math.exp(0.1)), 1E-12);
+		assertEquals(Math.exp(0.1 + 0.2 * 1.959964), m.quantile(0.975), 1E-6);
+		assertEquals(0.0, m.quantile(0.0), 0.0);
+	}
 }
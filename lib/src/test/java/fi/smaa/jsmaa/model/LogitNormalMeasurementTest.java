@@ -73,4 +73,13 @@ public class LogitNormalMeasurementTest {
 		LogitNormalMeasurement m = new LogitNormalMeasurement(0.0, 0.0);
 		assertEquals(0.5, m.sample(random), 0.0000001);
 	}
+	
+	@Test
+	public void testCdfQuantile() {
+		double median = 1.0 / (1.0 + Math.exp(-0.1));
+		assertEquals(0.5, d_m.cdf(median), 1E-12);
+		assertEquals(median, d_m.quantile(0.5), 1E-12);
+		assertEquals(0.0, d_m.cdf(0.0), 0.0);
+		assertEquals(1.0, d_m.quantile(1.0), 0.0);
+	}
 }
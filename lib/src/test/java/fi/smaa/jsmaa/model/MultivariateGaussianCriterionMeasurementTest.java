@@ -41,6 +41,7 @@ import org.drugis.common.JUnitUtil;
 import org.junit.Before;
 import org.junit.Test;
 
+import fi.smaa.common.MultivariateGaussianSampler;
 import fi.smaa.common.RandomUtil;
 
 public class MultivariateGaussianCriterionMeasurementTest {
@@ -177,6 +178,25 @@ public class MultivariateGaussianCriterionMeasurementTest {
 		assertArrayEquals(mean, target[index], 0.0);
 	}
 	
+	@Test
+	public void testSamplerCached() {
+		MultivariateGaussianSampler sampler = m.getSampler();
+		double[][] target = new double[1][3];
+		m.sample(RandomUtil.createWithFixedSeed(), target, 0);
+		m.sample(RandomUtil.createWithRandomSeed(), target, 0);
+		assertSame(sampler, m.getSampler());
+		
+		m.setMeanVector(new ArrayRealVector(new double[] { 1.0, 2.0, 3.0 }));
+		assertNotSame(sampler, m.getSampler());
+		sampler = m.getSampler();
+		m.setCovarianceMatrix(MatrixUtils.createRealDiagonalMatrix(new double[] { 4, 3, 2 }));
+		assertNotSame(sampler, m.getSampler());
+		
+		m.setCovarianceMatrix(new Array2DRowRealMatrix(new double[3][3]));
+		m.sample(RandomUtil.createWithFixedSeed(), target, 0);
+		assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, target[0], 0.0);
+	}
+	
 	@Test
 	public void testGetRange() {
 		m.setCovarianceMatrix(new Array2DRowRealMatrix(new double[][] { {2.0, 0.5, 0.0}, {0.5, 2.0, 0.0}, {0.0, 0.0, 3.0} }));
@@ -0,0 +1,121 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+
+public class OrderedSamplerTest {
+	
+	private RandomUtil random;
+	private RandomUtil[] randoms;
+	
+	@Before
+	public void setUp() {
+		random = RandomUtil.createWithFixedSeed();
+		randoms = new RandomUtil[] { random, random, random };
+	}
+	
+	@Test
+	public void testIdenticalMarginalsGiveOrderStatistics() {
+		Interval u = new Interval(0.0, 1.0);
+		OrderedSampler sampler = new OrderedSampler(Arrays.asList(u, u, u));
+		assertTrue(sampler.isExact());
+		double[] x = new double[3];
+		double[] sum = new double[3];
+		int n = 20000;
+		for (int i=0;i<n;i++) {
+			assertTrue(sampler.sample(randoms, x));
+			assertTrue(x[0] <= x[1] && x[1] <= x[2]);
+			for (int j=0;j<3;j++) {
+				sum[j] += x[j];
+			}
+		}
+		assertEquals(0.25, sum[0] / n, 0.01);
+		assertEquals(0.50, sum[1] / n, 0.01);
+		assertEquals(0.75, sum[2] / n, 0.01);
+	}
+	
+	@Test
+	public void testImprobableOrdering() {
+		// P(X_0 <= X_1) is about 1E-23, far beyond the reach of rejection
+		OrderedSampler sampler = new OrderedSampler(Arrays.asList(
+				new GaussianMeasurement(5.0, 0.5), new Interval(0.0, 0.01)));
+		double[] x = new double[2];
+		double gap = 0.0;
+		int n = 10000;
+		for (int i=0;i<n;i++) {
+			assertTrue(sampler.sample(randoms, x));
+			assertTrue(x[0] <= x[1]);
+			assertTrue(x[1] <= 0.01);
+			gap += x[1] - x[0];
+		}
+		// conditioned on X_0 <= X_1, X_0 is within about sigma^2 / (5 - X_1) = 0.05 of X_1
+		assertEquals(0.05, gap / n, 0.005);
+	}
+	
+	@Test
+	public void testPointMasses() {
+		OrderedSampler sampler = new OrderedSampler(Arrays.asList(
+				new ExactMeasurement(0.3), new Interval(0.0, 1.0), new ExactMeasurement(0.6)));
+		double[] x = new double[3];
+		for (int i=0;i<1000;i++) {
+			assertTrue(sampler.sample(randoms, x));
+			assertEquals(0.3, x[0], 0.0);
+			assertTrue(x[1] >= 0.3 && x[1] <= 0.6);
+			assertEquals(0.6, x[2], 0.0);
+		}
+	}
+	
+	@Test
+	public void testInfeasible() {
+		OrderedSampler sampler = new OrderedSampler(Arrays.asList(
+				new ExactMeasurement(2.0), new Interval(0.0, 1.0)));
+		assertFalse(sampler.sample(randoms, new double[2]));
+	}
+	
+	@Test
+	public void testRejectionWithoutQuantiles() {
+		BaselineGaussianMeasurement baseline = new BaselineGaussianMeasurement(0.5, 0.1);
+		OrderedSampler sampler = new OrderedSampler(Arrays.asList(baseline, new Interval(0.0, 1.0)));
+		assertFalse(sampler.isExact());
+		baseline.update(random);
+		double[] x = new double[2];
+		for (int i=0;i<1000;i++) {
+			assertTrue(sampler.sample(randoms, x));
+			assertTrue(x[0] <= x[1]);
+		}
+		
+		BaselineGaussianMeasurement far = new BaselineGaussianMeasurement(100.0, 1.0);
+		far.update(random);
+		assertFalse(new OrderedSampler(Arrays.asList(far, new Interval(0.0, 1.0))).sample(randoms, x));
+	}
+}
@@ -60,13 +60,23 @@ public class OrdinalPreferenceInformationTest {
 	
 	@Test
 	public void testCorrectSampling() {
-		double[] w = pref.sampleWeights(random);
-		assertEquals(3, w.length);
+		double[] w = new double[3];
+		pref.sampleWeights(random, w);
 		assertTrue(w[0] > w[1]);
 		assertTrue(w[0] > w[2]);
 		assertTrue(w[2] > w[1]);
 	}
 	
+	@Test
+	public void testSamplingFollowsRankChange() {
+		double[] w = new double[3];
+		pref.sampleWeights(random, w);
+		pref.getRanks().get(1).setRank(1);
+		pref.sampleWeights(random, w);
+		assertTrue(w[1] > w[0]);
+		assertTrue(w[1] > w[2]);
+	}
+	
 	@Test
 	public void testDeepCopy() {
 		OrdinalPreferenceInformation pref2 = pref.deepCopy();
@@ -24,6 +24,7 @@ package fi.smaa.jsmaa.model;
 
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.beans.PropertyChangeListener;
 
@@ -31,6 +32,9 @@ import org.drugis.common.JUnitUtil;
 import org.junit.Before;
 import org.junit.Test;
 
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.simulator.IterationException;
+
 public class OutrankingCriterionTest {
 
 	private OutrankingCriterion crit;
@@ -112,5 +116,81 @@ public class OutrankingCriterionTest {
 		verify(mock);
 	}
 	
+	@Test
+	public void testSampleThresholdsOverlapping() throws IterationException {
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		crit.setIndifMeasurement(new Interval(1.0, 3.0));
+		crit.setPrefMeasurement(new Interval(0.0, 2.0));
+		for (int i=0;i<1000;i++) {
+			crit.sampleThresholds(random);
+			assertTrue(crit.getIndifferenceThreshold() <= crit.getPreferenceThreshold());
+			assertTrue(crit.getIndifferenceThreshold() >= 1.0 && crit.getPreferenceThreshold() <= 2.0);
+		}
+		crit.setPrefMeasurement(new GaussianMeasurement(2.0, 1.0));
+		for (int i=0;i<1000;i++) {
+			crit.sampleThresholds(random);
+			assertTrue(crit.getIndifferenceThreshold() <= crit.getPreferenceThreshold());
+		}
+	}
+	
+	@Test
+	public void testSampleThresholdsNearlyDisjoint() throws IterationException {
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		crit.setIndifMeasurement(new BetaMeasurement(1.0, 1.0, 0.0, 1.0));
+		crit.setPrefMeasurement(new Interval(0.0, 0.02));
+		for (int i=0;i<1000;i++) {
+			crit.sampleThresholds(random);
+			assertTrue(crit.getIndifferenceThreshold() <= crit.getPreferenceThreshold());
+		}
+		crit.setIndifMeasurement(new GaussianMeasurement(1.0, 0.5));
+		crit.setPrefMeasurement(new Interval(0.0, 0.01));
+		for (int i=0;i<1000;i++) {
+			crit.sampleThresholds(random);
+			assertTrue(crit.getIndifferenceThreshold() <= crit.getPreferenceThreshold());
+		}
+	}
 	
+	@Test
+	public void testSampleThresholdsImprobable() throws IterationException {
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		crit.setIndifMeasurement(new GaussianMeasurement(5.0, 0.5));
+		crit.setPrefMeasurement(new Interval(0.0, 0.01));
+		double gap = 0.0;
+		int n = 10000;
+		for (int i=0;i<n;i++) {
+			crit.sampleThresholds(random);
+			assertTrue(crit.getIndifferenceThreshold() <= crit.getPreferenceThreshold());
+			assertTrue(crit.getPreferenceThreshold() >= 0.0 && crit.getPreferenceThreshold() <= 0.01);
+			gap += crit.getPreferenceThreshold() - crit.getIndifferenceThreshold();
+		}
+		// conditioned on the ordering, indifference is within about 0.5^2 / 5 of preference
+		assertEquals(0.05, gap / n, 0.005);
+	}
+	
+	@Test
+	public void testSampleThresholdsFollowsMeasurementChanges() throws IterationException {
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		Interval pref = new Interval(0.0, 1.0);
+		crit.setIndifMeasurement(new Interval(0.0, 1.0));
+		crit.setPrefMeasurement(pref);
+		crit.sampleThresholds(random);
+		pref.setStart(5.0);
+		pref.setEnd(6.0);
+		crit.sampleThresholds(random);
+		assertTrue(crit.getPreferenceThreshold() >= 5.0);
+	}
+	
+	@Test(expected=IterationException.class)
+	public void testSampleThresholdsTouchingSupports() throws IterationException {
+		crit.setIndifMeasurement(new Interval(1.0, 3.0));
+		crit.setPrefMeasurement(new Interval(0.0, 1.0));
+		crit.sampleThresholds(RandomUtil.createWithFixedSeed());
+	}
+	
+	@Test(expected=IterationException.class)
+	public void testSampleThresholdsInfeasible() throws IterationException {
+		crit.setIndifMeasurement(new ExactMeasurement(2.0));
+		crit.setPrefMeasurement(new Interval(0.0, 1.0));
+		crit.sampleThresholds(RandomUtil.createWithFixedSeed());
+	}
 }
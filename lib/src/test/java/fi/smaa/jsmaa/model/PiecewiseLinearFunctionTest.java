@@ -0,0 +1,73 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PiecewiseLinearFunctionTest {
+
+	@Test
+	public void testTwoPoints() {
+		PiecewiseLinearFunction f = new PiecewiseLinearFunction(
+				Arrays.asList(new Point2D(1.0, 0.0), new Point2D(2.0, 1.0)));
+		assertEquals(0.6, f.evaluate(1.6), 1E-12);
+		assertEquals(2.0, f.evaluate(3.0), 1E-12);
+		assertEquals(-1.0, f.evaluate(0.0), 1E-12);
+	}
+	
+	@Test
+	public void testManyPoints() {
+		List<Point2D> pts = new ArrayList<Point2D>();
+		for (int i=0;i<=20;i++) {
+			pts.add(new Point2D(i, Math.sqrt(i / 20.0)));
+		}
+		PiecewiseLinearFunction f = new PiecewiseLinearFunction(pts);
+		for (double x=-2.0;x<=22.0;x+=0.37) {
+			assertEquals(linearScan(pts, x), f.evaluate(x), 1E-12);
+		}
+		for (int i=0;i<=20;i++) {
+			assertEquals(pts.get(i).getY(), f.evaluate(i), 1E-12);
+		}
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testTooFewPoints() {
+		new PiecewiseLinearFunction(Arrays.asList(new Point2D(1.0, 0.0)));
+	}
+
+	private static double linearScan(List<Point2D> pts, double x) {
+		int i = 1;
+		while (i < pts.size() - 1 && pts.get(i).getX() < x) {
+			i++;
+		}
+		Point2D p = pts.get(i - 1);
+		Point2D q = pts.get(i);
+		return p.getY() + (x - p.getX()) / (q.getX() - p.getX()) * (q.getY() - p.getY());
+	}
+}
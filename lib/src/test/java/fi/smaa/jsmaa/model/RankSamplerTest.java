@@ -51,9 +51,9 @@ public class RankSamplerTest {
 	@Test
 	public void testSampleWeights() {
 		RandomUtil random = RandomUtil.createWithFixedSeed();
-		double[] w = rs.sampleWeights(random);
+		double[] w = new double[2];
+		rs.sampleWeights(random, w);
 		
-		assertEquals(2, w.length);
 		assertTrue(w[0] > w[1]);
 
 		r1 = new Integer(2);
@@ -63,7 +63,12 @@ public class RankSamplerTest {
 		list.add(r2);
 		rs = new RankSampler(list);
 		
-		w = rs.sampleWeights(random);
+		rs.sampleWeights(random, w);
 		assertTrue(w[0] < w[1]);
 	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testSampleWeightsChecksBufferLength() {
+		rs.sampleWeights(RandomUtil.createWithFixedSeed(), new double[3]);
+	}
 }
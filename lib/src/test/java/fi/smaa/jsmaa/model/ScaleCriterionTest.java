@@ -24,7 +24,10 @@ package fi.smaa.jsmaa.model;
 
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.List;
 
@@ -55,6 +58,43 @@ public class ScaleCriterionTest {
 		assertEquals(false, crit.getAscending());
 	}
 	
+	@Test
+	public void testValueFunctionUpdatedBeforeAscendingFires() {
+		criterion.setScale(new Interval(0.0, 2.0));
+		criterion.getValueFunction();
+		final double[] seen = new double[1];
+		criterion.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent evt) {
+				if (evt.getPropertyName().equals(ScaleCriterion.PROPERTY_ASCENDING)) {
+					seen[0] = criterion.getValueFunction().evaluate(0.0);
+				}
+			}
+		});
+		criterion.setAscending(false);
+		assertEquals(1.0, seen[0], 0.0);
+	}
+	
+	@Test
+	public void testValueFunctionCached() throws InvalidValuePointException {
+		criterion.setScale(new Interval(0.0, 2.0));
+		PiecewiseLinearFunction f = criterion.getValueFunction();
+		assertSame(f, criterion.getValueFunction());
+		assertEquals(0.25, f.evaluate(0.5), 1E-12);
+		
+		criterion.addValuePoint(new Point2D(1.0, 0.2));
+		assertNotSame(f, criterion.getValueFunction());
+		assertEquals(0.1, criterion.getValueFunction().evaluate(0.5), 1E-12);
+		
+		f = criterion.getValueFunction();
+		criterion.setScale(new Interval(0.0, 4.0));
+		assertNotSame(f, criterion.getValueFunction());
+		
+		f = criterion.getValueFunction();
+		criterion.setAscending(false);
+		assertNotSame(f, criterion.getValueFunction());
+		assertEquals(0.75, criterion.getValueFunction().evaluate(1.0), 1E-12);
+	}
+	
 	@Test
 	public void testSetScale() {
 		Interval oldScale = new Interval(0.0, 0.0);
@@ -0,0 +1,79 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.electre;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ElectreTriKernelTest {
+	
+	private double[][] meas;
+	private double[][] profiles;
+	private boolean[] ascending;
+	private double[] indif;
+	private double[] pref;
+	private double[] weights;
+	private double lambda = 0.7;
+	private int[] cats;
+
+	@Before
+	public void setUp() {
+		// same problem as in ElectreTriTest
+		meas = new double[][] {{1.0, 1.0}, {2.0, 1.0}, {0.0, 0.0}};
+		profiles = new double[][] {{0.0, 2.0}, {0.0, 1.0}, {5.0, 5.0}};
+		ascending = new boolean[] {true, true, true};
+		indif = new double[] {0.0, 0.0, 0.0};
+		pref = new double[] {1.0, 1.0, 1.0};
+		weights = new double[] {0.4, 0.4, 0.2};
+		cats = new int[2];
+	}
+	
+	@Test
+	public void test1Category() {
+		ElectreTriKernel.compute(meas, profiles, 0, ascending, indif, pref, weights, lambda, true, cats);
+		assertArrayEquals(new int[] {0, 0}, cats);
+	}
+	
+	@Test
+	public void testOptimisticRule() {
+		ElectreTriKernel.compute(meas, profiles, 2, ascending, indif, pref, weights, lambda, true, cats);
+		assertArrayEquals(new int[] {2, 1}, cats);
+	}
+	
+	@Test
+	public void testPessimisticRule() {
+		ElectreTriKernel.compute(meas, profiles, 2, ascending, indif, pref, weights, lambda, false, cats);
+		assertArrayEquals(new int[] {1, 1}, cats);
+	}
+	
+	@Test
+	public void testDescendingCriterion() {
+		ascending[0] = false;
+		meas[0] = new double[] {-1.0, -1.0};
+		profiles[0] = new double[] {0.0, -2.0};
+		ElectreTriKernel.compute(meas, profiles, 2, ascending, indif, pref, weights, lambda, true, cats);
+		assertArrayEquals(new int[] {2, 1}, cats);
+	}
+}
@@ -93,6 +93,21 @@ public class PreferenceInformationXMLFormatTest {
 		EasyMock.verify(mock);		
 	}
 	
+	@Test
+	public void testMarshallSamplingStrategy() throws XMLStreamException {
+		CardinalPreferenceInformation pref = new CardinalPreferenceInformation(crit);
+		pref.setSamplingStrategy(CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN);
+		pref.setBurnIn(50);
+		pref.setThinning(3);
+		
+		CardinalPreferenceInformation npref = (CardinalPreferenceInformation) XMLHelper.fromXml(
+				XMLHelper.toXml(pref, CardinalPreferenceInformation.class));
+		
+		assertEquals(CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN, npref.getSamplingStrategy());
+		assertEquals(50, npref.getBurnIn());
+		assertEquals(3, npref.getThinning());
+	}
+	
 	@Test
 	public void testMarshallOrdinalPreferenceInformation() throws XMLStreamException {
 		OrdinalPreferenceInformation pref = new OrdinalPreferenceInformation(crit);
@@ -0,0 +1,139 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.BetaMeasurement;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.IndependentMeasurements;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.LogNormalMeasurement;
+import fi.smaa.jsmaa.model.LogitNormalMeasurement;
+import fi.smaa.jsmaa.model.OrdinalCriterion;
+import fi.smaa.jsmaa.model.Point2D;
+import fi.smaa.jsmaa.model.RelativeNormalMeasurement;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+import fi.smaa.jsmaa.model.maut.UtilityFunction;
+
+public class CompiledModelTest {
+	
+	private SMAAModel model;
+	private Alternative a1 = new Alternative("a1");
+	private Alternative a2 = new Alternative("a2");
+	private Alternative a3 = new Alternative("a3");
+	private ScaleCriterion c1 = new ScaleCriterion("c1");
+	private ScaleCriterion c2 = new ScaleCriterion("c2");
+	private OrdinalCriterion c3 = new OrdinalCriterion("c3");
+	
+	@Before
+	public void setUp() {
+		model = new SMAAModel("model");
+		model.addAlternative(a1);
+		model.addAlternative(a2);
+		model.addAlternative(a3);
+		model.addCriterion(c1);
+		model.addCriterion(c2);
+		model.addCriterion(c3);
+		IndependentMeasurements m = (IndependentMeasurements) model.getMeasurements();
+		m.setMeasurement(c1, a1, new Interval(0.0, 2.0));
+		m.setMeasurement(c1, a2, new GaussianMeasurement(1.0, 0.5));
+		m.setMeasurement(c1, a3, new ExactMeasurement(1.5));
+		m.setMeasurement(c2, a1, new LogNormalMeasurement(0.0, 0.2));
+		m.setMeasurement(c2, a2, new LogitNormalMeasurement(0.0, 1.0));
+		m.setMeasurement(c2, a3, new BetaMeasurement(2.0, 3.0, 0.0, 1.0));
+	}
+	
+	@Test
+	public void testSampleEqualsMeasurements() {
+		double[][] expected = new double[3][3];
+		double[][] actual = new double[3][3];
+		RandomUtil r1 = RandomUtil.createWithFixedSeed();
+		RandomUtil r2 = RandomUtil.createWithFixedSeed();
+		CompiledModel compiled = CompiledModel.compile(model);
+		for (int i=0;i<10;i++) {
+			model.getMeasurements().sample(r1, expected);
+			compiled.sample(r2, actual);
+			for (int c=0;c<3;c++) {
+				assertArrayEquals(expected[c], actual[c], 0.0);
+			}
+		}
+	}
+	
+	@Test
+	public void testSampleRelativeMeasurements() {
+		IndependentMeasurements m = (IndependentMeasurements) model.getMeasurements();
+		m.setMeasurement(c1, a1, new RelativeNormalMeasurement(((ImpactMatrix) m).getBaseline(c1), new GaussianMeasurement(0.5, 0.1)));
+		double[][] expected = new double[3][3];
+		double[][] actual = new double[3][3];
+		RandomUtil r1 = RandomUtil.createWithFixedSeed();
+		RandomUtil r2 = RandomUtil.createWithFixedSeed();
+		CompiledModel compiled = CompiledModel.compile(model);
+		for (int i=0;i<10;i++) {
+			model.getMeasurements().sample(r1, expected);
+			compiled.sample(r2, actual);
+			assertArrayEquals(expected[0], actual[0], 0.0);
+		}
+	}
+	
+	@Test
+	public void testPartialValue() throws Exception {
+		c1.addValuePoint(new Point2D(0.5, 0.8));
+		CompiledModel compiled = CompiledModel.compile(model);
+		assertEquals(CompiledModel.CRIT_SCALE, compiled.getCriterionType(0));
+		assertEquals(CompiledModel.CRIT_ORDINAL, compiled.getCriterionType(2));
+		for (double x=0.0;x<=2.0;x+=0.1) {
+			assertEquals(UtilityFunction.utility(c1, x), compiled.partialValue(0, x), 0.0);
+		}
+		assertEquals(0.3, compiled.partialValue(2, 0.3), 0.0);
+	}
+	
+	@Test
+	public void testSubstreamsUnaffectedByOtherCells() {
+		double[][] before = new double[3][3];
+		double[][] after = new double[3][3];
+		CompiledModel compiled = CompiledModel.compile(model);
+		compiled.useSubstreams(RandomUtil.createWithFixedSeed());
+		compiled.sample(null, before);
+		
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, a1, new GaussianMeasurement(5.0, 1.0));
+		compiled = CompiledModel.compile(model);
+		compiled.useSubstreams(RandomUtil.createWithFixedSeed());
+		compiled.sample(null, after);
+		assertFalse(before[0][0] == after[0][0]);
+		assertArrayEquals(new double[] {before[0][1], before[0][2]}, new double[] {after[0][1], after[0][2]}, 0.0);
+		for (int c=1;c<3;c++) {
+			assertArrayEquals(before[c], after[c], 0.0);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ConvergenceCriterionTest {
+	
+	@Test
+	public void testSatisfied() {
+		ConvergenceCriterion c = new ConvergenceCriterion(0.01, 100, 1000);
+		assertFalse(c.isSatisfied(50, 0.001));
+		assertFalse(c.isSatisfied(500, 0.02));
+		assertFalse(c.isSatisfied(500, Double.NaN));
+		assertTrue(c.isSatisfied(500, 0.005));
+		assertTrue(c.isSatisfied(1000, 0.02));
+		assertFalse(c.isFixed());
+	}
+	
+	@Test
+	public void testFixed() {
+		ConvergenceCriterion c = ConvergenceCriterion.fixed(100);
+		assertTrue(c.isFixed());
+		assertFalse(c.isSatisfied(99, 0.0));
+		assertTrue(c.isSatisfied(100, 1.0));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidBounds() {
+		new ConvergenceCriterion(0.01, 1000, 100);
+	}
+}
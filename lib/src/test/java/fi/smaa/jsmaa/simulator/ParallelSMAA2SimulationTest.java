@@ -0,0 +1,191 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Map;
+
+import org.drugis.common.threading.TaskUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.IndependentMeasurements;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+
+public class ParallelSMAA2SimulationTest {
+	
+	private SMAAModel model;
+	private Alternative alt1 = new Alternative("alt1");
+	private Alternative alt2 = new Alternative("alt2");
+	private ScaleCriterion c1 = new ScaleCriterion("c1");
+	private ScaleCriterion c2 = new ScaleCriterion("c2");
+	
+	@Before
+	public void setUp() {
+		model = new SMAAModel("model");
+		model.addAlternative(alt1);
+		model.addAlternative(alt2);
+		model.addCriterion(c1);
+		model.addCriterion(c2);
+		IndependentMeasurements m = (IndependentMeasurements) model.getMeasurements();
+		m.setMeasurement(c1, alt1, new Interval(0.5, 1.0));
+		m.setMeasurement(c1, alt2, new Interval(0.0, 0.6));
+		m.setMeasurement(c2, alt1, new GaussianMeasurement(0.0, 0.1));
+		m.setMeasurement(c2, alt2, new GaussianMeasurement(0.5, 0.1));
+	}
+	
+	@Test
+	public void testIterationCount() throws InterruptedException {
+		ParallelSMAA2Simulation simulation = new ParallelSMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1001, 3);
+		TaskUtil.run(simulation.getTask());
+		assertEquals(new Integer(1001), simulation.getResults().getRankAccIteration());
+	}
+	
+	@Test
+	public void testReproducible() throws InterruptedException {
+		SMAA2Results r1 = run(4);
+		SMAA2Results r2 = run(4);
+		assertEquals(r1.getRankAcceptabilities().get(alt1), r2.getRankAcceptabilities().get(alt1));
+		assertEquals(r1.getCentralWeightVectors().get(alt2), r2.getCentralWeightVectors().get(alt2));
+		assertEquals(r1.getConfidenceFactors().get(alt1), r2.getConfidenceFactors().get(alt1));
+	}
+	
+	@Test
+	public void testResultsCloseToSequential() throws InterruptedException {
+		SMAA2Simulation sequential = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 10000);
+		TaskUtil.run(sequential.getTask());
+		SMAA2Results seq = sequential.getResults();
+		SMAA2Results par = run(4);
+		
+		for (Alternative a : model.getAlternatives()) {
+			for (int i=0;i<2;i++) {
+				assertEquals(seq.getRankAcceptabilities().get(a).get(i), par.getRankAcceptabilities().get(a).get(i), 0.02);
+			}
+			Map<Criterion, Double> seqCW = seq.getCentralWeightVectors().get(a);
+			Map<Criterion, Double> parCW = par.getCentralWeightVectors().get(a);
+			for (Criterion c : model.getCriteria()) {
+				assertEquals(seqCW.get(c), parCW.get(c), 0.02);
+			}
+			assertEquals(seq.getConfidenceFactors().get(a), par.getConfidenceFactors().get(a), 0.02);
+		}
+		assertTrue(par.getCentralWeightVectors().get(alt1).get(c1) > par.getCentralWeightVectors().get(alt2).get(c1));
+	}
+
+	@Test
+	public void testResimulateCriterion() throws InterruptedException {
+		ParallelSMAA2Simulation incremental = new ParallelSMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 10000, 3);
+		incremental.setIncremental(true);
+		TaskUtil.run(incremental.getTask());
+		
+		IndependentMeasurements m = (IndependentMeasurements) model.getMeasurements();
+		m.setMeasurement(c2, alt1, new GaussianMeasurement(0.3, 0.2));
+		incremental.resimulateCriterion(1);
+		
+		ParallelSMAA2Simulation full = new ParallelSMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 10000, 3);
+		full.setCommonRandomNumbers(true);
+		TaskUtil.run(full.getTask());
+		
+		SMAA2Results expected = full.getResults();
+		SMAA2Results actual = incremental.getResults();
+		assertEquals(expected.getRankAcceptabilities(), actual.getRankAcceptabilities());
+		for (Alternative a : model.getAlternatives()) {
+			for (Criterion c : model.getCriteria()) {
+				// merged in a different order
+				assertEquals(expected.getCentralWeightVectors().get(a).get(c), actual.getCentralWeightVectors().get(a).get(c), 1E-12);
+			}
+			assertEquals(expected.getConfidenceFactors().get(a), actual.getConfidenceFactors().get(a), 1E-12);
+		}
+	}
+
+	@Test
+	public void testSampleWriter() throws Exception {
+		File file = File.createTempFile("jsmaa", ".samples");
+		file.deleteOnExit();
+		SampleWriter writer = new SampleWriter(file, 2, 2);
+		ParallelSMAA2Simulation simulation = new ParallelSMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1001, 3);
+		simulation.setSampleWriter(writer);
+		TaskUtil.run(simulation.getTask());
+		writer.close();
+		
+		SampleReader reader = new SampleReader(file);
+		assertEquals(1001, reader.getCount());
+		double[] w = new double[2];
+		double[] u = new double[2];
+		int[] r = new int[2];
+		int firstRanks = 0;
+		for (int i=0;i<reader.getCount();i++) {
+			reader.read(i, w, u, r);
+			assertEquals(1.0, w[0] + w[1], 1e-10);
+			assertEquals(u[0] > u[1] ? 0 : 1, r[0]);
+			firstRanks += r[0] == 0 ? 1 : 0;
+		}
+		reader.close();
+		assertEquals(simulation.getResults().getRankAcceptabilities().get(alt1).get(0), firstRanks / 1001.0, 1e-10);
+	}
+
+	@Test
+	public void testResumeFromCheckpoint() throws Exception {
+		final File checkpoint = File.createTempFile("jsmaa", ".ckp");
+		final File raCheckpoint = File.createTempFile("jsmaa", ".ckp");
+		checkpoint.deleteOnExit();
+		raCheckpoint.deleteOnExit();
+		
+		ParallelSMAA2Simulation full = new ParallelSMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1001, 3);
+		full.setCheckpoint(checkpoint, 700); // in the RA phase at 900, in the CF phase at 600
+		full.getResults().addResultsListener(new SMAAResultsListener() {
+			public void resultsChanged(ResultsEvent ev) {
+				if (raCheckpoint.length() == 0 && checkpoint.length() > 0) {
+					checkpoint.renameTo(raCheckpoint);
+				}
+			}
+		});
+		TaskUtil.run(full.getTask());
+		
+		for (File f : new File[] {raCheckpoint, checkpoint}) {
+			ParallelSMAA2Simulation resumed = new ParallelSMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1001, 3);
+			resumed.resume(f);
+			TaskUtil.run(resumed.getTask());
+			SMAA2Results expected = full.getResults();
+			SMAA2Results actual = resumed.getResults();
+			assertEquals(new Integer(1001), actual.getRankAccIteration());
+			assertEquals(expected.getRankAcceptabilities(), actual.getRankAcceptabilities());
+			assertEquals(expected.getCentralWeightVectors(), actual.getCentralWeightVectors());
+			assertEquals(expected.getConfidenceFactors(), actual.getConfidenceFactors());
+		}
+	}
+
+	private SMAA2Results run(int workers) throws InterruptedException {
+		ParallelSMAA2Simulation simulation = new ParallelSMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 10000, workers);
+		TaskUtil.run(simulation.getTask());
+		return simulation.getResults();
+	}
+}
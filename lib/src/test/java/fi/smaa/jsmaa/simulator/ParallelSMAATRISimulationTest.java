@@ -0,0 +1,119 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.drugis.common.threading.TaskUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.Category;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.IndependentMeasurements;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.OutrankingCriterion;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+
+public class ParallelSMAATRISimulationTest {
+
+	private SMAATRIModel model;
+	private Alternative alt1 = new Alternative("alt1");
+	private Alternative alt2 = new Alternative("alt2");
+	private Alternative alt3 = new Alternative("alt3");
+	private OutrankingCriterion c1 = new OutrankingCriterion("c1", true, 
+			new Interval(0.0, 0.0), new Interval(1.0, 1.0));
+	private OutrankingCriterion c2 = new OutrankingCriterion("c2", true,
+			new Interval(0.0, 0.0), new Interval(1.0, 1.0));
+	private Category cat1 = new Category("cat1");
+	private Category cat2 = new Category("cat2");
+	
+	@Before
+	public void setUp() {
+		model = new SMAATRIModel("model");
+		model.addAlternative(alt1);
+		model.addAlternative(alt2);
+		model.addAlternative(alt3);
+		model.addCriterion(c1);
+		model.addCriterion(c2);
+		model.addCategory(cat1);
+		model.addCategory(cat2);
+		IndependentMeasurements m = (IndependentMeasurements) model.getMeasurements();
+		m.setMeasurement(c1, alt1, new ExactMeasurement(2.0));
+		m.setMeasurement(c2, alt1, new ExactMeasurement(2.0));
+		m.setMeasurement(c1, alt2, new ExactMeasurement(0.0));
+		m.setMeasurement(c2, alt2, new ExactMeasurement(0.0));
+		m.setMeasurement(c1, alt3, new Interval(0.0, 2.0));
+		m.setMeasurement(c2, alt3, new Interval(0.0, 2.0));
+		model.setCategoryUpperBound(c1, cat1, new ExactMeasurement(1.0));
+		model.setCategoryUpperBound(c2, cat1, new ExactMeasurement(1.0));
+		model.setRule(true);
+	}
+	
+	@Test
+	public void testResumeFromCheckpoint() throws Exception {
+		File checkpoint = File.createTempFile("jsmaa", ".ckp");
+		checkpoint.deleteOnExit();
+		ParallelSMAATRISimulation full = new ParallelSMAATRISimulation(model, RandomUtil.createWithFixedSeed(), 1000, 2);
+		full.setCheckpoint(checkpoint, 600);
+		TaskUtil.run(full.getTask());
+		
+		ParallelSMAATRISimulation resumed = new ParallelSMAATRISimulation(model, RandomUtil.createWithFixedSeed(), 1000, 2);
+		resumed.resume(checkpoint);
+		assertEquals(600, resumed.getResults().getIteration().intValue());
+		TaskUtil.run(resumed.getTask());
+		assertEquals(full.getResults().getCategoryAcceptabilities(), resumed.getResults().getCategoryAcceptabilities());
+	}
+	
+	@Test
+	public void testCorrectResults() throws InterruptedException {		
+		Map<Alternative, List<Double>> accs = run(3).getCategoryAcceptabilities();
+		
+		assertEquals(0.0, accs.get(alt1).get(0), 0.00001);
+		assertEquals(1.0, accs.get(alt1).get(1), 0.00001);
+		assertEquals(1.0, accs.get(alt2).get(0), 0.00001);
+		assertEquals(0.0, accs.get(alt2).get(1), 0.00001);	
+	}
+	
+	@Test
+	public void testIterationCount() throws InterruptedException {
+		assertEquals(new Integer(10000), run(3).getIteration());
+	}
+	
+	@Test
+	public void testReproducible() throws InterruptedException {
+		assertEquals(run(4).getCategoryAcceptabilities().get(alt3), run(4).getCategoryAcceptabilities().get(alt3));
+	}
+
+	private SMAATRIResults run(int workers) throws InterruptedException {
+		ParallelSMAATRISimulation simulation = new ParallelSMAATRISimulation(model, RandomUtil.createWithFixedSeed(), 10000, workers);
+		TaskUtil.run(simulation.getTask());
+		return simulation.getResults();
+	}
+}
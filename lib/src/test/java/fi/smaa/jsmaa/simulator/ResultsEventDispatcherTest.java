@@ -0,0 +1,107 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.Category;
+
+public class ResultsEventDispatcherTest {
+	
+	private ResultsEventDispatcher dispatcher;
+	private SMAATRIResults results;
+	
+	@Before
+	public void setUp() {
+		dispatcher = new ResultsEventDispatcher(100, null);
+		List<Alternative> alts = new ArrayList<Alternative>();
+		alts.add(new Alternative("alt1"));
+		List<Category> cats = new ArrayList<Category>();
+		cats.add(new Category("cat1"));
+		results = new SMAATRIResults(alts, cats, 1);
+		results.setEventDispatcher(dispatcher);
+	}
+	
+	@After
+	public void tearDown() {
+		dispatcher.shutdown();
+	}
+	
+	@Test
+	public void testCoalescesOnOtherThread() throws InterruptedException {
+		final AtomicInteger count = new AtomicInteger();
+		final Thread caller = Thread.currentThread();
+		final List<Thread> threads = new ArrayList<Thread>();
+		results.addResultsListener(new SMAAResultsListener() {
+			public void resultsChanged(ResultsEvent ev) {
+				count.incrementAndGet();
+				synchronized (threads) {
+					threads.add(Thread.currentThread());
+				}
+			}
+		});
+		for (int i=0;i<10000;i++) {
+			results.update(new int[] { 0 });
+		}
+		Thread.sleep(400);
+		assertTrue(count.get() >= 1);
+		assertTrue(count.get() <= 3);
+		synchronized (threads) {
+			assertNotSame(caller, threads.get(0));
+		}
+	}
+	
+	@Test
+	public void testExceptionTakesPrecedence() throws InterruptedException {
+		final List<ResultsEvent> events = new ArrayList<ResultsEvent>();
+		results.addResultsListener(new SMAAResultsListener() {
+			public void resultsChanged(ResultsEvent ev) {
+				synchronized (events) {
+					events.add(ev);
+				}
+			}
+		});
+		// the first event is delivered immediately, the others are coalesced
+		results.update(new int[] { 0 });
+		Thread.sleep(20);
+		results.fireResultsChanged(new IterationException("fail"));
+		results.update(new int[] { 0 });
+		Thread.sleep(300);
+		synchronized (events) {
+			assertEquals(2, events.size());
+			assertNotNull(events.get(1).getException());
+		}
+	}
+}
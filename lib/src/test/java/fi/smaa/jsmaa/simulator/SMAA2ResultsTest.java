@@ -27,6 +27,7 @@ import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -127,6 +128,130 @@ public class SMAA2ResultsTest {
 		assertTrue(cw1.equals(cw2));		
 	}	
 
+	@Test
+	public void testCentralWeightMatrix() {
+		assertTrue(Double.isNaN(results.getCentralWeightMatrix()[0][0]));
+		do10Hits();
+		double[][] cw = results.getCentralWeightMatrix();
+		assertEquals(2, cw.length);
+		assertEquals(3, cw[0].length);
+		assertEquals(1.0, cw[0][1], 0.0001);
+		assertEquals(1.0, cw[1][0], 0.0001);
+		assertEquals(0.0, cw[1][2], 0.0001);
+	}
+	
+	@Test
+	public void testStandardErrors() {
+		assertTrue(Double.isNaN(results.getMaxRankAcceptabilityError()));
+		assertTrue(Double.isNaN(results.getMaxConfidenceFactorError()));
+		do10Hits();
+		// p = 0.5 for all rank acceptabilities
+		assertEquals(Math.sqrt(0.25 / 10), results.getMaxRankAcceptabilityError(), 0.0001);
+		// constant weights
+		assertEquals(0.0, results.getMaxCentralWeightError(), 0.0001);
+		results.update(firstFirst, weights2);
+		assertTrue(results.getMaxCentralWeightError() > 0.0);
+		results.confidenceUpdate(new boolean[]{true, false});
+		assertEquals(0.0, results.getMaxConfidenceFactorError(), 0.0001);
+	}
+	
+	@Test
+	public void testMerge() {
+		SMAA2Results other = new SMAA2Results(alts, crit, 10);
+		for (int i=0;i<5;i++) {
+			results.update(firstFirst, weights1);
+			other.update(secondFirst, weights2);
+			results.confidenceUpdate(new boolean[]{true, false});
+			other.confidenceUpdate(new boolean[]{true, true});
+		}
+		results.merge(other);
+		
+		assertEquals(new Integer(10), results.getRankAccIteration());
+		assertEquals(0.5, results.getRankAcceptabilities().get(alt1).get(0), 0.0001);
+		assertEquals(1.0, results.getCentralWeightVectors().get(alt1).get(c2), 0.0001);
+		assertEquals(1.0, results.getCentralWeightVectors().get(alt2).get(c1), 0.0001);
+		assertEquals(1.0, results.getConfidenceFactors().get(alt1), 0.0001);
+		assertEquals(0.5, results.getConfidenceFactors().get(alt2), 0.0001);
+	}
+	
+	@Test
+	public void testMergeSeveralFiresOnce() {
+		List<SMAA2Results> others = new ArrayList<SMAA2Results>();
+		for (int w=0;w<3;w++) {
+			SMAA2Results other = new SMAA2Results(alts, crit, 10);
+			other.update(firstFirst, weights1);
+			others.add(other);
+		}
+		SMAAResultsListener mock = createMock(SMAAResultsListener.class);
+		mock.resultsChanged((ResultsEvent) JUnitUtil.eqEventObject(new ResultsEvent(results)));
+		replay(mock);
+		results.addResultsListener(mock);
+		results.merge(others);
+		verify(mock);
+		assertEquals(3L, results.getRankAccIterations());
+		assertEquals(3L, results.getSnapshot().getRankAccIterations());
+	}
+	
+	@Test
+	public void testMatrixSnapshots() {
+		do10Hits();
+		assertEquals(10L, results.getRankAccIterations());
+		double[][] ra = results.getRankAcceptabilityMatrix();
+		Map<Alternative, List<Double>> map = results.getRankAcceptabilities();
+		for (int i=0;i<alts.size();i++) {
+			for (int r=0;r<alts.size();r++) {
+				assertEquals(map.get(alts.get(i)).get(r), ra[i][r], 0.0);
+			}
+		}
+		results.confidenceUpdate(new boolean[]{true, false});
+		results.confidenceUpdate(new boolean[]{true, true});
+		assertEquals(2L, results.getConfidenceIterations());
+		double[] cf = results.getConfidenceFactorArray();
+		assertEquals(1.0, cf[0], 0.0);
+		assertEquals(0.5, cf[1], 0.0);
+	}
+	
+	@Test
+	public void testSnapshot() {
+		assertTrue(Double.isNaN(results.getSnapshot().getRankAcceptability(0, 0)));
+		do10Hits();
+		SMAA2Snapshot snap = results.getSnapshot();
+		assertEquals(10L, snap.getRankAccIterations());
+		double[][] ra = results.getRankAcceptabilityMatrix();
+		double[][] cw = results.getCentralWeightMatrix();
+		for (int i=0;i<alts.size();i++) {
+			for (int r=0;r<alts.size();r++) {
+				assertEquals(ra[i][r], snap.getRankAcceptability(i, r), 0.0);
+			}
+			for (int c=0;c<crit.size();c++) {
+				assertEquals(cw[i][c], snap.getCentralWeight(i, c), 1E-12);
+			}
+		}
+		assertTrue(Double.isNaN(snap.getConfidenceFactor(0)));
+		
+		results.setSnapshotInterval(100);
+		results.update(firstFirst, weights1);
+		assertSame(snap, results.getSnapshot());
+		results.publishSnapshot();
+		assertEquals(11L, results.getSnapshot().getRankAccIterations());
+	}
+	
+	@Test
+	public void testSnapshotPublishedBeforeEvent() {
+		results.setSnapshotInterval(100);
+		final List<Long> seen = new ArrayList<Long>();
+		results.addResultsListener(new SMAAResultsListener() {
+			public void resultsChanged(ResultsEvent ev) {
+				seen.add(results.getSnapshot().getRankAccIterations());
+			}
+		});
+		do10Hits();
+		do10Hits();
+		assertEquals(2, seen.size());
+		assertEquals(10L, seen.get(0).longValue());
+		assertEquals(20L, seen.get(1).longValue());
+	}
+	
 	private void do10Hits() {		
 		for (int i=0;i<5;i++) {
 			results.update(firstFirst, weights1);
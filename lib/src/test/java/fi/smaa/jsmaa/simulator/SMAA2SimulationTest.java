@@ -25,6 +25,8 @@ package fi.smaa.jsmaa.simulator;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -34,7 +36,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import fi.smaa.common.RandomUtil;
+import fi.smaa.common.ValueRanker.TiePolicy;
 import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
 import fi.smaa.jsmaa.model.Criterion;
 import fi.smaa.jsmaa.model.GaussianMeasurement;
 import fi.smaa.jsmaa.model.IndependentMeasurements;
@@ -101,6 +105,35 @@ public class SMAA2SimulationTest {
 		
 	}
 	
+	@Test
+	public void testRandomTieBreaking() throws InterruptedException {
+		for (Criterion c : model.getCriteria()) {
+			((IndependentMeasurements) model.getMeasurements()).setMeasurement((ScaleCriterion) c, alt1, new Interval(0.0, 0.0));
+			((IndependentMeasurements) model.getMeasurements()).setMeasurement((ScaleCriterion) c, alt2, new Interval(0.0, 0.0));
+		}
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 10000);
+		simulation.setTiePolicy(TiePolicy.RANDOM);
+		TaskUtil.run(simulation.getTask());
+		
+		Map<Alternative, List<Double>> ra = simulation.getResults().getRankAcceptabilities();
+		assertEquals(0.5, ra.get(alt1).get(0), 0.02);
+		assertEquals(0.5, ra.get(alt1).get(1), 0.02);
+		assertEquals(0.5, ra.get(alt2).get(0), 0.02);
+	}
+	
+	@Test
+	public void testFinalSnapshot() throws InterruptedException {
+		setCriteriaMeasurements();
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1234);
+		TaskUtil.run(simulation.getTask());
+		SMAA2Results results = simulation.getResults();
+		SMAA2Snapshot snap = results.getSnapshot();
+		assertEquals(1234L, snap.getRankAccIterations());
+		assertEquals(1234L, snap.getConfidenceIterations());
+		assertEquals(results.getConfidenceFactors().get(alt2), snap.getConfidenceFactor(1), 0.0);
+		assertEquals(results.getRankAcceptabilities().get(alt1).get(1), snap.getRankAcceptability(0, 1), 0.0);
+	}
+	
 	@Test
 	public void testCorrectResults() throws InterruptedException {
 		setCriteriaMeasurements();
@@ -119,6 +152,161 @@ public class SMAA2SimulationTest {
 		
 	}
 
+	@Test
+	public void testConvergence() throws InterruptedException {
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, alt1, new Interval(0.0, 1.0));
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, alt2, new Interval(0.0, 1.0));
+		ConvergenceCriterion conv = new ConvergenceCriterion(0.01, 1000, 100000);
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), conv);
+		TaskUtil.run(simulation.getTask());
+		
+		SMAA2Results results = simulation.getResults();
+		int iter = results.getRankAccIteration();
+		assertTrue(iter >= 1000 && iter < 100000);
+		assertEquals(0, iter % SMAASimulation.REPORTING_INTERVAL);
+		assertTrue(results.getMaxRankAcceptabilityError() < 0.01);
+		assertTrue(results.getMaxCentralWeightError() < 0.01);
+		assertTrue(results.getMaxConfidenceFactorError() < 0.01);
+	}
+
+	@Test
+	public void testCorrectResultsQuasiRandom() throws InterruptedException {
+		setCriteriaMeasurements();
+		
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createQuasiRandom(666), 10000);
+		TaskUtil.run(simulation.getTask());
+
+		SMAA2Results results = simulation.getResults();		
+		Map<Criterion, Double> cw1 = results.getCentralWeightVectors().get(alt1);
+		Map<Criterion, Double> cw2 = results.getCentralWeightVectors().get(alt2);
+
+		assertTrue(cw1.get(c1) > cw2.get(c1));
+		assertTrue(cw1.get(c2) < cw2.get(c2));
+		assertTrue(cw1.get(c3) > cw2.get(c3));
+		assertEquals(0.75, results.getRankAcceptabilities().get(alt1).get(0), 0.01);
+	}
+	
+	@Test
+	public void testResimulateCriterion() throws InterruptedException {
+		IndependentMeasurements m = (IndependentMeasurements) model.getMeasurements();
+		m.setMeasurement(c1, alt1, new Interval(0.0, 1.0));
+		m.setMeasurement(c1, alt2, new Interval(0.2, 0.8));
+		m.setMeasurement(c2, alt1, new GaussianMeasurement(0.5, 0.2));
+		m.setMeasurement(c2, alt2, new Interval(0.0, 1.0));
+		SMAA2Simulation incremental = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1000);
+		incremental.setIncremental(true);
+		TaskUtil.run(incremental.getTask());
+		
+		m.setMeasurement(c2, alt1, new GaussianMeasurement(0.6, 0.1));
+		incremental.resimulateCriterion(1);
+		
+		SMAA2Simulation full = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1000);
+		full.setCommonRandomNumbers(true);
+		TaskUtil.run(full.getTask());
+		
+		SMAA2Results expected = full.getResults();
+		SMAA2Results actual = incremental.getResults();
+		assertEquals(expected.getRankAcceptabilities(), actual.getRankAcceptabilities());
+		assertEquals(expected.getCentralWeightVectors(), actual.getCentralWeightVectors());
+		assertEquals(expected.getConfidenceFactors(), actual.getConfidenceFactors());
+	}
+	
+	@Test
+	public void testResumeFromCheckpoint() throws Exception {
+		assertResumesExactly(false);
+	}
+	
+	@Test
+	public void testResumeFromCheckpointCommonRandomNumbers() throws Exception {
+		assertResumesExactly(true);
+	}
+	
+	@Test
+	public void testResumeFromCheckpointHitAndRun() throws Exception {
+		CardinalPreferenceInformation pref = new CardinalPreferenceInformation(model.getCriteria());
+		pref.setSamplingStrategy(CardinalPreferenceInformation.SamplingStrategy.HIT_AND_RUN);
+		pref.setMeasurement(c1, new Interval(0.1, 0.5));
+		pref.setMeasurement(c2, new Interval(0.2, 0.6));
+		pref.setMeasurement(c3, new Interval(0.0, 0.4));
+		model.setPreferenceInformation(pref);
+		assertResumesExactly(false);
+	}
+	
+	private void assertResumesExactly(boolean commonRandomNumbers) throws Exception {
+		IndependentMeasurements m = (IndependentMeasurements) model.getMeasurements();
+		m.setMeasurement(c1, alt1, new Interval(0.0, 1.0));
+		m.setMeasurement(c1, alt2, new Interval(0.2, 0.8));
+		m.setMeasurement(c2, alt1, new GaussianMeasurement(0.5, 0.2));
+		m.setMeasurement(c2, alt2, new LogNormalMeasurement(-0.5, 0.3));
+		final File checkpoint = File.createTempFile("jsmaa", ".ckp");
+		final File raCheckpoint = File.createTempFile("jsmaa", ".ckp");
+		checkpoint.deleteOnExit();
+		raCheckpoint.deleteOnExit();
+		
+		SMAA2Simulation full = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1000);
+		full.setCommonRandomNumbers(commonRandomNumbers);
+		full.setCheckpoint(checkpoint, 700); // in the RA phase at 700, in the CF phase at 400
+		full.getResults().addResultsListener(new SMAAResultsListener() {
+			public void resultsChanged(ResultsEvent ev) {
+				if (raCheckpoint.length() == 0 && checkpoint.length() > 0) {
+					checkpoint.renameTo(raCheckpoint);
+				}
+			}
+		});
+		TaskUtil.run(full.getTask());
+		
+		for (File f : new File[] {raCheckpoint, checkpoint}) {
+			SMAA2Simulation resumed = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1000);
+			resumed.setCommonRandomNumbers(commonRandomNumbers);
+			resumed.resume(f);
+			TaskUtil.run(resumed.getTask());
+			SMAA2Results expected = full.getResults();
+			SMAA2Results actual = resumed.getResults();
+			assertEquals(expected.getRankAcceptabilities(), actual.getRankAcceptabilities());
+			assertEquals(expected.getCentralWeightVectors(), actual.getCentralWeightVectors());
+			assertEquals(expected.getConfidenceFactors(), actual.getConfidenceFactors());
+		}
+	}
+	
+	@Test
+	public void testSampleWriter() throws Exception {
+		setCriteriaMeasurements();
+		File file = File.createTempFile("jsmaa", ".samples");
+		file.deleteOnExit();
+		SampleWriter writer = new SampleWriter(file, 3, 2);
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1000);
+		simulation.setSampleWriter(writer);
+		TaskUtil.run(simulation.getTask());
+		writer.close();
+		
+		SampleReader reader = new SampleReader(file);
+		assertEquals(1000, reader.getCount());
+		double[] w = new double[3];
+		double[] u = new double[2];
+		int[] r = new int[2];
+		int firstRanks = 0;
+		for (int i=0;i<reader.getCount();i++) {
+			reader.read(i, w, u, r);
+			assertEquals(1.0, w[0] + w[1] + w[2], 1e-10);
+			assertEquals(u[0] > u[1] ? 0 : 1, r[0]);
+			firstRanks += r[0] == 0 ? 1 : 0;
+		}
+		reader.close();
+		assertEquals(simulation.getResults().getRankAcceptabilities().get(alt1).get(0), firstRanks / 1000.0, 1e-10);
+	}
+	
+	@Test(expected=IOException.class)
+	public void testResumeFromInvalidFile() throws Exception {
+		File f = File.createTempFile("jsmaa", ".ckp");
+		f.deleteOnExit();
+		new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1000).resume(f);
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testResimulateCriterionNotIncremental() {
+		new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1000).resimulateCriterion(0);
+	}
+	
 	private void setCriteriaMeasurements() {
 		// set interval measurements
 		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, alt1, new Interval(1.0, 1.0));
@@ -64,6 +64,38 @@ public class SMAATRIResultsTest {
 		results = new SMAATRIResults(alts, cats, 10);
 	}
 	
+	@Test
+	public void testSnapshot() {
+		results = new SMAATRIResults(alts, cats, 100);
+		assertEquals(0L, results.getSnapshot().getIterations());
+		results.setSnapshotInterval(4);
+		do10Hits();
+		SMAATRISnapshot snap = results.getSnapshot();
+		assertEquals(8L, snap.getIterations());
+		assertEquals(5.0 / 8.0, snap.getCategoryAcceptability(0, 0), 0.0);
+		assertEquals(3.0 / 8.0, snap.getCategoryAcceptability(0, 1), 0.0);
+		
+		results.publishSnapshot();
+		assertEquals(10L, results.getSnapshot().getIterations());
+		assertEquals(0.5, results.getSnapshot().getCategoryAcceptability(1, 2), 0.0);
+		// older snapshots are not modified
+		assertEquals(8L, snap.getIterations());
+	}
+	
+	@Test
+	public void testSnapshotPublishedBeforeEvent() {
+		results.setSnapshotInterval(4);
+		final List<Long> seen = new ArrayList<Long>();
+		results.addResultsListener(new SMAAResultsListener() {
+			public void resultsChanged(ResultsEvent ev) {
+				seen.add(results.getSnapshot().getIterations());
+			}
+		});
+		do10Hits();
+		assertEquals(1, seen.size());
+		assertEquals(10L, seen.get(0).longValue());
+	}
+	
 	private void do10Hits() {		
 		for (int i=0;i<5;i++) {
 			results.update(firstSecondCat);
@@ -26,7 +26,9 @@ import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -34,6 +36,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.drugis.common.JUnitUtil;
+import org.drugis.common.threading.TaskUtil;
 import org.drugis.common.threading.ThreadHandler;
 import org.junit.Before;
 import org.junit.Ignore;
@@ -44,6 +47,7 @@ import fi.smaa.jsmaa.model.Alternative;
 import fi.smaa.jsmaa.model.Category;
 import fi.smaa.jsmaa.model.Criterion;
 import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
 import fi.smaa.jsmaa.model.IndependentMeasurements;
 import fi.smaa.jsmaa.model.Interval;
 import fi.smaa.jsmaa.model.OutrankingCriterion;
@@ -113,6 +117,18 @@ public class SMAATRISimulationTest {
 		return (SMAATRIResults) simulation.getResults();
 	}
 	
+	@Test
+	public void testConvergence() throws InterruptedException {
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, alt1, new Interval(0.0, 2.0));
+		SMAATRISimulation simulation = new SMAATRISimulation(model, RandomUtil.createWithFixedSeed(),
+				new ConvergenceCriterion(0.01, 500, 100000));
+		TaskUtil.run(simulation.getTask());
+		
+		SMAATRIResults res = simulation.getResults();
+		assertTrue(res.getIteration() >= 500 && res.getIteration() < 100000);
+		assertTrue(res.getMaxCategoryAcceptabilityError() < 0.01);
+	}
+	
 	@Test
 	public void testCorrectResults() throws InterruptedException {		
 		SMAATRIResults res = runModel(model);
@@ -125,6 +141,41 @@ public class SMAATRISimulationTest {
 		assertEquals(0.0, accs.get(alt2).get(1), 0.00001);	
 	}
 	
+	@Test
+	public void testCommonRandomNumbers() throws InterruptedException {
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, alt1, new Interval(0.0, 2.0));
+		SMAATRIResults r1 = runCommonRandomNumbers(model);
+		// editing alt2 leaves the random numbers of alt1 unchanged
+		SMAATRIModel edited = model.deepCopy();
+		((IndependentMeasurements) edited.getMeasurements()).setMeasurement(
+				edited.getCriteria().get(0), edited.getAlternatives().get(1), new Interval(0.5, 1.5));
+		SMAATRIResults r2 = runCommonRandomNumbers(edited);
+		assertEquals(r1.getCategoryAcceptabilities().get(alt1), r2.getCategoryAcceptabilities().get(r2.getAlternatives().get(0)));
+	}
+
+	@Test
+	public void testResumeFromCheckpoint() throws Exception {
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, alt1, new Interval(0.0, 2.0));
+		File checkpoint = File.createTempFile("jsmaa", ".ckp");
+		checkpoint.deleteOnExit();
+		SMAATRISimulation full = new SMAATRISimulation(model, RandomUtil.createWithFixedSeed(), 1000);
+		full.setCheckpoint(checkpoint, 600);
+		TaskUtil.run(full.getTask());
+		
+		SMAATRISimulation resumed = new SMAATRISimulation(model, RandomUtil.createWithFixedSeed(), 1000);
+		resumed.resume(checkpoint);
+		assertEquals(600, resumed.getResults().getIteration().intValue());
+		TaskUtil.run(resumed.getTask());
+		assertEquals(full.getResults().getCategoryAcceptabilities(), resumed.getResults().getCategoryAcceptabilities());
+	}
+
+	private SMAATRIResults runCommonRandomNumbers(SMAATRIModel m) throws InterruptedException {
+		SMAATRISimulation simulation = new SMAATRISimulation(m, RandomUtil.createWithFixedSeed(), 1000);
+		simulation.setCommonRandomNumbers(true);
+		TaskUtil.run(simulation.getTask());
+		return simulation.getResults();
+	}
+	
 	@Test
 	public void testCorrectResultsPessimistic() throws InterruptedException {
 		model.setRule(false);
@@ -192,6 +243,53 @@ public class SMAATRISimulationTest {
 		verify(mock);
 	}
 	
+	@Test
+	public void testOverlappingProfiles() throws InterruptedException {
+		Category cat3 = new Category("cat3");
+		model.addCategory(cat3);
+		model.setCategoryUpperBound(c1, cat1, new Interval(0.0, 2.0));
+		model.setCategoryUpperBound(c1, cat2, new Interval(0.0, 2.0));
+		model.setCategoryUpperBound(c2, cat1, new GaussianMeasurement(1.0, 1.0));
+		model.setCategoryUpperBound(c2, cat2, new GaussianMeasurement(0.0, 0.1));
+		
+		SMAATRISimulation simulation = new SMAATRISimulation(model, RandomUtil.createWithFixedSeed(), 1000);
+		TaskUtil.run(simulation.getTask());
+		assertEquals(1000, simulation.getResults().getIterations());
+	}
+	
+	@Test
+	public void testWidelyOverlappingProfiles() throws InterruptedException {
+		model.deleteCriterion(c2);
+		Category cat3 = new Category("cat3");
+		model.addCategory(cat3);
+		model.setCategoryUpperBound(c1, cat1, new Interval(0.0, 10.0));
+		model.setCategoryUpperBound(c1, cat2, new Interval(0.0, 1.0));
+		
+		SMAATRISimulation simulation = new SMAATRISimulation(model, RandomUtil.createWithFixedSeed(), 1000);
+		TaskUtil.run(simulation.getTask());
+		assertEquals(1000, simulation.getResults().getIterations());
+	}
+	
+	@Test
+	public void testOrderedProfilesDistribution() throws InterruptedException {
+		// ordered U[0,1] profiles are the order statistics of two uniforms: P(min > 0.5) and
+		// P(max <= 0.5) are both 0.25
+		model.deleteCriterion(c2);
+		Category cat3 = new Category("cat3");
+		model.addCategory(cat3);
+		c1.setIndifMeasurement(new ExactMeasurement(0.0));
+		c1.setPrefMeasurement(new ExactMeasurement(0.0));
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, alt1, new ExactMeasurement(0.5));
+		model.setCategoryUpperBound(c1, cat1, new Interval(0.0, 1.0));
+		model.setCategoryUpperBound(c1, cat2, new Interval(0.0, 1.0));
+		model.setRule(false);
+		
+		List<Double> accs = runModel(model).getCategoryAcceptabilities().get(alt1);
+		assertEquals(0.25, accs.get(0), 0.02);
+		assertEquals(0.5, accs.get(1), 0.02);
+		assertEquals(0.25, accs.get(2), 0.02);
+	}
+	
 	@Test
 	public void testOneCriterionZeroBoundUpperBound() throws InterruptedException {
 		model.setCategoryUpperBound(c1, cat1, new ExactMeasurement(0.0));
@@ -0,0 +1,74 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class SampleBufferTest {
+	
+	@Test
+	public void testWriteTo() throws IOException {
+		File file = File.createTempFile("jsmaa", ".samples");
+		file.deleteOnExit();
+		SampleWriter writer = new SampleWriter(file, 1, 2);
+		SampleBuffer buffer = new SampleBuffer(1, 2, 2);
+		double[] w = new double[1];
+		double[] u = new double[2];
+		int[] r = new int[2];
+		for (int i=0;i<3;i++) {
+			w[0] = i;
+			u[1] = -i;
+			r[0] = i;
+			buffer.add(w, u, r);
+			if (buffer.getCount() == 2) {
+				buffer.writeTo(writer);
+				assertEquals(0, buffer.getCount());
+			}
+		}
+		buffer.writeTo(writer);
+		writer.close();
+		
+		SampleReader reader = new SampleReader(file);
+		assertEquals(3, reader.getCount());
+		for (int i=0;i<3;i++) {
+			reader.read(i, w, u, r);
+			assertArrayEquals(new double[] {i}, w, 0.0);
+			assertArrayEquals(new double[] {0.0, -i}, u, 0.0);
+			assertArrayEquals(new int[] {i, 0}, r);
+		}
+		reader.close();
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testFull() {
+		SampleBuffer buffer = new SampleBuffer(1, 1, 1);
+		buffer.add(new double[1], new double[1], new int[1]);
+		buffer.add(new double[1], new double[1], new int[1]);
+	}
+}
@@ -0,0 +1,93 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SampleCacheTest {
+	
+	@Test
+	public void testStoresSamplesOverSeveralChunks() {
+		int numAlts = 3;
+		int numCrit = 2;
+		SampleCache cache = new SampleCache(numCrit, numAlts);
+		int n = 100000;
+		for (int i=0;i<n;i++) {
+			cache.addRankAccSample(new double[] { i, -i }, values(i, numCrit, numAlts));
+		}
+		assertEquals(n, cache.getRankAccCount());
+		double[] w = new double[numCrit];
+		double[][] pv = new double[numCrit][numAlts];
+		for (int i : new int[] { 0, 1, 21844, 21845, n - 1 }) {
+			cache.getWeights(i, w);
+			assertArrayEquals(new double[] { i, -i }, w, 0.0);
+			cache.getRankAccValues(i, pv);
+			assertArrayEquals(values(i, numCrit, numAlts)[1], pv[1], 0.0);
+		}
+	}
+	
+	@Test
+	public void testAlternativesExceedingChunk() {
+		int numAlts = 70000;
+		SampleCache cache = new SampleCache(1, numAlts);
+		for (int i=0;i<3;i++) {
+			cache.addConfFacSample(values(i, 1, numAlts));
+		}
+		double[] replaced = new double[numAlts];
+		replaced[numAlts - 1] = 42.0;
+		cache.setConfFacValues(1, 0, replaced);
+		
+		double[][] pv = new double[1][numAlts];
+		cache.getConfFacValues(1, pv);
+		assertArrayEquals(replaced, pv[0], 0.0);
+		cache.getConfFacValues(2, pv);
+		assertArrayEquals(values(2, 1, numAlts)[0], pv[0], 0.0);
+	}
+	
+	@Test
+	public void testClear() {
+		SampleCache cache = new SampleCache(1, 1);
+		cache.addRankAccSample(new double[] { 1.0 }, new double[][] {{ 1.0 }});
+		cache.addConfFacSample(new double[][] {{ 1.0 }});
+		cache.clear();
+		assertEquals(0, cache.getRankAccCount());
+		assertEquals(0, cache.getConfFacCount());
+		cache.addRankAccSample(new double[] { 2.0 }, new double[][] {{ 3.0 }});
+		double[][] pv = new double[1][1];
+		cache.getRankAccValues(0, pv);
+		assertEquals(3.0, pv[0][0], 0.0);
+	}
+
+	private static double[][] values(int iteration, int numCrit, int numAlts) {
+		double[][] pv = new double[numCrit][numAlts];
+		for (int c=0;c<numCrit;c++) {
+			for (int a=0;a<numAlts;a++) {
+				pv[c][a] = iteration + c * 0.5 + a * 0.001;
+			}
+		}
+		return pv;
+	}
+}
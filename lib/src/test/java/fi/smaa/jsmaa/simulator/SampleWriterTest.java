@@ -0,0 +1,94 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SampleWriterTest {
+	
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("jsmaa", ".samples");
+		file.deleteOnExit();
+	}
+	
+	@Test
+	public void testWriteRead() throws IOException {
+		int n = 200000; // spans several windows
+		SampleWriter writer = new SampleWriter(file, 2, 3);
+		double[] w = new double[2];
+		double[] u = new double[3];
+		int[] r = new int[3];
+		for (int i=0;i<n;i++) {
+			w[0] = i;
+			w[1] = -i;
+			u[0] = 0.5 * i;
+			u[2] = 2.0 * i;
+			r[1] = i % 3;
+			writer.write(w, u, r);
+		}
+		writer.close();
+		assertEquals(n, writer.getCount());
+		
+		SampleReader reader = new SampleReader(file);
+		assertEquals(2, reader.getNumCriteria());
+		assertEquals(3, reader.getNumAlternatives());
+		assertEquals(n, reader.getCount());
+		for (int i : new int[] {0, 1, 161290, n-1}) {
+			reader.read(i, w, u, r);
+			assertArrayEquals(new double[] {i, -i}, w, 0.0);
+			assertArrayEquals(new double[] {0.5 * i, 0.0, 2.0 * i}, u, 0.0);
+			assertArrayEquals(new int[] {0, i % 3, 0}, r);
+		}
+		reader.read(5, null, null, r);
+		assertEquals(2, r[1]);
+		reader.close();
+	}
+	
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testReadBeyondEnd() throws IOException {
+		SampleWriter writer = new SampleWriter(file, 1, 1);
+		writer.write(new double[1], new double[1], new int[1]);
+		writer.close();
+		SampleReader reader = new SampleReader(file);
+		try {
+			reader.read(1, null, null, null);
+		} finally {
+			reader.close();
+		}
+	}
+	
+	@Test(expected=IOException.class)
+	public void testReadInvalidFile() throws IOException {
+		new SampleReader(file);
+	}
+}
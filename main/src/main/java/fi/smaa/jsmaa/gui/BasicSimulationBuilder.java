@@ -28,10 +28,13 @@ import java.util.List;
 
 import javax.swing.JFrame;
 
+import fi.smaa.common.RandomUtil;
 import fi.smaa.jsmaa.model.NamedObject;
 import fi.smaa.jsmaa.model.SMAAModel;
 import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.simulator.ConvergenceCriterion;
 import fi.smaa.jsmaa.simulator.ResultsEvent;
+import fi.smaa.jsmaa.simulator.ResultsEventDispatcher;
 import fi.smaa.jsmaa.simulator.SMAA2Results;
 import fi.smaa.jsmaa.simulator.SMAAResults;
 import fi.smaa.jsmaa.simulator.SMAAResultsListener;
@@ -45,6 +48,20 @@ public abstract class BasicSimulationBuilder<M extends SMAAModel, R extends SMAA
 	private GUIFactory factory;
 	private JFrame frame;
 	public int ITERATIONS = 10000;
+	/** Standard error at which the simulation stops early; 0.0 to always run ITERATIONS. */
+	public double TOLERANCE = 0.0;
+	public int MIN_ITERATIONS = 1000;
+	/** Whether to sample with a randomized quasi-Monte Carlo sequence instead of pseudo-random numbers. */
+	public boolean QUASI_RANDOM = false;
+	/** The pseudo-random number engine; ignored when QUASI_RANDOM. */
+	public RandomUtil.Engine ENGINE = RandomUtil.Engine.JDK;
+	/** Whether re-runs after model edits use common random numbers; ignored when QUASI_RANDOM. */
+	public boolean COMMON_RANDOM_NUMBERS = false;
+	/** Number of parallel workers; more than 1 gives results that depend on the number of workers. */
+	public int WORKERS = 1;
+	/** Minimum time between two result updates shown in the GUI, in milliseconds. */
+	public static final long RESULTS_UPDATE_WINDOW = 50;
+	private static final ResultsEventDispatcher RESULTS_DISPATCHER = ResultsEventDispatcher.onEventDispatchThread(RESULTS_UPDATE_WINDOW);
 
 	public BasicSimulationBuilder(M model, GUIFactory factory, JFrame frame) {
 		super(model);
@@ -55,8 +72,28 @@ public abstract class BasicSimulationBuilder<M extends SMAAModel, R extends SMAA
 		connectNameAdapters(model.getCriteria(), this.model.getCriteria());
 	}
 	
+	/**
+	 * @return the stopping rule for the simulation phases, based on ITERATIONS, TOLERANCE and MIN_ITERATIONS
+	 */
+	protected ConvergenceCriterion getConvergenceCriterion() {
+		if (TOLERANCE > 0.0) {
+			return new ConvergenceCriterion(TOLERANCE, Math.min(MIN_ITERATIONS, ITERATIONS), ITERATIONS);
+		}
+		return ConvergenceCriterion.fixed(ITERATIONS);
+	}
+	
+	/**
+	 * @return a new random number stream for the simulation, with a fixed seed
+	 */
+	protected RandomUtil createRandom() {
+		return QUASI_RANDOM ? RandomUtil.createQuasiRandom(666) : RandomUtil.create(ENGINE, 666);
+	}
+	
 	@Override
 	protected void prepareSimulation(T simulation, R results) {
+		simulation.setCommonRandomNumbers(COMMON_RANDOM_NUMBERS && !QUASI_RANDOM);
+		// the GUI tables and charts read the published snapshots, never the live results
+		results.setEventDispatcher(RESULTS_DISPATCHER);
 		results.addResultsListener(new SimulationProgressListener());
 
 		if (model instanceof SMAATRIModel) {
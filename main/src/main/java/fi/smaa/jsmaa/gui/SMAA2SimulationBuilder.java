@@ -24,8 +24,8 @@ package fi.smaa.jsmaa.gui;
 
 import javax.swing.JFrame;
 
-import fi.smaa.common.RandomUtil;
 import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.simulator.ParallelSMAA2Simulation;
 import fi.smaa.jsmaa.simulator.SMAA2Results;
 import fi.smaa.jsmaa.simulator.SMAA2Simulation;
 
@@ -37,7 +37,10 @@ public class SMAA2SimulationBuilder extends BasicSimulationBuilder<SMAAModel, SM
 
 	@Override
 	protected SMAA2Simulation generateSimulation() {
-		return new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), ITERATIONS );
+		if (WORKERS > 1) {
+			return new ParallelSMAA2Simulation(model, createRandom(), getConvergenceCriterion(), WORKERS);
+		}
+		return new SMAA2Simulation(model, createRandom(), getConvergenceCriterion());
 	}
 
 }
@@ -24,8 +24,8 @@ package fi.smaa.jsmaa.gui;
 
 import javax.swing.JFrame;
 
-import fi.smaa.common.RandomUtil;
 import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.simulator.ParallelSMAATRISimulation;
 import fi.smaa.jsmaa.simulator.SMAATRIResults;
 import fi.smaa.jsmaa.simulator.SMAATRISimulation;
 
@@ -39,6 +39,9 @@ public class SMAATRISimulationBuilder extends BasicSimulationBuilder<SMAATRIMode
 	
 	@Override
 	public SMAATRISimulation generateSimulation() {
-		return new SMAATRISimulation(model, RandomUtil.createWithFixedSeed(), ITERATIONS);	
+		if (WORKERS > 1) {
+			return new ParallelSMAATRISimulation(model, createRandom(), getConvergenceCriterion(), WORKERS);
+		}
+		return new SMAATRISimulation(model, createRandom(), getConvergenceCriterion());	
 	}
 }